@@ -5,6 +5,7 @@ import android.content.Context;
 import com.getstream.sdk.chat.enums.OnlineStatus;
 import com.getstream.sdk.chat.navigation.ChatNavigationHandler;
 import com.getstream.sdk.chat.navigation.ChatNavigator;
+import com.getstream.sdk.chat.storage.ChatStorage;
 import com.getstream.sdk.chat.style.ChatFonts;
 import com.getstream.sdk.chat.style.ChatFontsImpl;
 import com.getstream.sdk.chat.style.StreamChatStyle;
@@ -12,6 +13,7 @@ import com.getstream.sdk.chat.utils.strings.ChatStrings;
 import com.getstream.sdk.chat.utils.strings.ChatStringsImpl;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import io.getstream.chat.android.client.ChatClient;
 import io.getstream.chat.android.client.logger.ChatLogLevel;
@@ -45,6 +47,12 @@ public interface Chat {
 
     String getVersion();
 
+    /**
+     * @return the offline storage, null if it isn't enabled
+     */
+    @Nullable
+    ChatStorage getStorage();
+
     class Builder {
 
         private final Context context;
@@ -52,6 +60,7 @@ public interface Chat {
         private ChatNavigationHandler navigationHandler;
         private StreamChatStyle style;
         private UrlSigner urlSigner;
+        private boolean offlineEnabled;
 
         public Builder(String apiKey, Context context) {
             this.context = context;
@@ -103,6 +112,14 @@ public interface Chat {
             return this;
         }
 
+        /**
+         * Stores channels and messages on disk, so they are shown before the network responds
+         */
+        public Builder offlineEnabled(boolean offlineEnabled) {
+            this.offlineEnabled = offlineEnabled;
+            return this;
+        }
+
         public Builder style(@NonNull StreamChatStyle style) {
             this.style = style;
             return this;
@@ -119,7 +136,8 @@ public interface Chat {
                     new ChatFontsImpl(style, context),
                     new ChatStringsImpl(context),
                     navigationHandler,
-                    urlSigner
+                    urlSigner,
+                    offlineEnabled ? new ChatStorage(context) : null
             );
 
             chat.init();
@@ -4,11 +4,13 @@ import com.getstream.sdk.chat.enums.OnlineStatus;
 import com.getstream.sdk.chat.navigation.ChatNavigationHandler;
 import com.getstream.sdk.chat.navigation.ChatNavigator;
 import com.getstream.sdk.chat.navigation.ChatNavigatorImpl;
+import com.getstream.sdk.chat.storage.ChatStorage;
 import com.getstream.sdk.chat.style.ChatFonts;
 import com.getstream.sdk.chat.utils.strings.ChatStrings;
 
 import org.jetbrains.annotations.NotNull;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import io.getstream.chat.android.client.ChatClient;
@@ -32,17 +34,21 @@ class ChatImpl implements Chat {
     private final ChatStrings chatStrings;
     private final ChatFonts chatFonts;
     private final UrlSigner urlSigner;
+    @Nullable
+    private final ChatStorage storage;
 
     ChatImpl(ChatClient client,
              ChatFonts chatFonts,
              ChatStrings chatStrings,
              ChatNavigationHandler navigationHandler,
-             UrlSigner urlSigner) {
+             UrlSigner urlSigner,
+             @Nullable ChatStorage storage) {
 
         this.client = client;
         this.chatStrings = chatStrings;
         this.chatFonts = chatFonts;
         this.urlSigner = urlSigner;
+        this.storage = storage;
 
         navigator.setHandler(navigationHandler);
 
@@ -100,6 +106,12 @@ class ChatImpl implements Chat {
         return BuildConfig.BUILD_TYPE + ":" + BuildConfig.VERSION_NAME;
     }
 
+    @Override
+    @Nullable
+    public ChatStorage getStorage() {
+        return storage;
+    }
+
     void init() {
 
         initSocketListener();
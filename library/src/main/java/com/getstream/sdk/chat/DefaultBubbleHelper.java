@@ -1,8 +1,10 @@
 package com.getstream.sdk.chat;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
 import android.text.TextUtils;
+import android.util.SparseArray;
 
 import com.getstream.sdk.chat.adapter.MessageViewHolderFactory;
 import com.getstream.sdk.chat.model.ModelType;
@@ -15,119 +17,166 @@ import io.getstream.chat.android.client.models.Attachment;
 import io.getstream.chat.android.client.models.Message;
 import top.defaults.drawabletoolbox.DrawableBuilder;
 
-public class DefaultBubbleHelper {
-    private static int topLeftRadius, topRightRadius, bottomRightRadius, bottomLeftRadius;
-    private static int bgColor, strokeColor, strokeWidth;
+/**
+ * Draws the default bubbles from the {@link MessageListViewStyle}.
+ * A bubble only depends on a handful of flags (mine, top position, error, kind of attachment bubble),
+ * so each combination is built once and its {@link Drawable.ConstantState} is shared by all the views showing it.
+ * Used on the main thread.
+ */
+public class DefaultBubbleHelper implements MessageListView.BubbleHelper {
+
+    private static final int MINE = 1;
+    private static final int TOP = 1 << 1;
+    private static final int ERROR = 1 << 2;
+    private static final int ATTACHMENT = 1 << 3;
+    private static final int DESCRIPTION = 1 << 4;
+    // the attachment has a title, the bottom corners are square
+    private static final int TITLED = 1 << 5;
+    // the attachment isn't the first of the message, the top corner on the user's side is square
+    private static final int NOT_FIRST = 1 << 6;
+
+    private final MessageListViewStyle style;
+    private final Context context;
+    private final int cornerRadius1;
+    private final int cornerRadius2;
+    private final int failedColor;
+    private final boolean defaultBubbleMine;
+    private final boolean defaultBubbleTheirs;
+
+    private final SparseArray<Drawable.ConstantState> cache = new SparseArray<>();
+    private int hitCount;
+    private int missCount;
+
+    public DefaultBubbleHelper(MessageListViewStyle style, Context context) {
+        this.style = style;
+        this.context = context;
+        Resources resources = context.getResources();
+        cornerRadius1 = resources.getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
+        cornerRadius2 = resources.getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
+        failedColor = resources.getColor(R.color.stream_message_failed);
+        defaultBubbleMine = isDefaultBubble(true);
+        defaultBubbleTheirs = isDefaultBubble(false);
+    }
 
     public static MessageListView.BubbleHelper initDefaultBubbleHelper(MessageListViewStyle style, Context context) {
-        return new MessageListView.BubbleHelper() {
-            @Override
-            public Drawable getDrawableForMessage(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions) {
-                if (style.getMessageBubbleDrawable(mine) != -1)
-                    return context.getDrawable(style.getMessageBubbleDrawable(mine));
-
-                configParams(style, mine, false);
-                if (isDefaultBubble(style, mine, context))
-                    applyStyleDefault(positions, mine, context);
-                if (mine) {
-                    // set background for Failed or Error message
-                    //if (message.getSyncStatus() == Sync.LOCAL_FAILED
-                    //TODO: llc: check cache
-                    if(message.getType().equals(ModelType.message_error))
-                        bgColor = context.getResources().getColor(R.color.stream_message_failed);
-                }
-                return getBubbleDrawable();
-            }
+        return new DefaultBubbleHelper(style, context);
+    }
 
-            @Override
-            public Drawable getDrawableForAttachment(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions, Attachment attachment) {
-                if (attachment == null
-                        || attachment.getType().equals(ModelType.attach_unknown))
-                    return null;
-
-                if (style.getMessageBubbleDrawable(mine) != -1)
-                    return context.getDrawable(style.getMessageBubbleDrawable(mine));
-
-                configParams(style, mine, true);
-                if (isDefaultBubble(style, mine, context))
-                    applyStyleDefault(positions, mine, context);
-
-                // set corner radius if the attachment has title or description
-                if (!TextUtils.isEmpty(attachment.getTitle()) && !attachment.getType().equals(ModelType.attach_file))
-                    bottomLeftRadius = bottomRightRadius = 0;
-                // set corner radius if the attachment is not first
-                if (message.getAttachments().indexOf(attachment) != 0){
-                    if (mine)
-                        topRightRadius = 0;
-                    else
-                        topLeftRadius = 0;
-                }
-                return getBubbleDrawable();
-            }
+    @Override
+    public Drawable getDrawableForMessage(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions) {
+        if (style.getMessageBubbleDrawable(mine) != -1)
+            return context.getDrawable(style.getMessageBubbleDrawable(mine));
+
+        int key = baseKey(mine, positions);
+        // set background for Failed or Error message
+        //if (message.getSyncStatus() == Sync.LOCAL_FAILED
+        //TODO: llc: check cache
+        if (mine && ModelType.message_error.equals(message.getType()))
+            key |= ERROR;
+        return getDrawable(key);
+    }
 
-            @Override
-            public Drawable getDrawableForAttachmentDescription(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions){
-                if (style.getMessageBubbleDrawable(mine) != -1)
-                    return context.getDrawable(style.getMessageBubbleDrawable(mine));
+    @Override
+    public Drawable getDrawableForAttachment(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions, Attachment attachment) {
+        if (attachment == null
+                || attachment.getType().equals(ModelType.attach_unknown))
+            return null;
+
+        if (style.getMessageBubbleDrawable(mine) != -1)
+            return context.getDrawable(style.getMessageBubbleDrawable(mine));
+
+        int key = baseKey(mine, positions) | ATTACHMENT;
+        if (!TextUtils.isEmpty(attachment.getTitle()) && !attachment.getType().equals(ModelType.attach_file))
+            key |= TITLED;
+        if (message.getAttachments().indexOf(attachment) != 0)
+            key |= NOT_FIRST;
+        return getDrawable(key);
+    }
 
-                configParams(style, mine, true);
-                if (isDefaultBubble(style, mine, context))
-                    applyStyleDefault(positions, mine, context);
+    @Override
+    public Drawable getDrawableForAttachmentDescription(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions) {
+        if (style.getMessageBubbleDrawable(mine) != -1)
+            return context.getDrawable(style.getMessageBubbleDrawable(mine));
 
-                topLeftRadius = topRightRadius = 0;
-                return getBubbleDrawable();
-            }
-        };
+        return getDrawable(baseKey(mine, positions) | DESCRIPTION);
     }
 
-    private static void configParams(MessageListViewStyle style, boolean isMine, boolean isAttachment){
-        bgColor = isAttachment ? style.getAttachmentBackgroundColor(isMine) : style.getMessageBackgroundColor(isMine);
-        strokeColor = isAttachment ? style.getAttachmentBorderColor(isMine) : style.getMessageBorderColor(isMine);
-        strokeWidth = style.getMessageBorderWidth(isMine);
-        topLeftRadius = style.getMessageTopLeftCornerRadius(isMine);
-        topRightRadius = style.getMessageTopRightCornerRadius(isMine);
-        bottomRightRadius = style.getMessageBottomRightCornerRadius(isMine);
-        bottomLeftRadius = style.getMessageBottomLeftCornerRadius(isMine);
+    /**
+     * @return the number of bubbles served from the cache
+     */
+    public int getCacheHitCount() {
+        return hitCount;
     }
 
-    private static void applyStyleDefault(List<MessageViewHolderFactory.Position> positions, boolean isMine, Context context){
-        if (isMine){
-            topLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            bottomLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            if (positions.contains(MessageViewHolderFactory.Position.TOP)) {
-                topRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-                bottomRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-            } else {
-                topRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-                bottomRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-            }
-        }else{
-            topRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            bottomRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            if (positions.contains(MessageViewHolderFactory.Position.TOP)) {
-                topLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-                bottomLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-            } else {
-                topLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-                bottomLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-            }
-        }
+    /**
+     * @return the number of bubbles that had to be built
+     */
+    public int getCacheMissCount() {
+        return missCount;
     }
 
-    private static boolean isDefaultBubble(MessageListViewStyle style, boolean isMine, Context context) {
-        if (isMine)
-            return (style.getMessageTopLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                    (style.getMessageTopRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                    (style.getMessageBottomRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2)) &&
-                    (style.getMessageBottomLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1));
-
-        return (style.getMessageTopLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                (style.getMessageTopRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                (style.getMessageBottomRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                (style.getMessageBottomLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2));
+    private int baseKey(boolean mine, List<MessageViewHolderFactory.Position> positions) {
+        int key = mine ? MINE : 0;
+        // the position only changes the default bubble
+        if ((mine ? defaultBubbleMine : defaultBubbleTheirs) && positions.contains(MessageViewHolderFactory.Position.TOP))
+            key |= TOP;
+        return key;
     }
 
-    private static Drawable getBubbleDrawable(){
+    private Drawable getDrawable(int key) {
+        Drawable.ConstantState state = cache.get(key);
+        if (state != null) {
+            hitCount++;
+            return state.newDrawable(context.getResources());
+        }
+        missCount++;
+        Drawable drawable = buildDrawable(key);
+        if (drawable.getConstantState() != null) {
+            cache.put(key, drawable.getConstantState());
+        }
+        return drawable;
+    }
+
+    private Drawable buildDrawable(int key) {
+        boolean mine = (key & MINE) != 0;
+        boolean attachment = (key & (ATTACHMENT | DESCRIPTION)) != 0;
+
+        int bgColor = attachment ? style.getAttachmentBackgroundColor(mine) : style.getMessageBackgroundColor(mine);
+        int strokeColor = attachment ? style.getAttachmentBorderColor(mine) : style.getMessageBorderColor(mine);
+        int strokeWidth = style.getMessageBorderWidth(mine);
+        int topLeftRadius = style.getMessageTopLeftCornerRadius(mine);
+        int topRightRadius = style.getMessageTopRightCornerRadius(mine);
+        int bottomRightRadius = style.getMessageBottomRightCornerRadius(mine);
+        int bottomLeftRadius = style.getMessageBottomLeftCornerRadius(mine);
+
+        if (mine ? defaultBubbleMine : defaultBubbleTheirs) {
+            boolean top = (key & TOP) != 0;
+            int userSideTop = top ? cornerRadius1 : cornerRadius2;
+            if (mine) {
+                topLeftRadius = bottomLeftRadius = cornerRadius1;
+                topRightRadius = userSideTop;
+                bottomRightRadius = cornerRadius2;
+            } else {
+                topRightRadius = bottomRightRadius = cornerRadius1;
+                topLeftRadius = userSideTop;
+                bottomLeftRadius = cornerRadius2;
+            }
+        }
+        if ((key & ERROR) != 0)
+            bgColor = failedColor;
+        // set corner radius if the attachment has title or description
+        if ((key & TITLED) != 0)
+            bottomLeftRadius = bottomRightRadius = 0;
+        // set corner radius if the attachment is not first
+        if ((key & NOT_FIRST) != 0) {
+            if (mine)
+                topRightRadius = 0;
+            else
+                topLeftRadius = 0;
+        }
+        if ((key & DESCRIPTION) != 0)
+            topLeftRadius = topRightRadius = 0;
+
         return new DrawableBuilder()
                 .rectangle()
                 .strokeColor(strokeColor)
@@ -136,4 +185,17 @@ public class DefaultBubbleHelper {
                 .cornerRadii(topLeftRadius, topRightRadius, bottomRightRadius, bottomLeftRadius)
                 .build();
     }
-}
\ No newline at end of file
+
+    private boolean isDefaultBubble(boolean isMine) {
+        if (isMine)
+            return style.getMessageTopLeftCornerRadius(true) == cornerRadius1 &&
+                    style.getMessageTopRightCornerRadius(true) == cornerRadius1 &&
+                    style.getMessageBottomRightCornerRadius(true) == cornerRadius2 &&
+                    style.getMessageBottomLeftCornerRadius(true) == cornerRadius1;
+
+        return style.getMessageTopLeftCornerRadius(false) == cornerRadius1 &&
+                style.getMessageTopRightCornerRadius(false) == cornerRadius1 &&
+                style.getMessageBottomRightCornerRadius(false) == cornerRadius1 &&
+                style.getMessageBottomLeftCornerRadius(false) == cornerRadius2;
+    }
+}
@@ -1,20 +1,54 @@
 package com.getstream.sdk.chat;
 
 import android.content.Context;
+import android.os.SystemClock;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.util.LruCache;
 import android.widget.TextView;
 
+import com.getstream.sdk.chat.utils.StringUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
 import androidx.annotation.NonNull;
+import io.getstream.chat.android.client.models.Message;
 import io.noties.markwon.Markwon;
 import io.noties.markwon.core.CorePlugin;
 import io.noties.markwon.ext.strikethrough.StrikethroughPlugin;
+import io.noties.markwon.image.AsyncDrawableSpan;
 import io.noties.markwon.image.ImagesPlugin;
 import io.noties.markwon.linkify.LinkifyPlugin;
 
+/**
+ * Renders the markdown of message texts.
+ * The rendered texts are cached by message id and version, and messages can be rendered ahead of time
+ * on a background thread as they arrive, so binding a message is a cache lookup.
+ * Texts with images aren't cached, their image spans load into and draw on the view that shows them.
+ */
 public class Markdown {
 
-    private static Markdown instance;
+    private static final int CACHE_SIZE = 500;
+
+    private static final Executor RENDER_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stream-markdown");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static volatile Markdown instance;
     private Markwon markwon;
 
+    private final LruCache<String, Spanned> cache = new LruCache<>(CACHE_SIZE);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong renderTime = new AtomicLong();
+
     public Markdown(){
 
     }
@@ -32,10 +66,93 @@ public class Markdown {
         markwon.setMarkdown(textView, text);
     }
 
-    public static Markdown getInstance(Context context) {
-        if (instance == null)
-            instance = new Markdown(context);
+    /**
+     * Shows the rendered text of the message, rendering it only if it isn't cached
+     */
+    public void setMarkdown(@NonNull TextView textView, @NonNull Message message) {
+        markwon.setParsedMarkdown(textView, render(message));
+    }
+
+    /**
+     * @return the rendered text of the message, can be called from any thread
+     */
+    public Spanned render(@NonNull Message message) {
+        String key = key(message);
+        Spanned spanned = cache.get(key);
+        if (spanned != null) {
+            hitCount.incrementAndGet();
+            return spanned;
+        }
+        missCount.incrementAndGet();
+        long start = SystemClock.uptimeMillis();
+        spanned = markwon.toMarkdown(StringUtility.getDeletedOrMentionedText(message));
+        renderTime.addAndGet(SystemClock.uptimeMillis() - start);
+        if (!hasImages(spanned)) cache.put(key, spanned);
+        return spanned;
+    }
+
+    private static boolean hasImages(Spanned spanned) {
+        return spanned.getSpans(0, spanned.length(), AsyncDrawableSpan.class).length > 0;
+    }
 
+    /**
+     * Renders the texts of the messages on a background thread, the newest first
+     */
+    public void prerender(List<Message> messages) {
+        // the oldest of a large list would be evicted again before they are shown
+        int from = Math.max(0, messages.size() - CACHE_SIZE / 2);
+        final List<Message> batch = new ArrayList<>(messages.subList(from, messages.size()));
+        RENDER_EXECUTOR.execute(() -> {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                Message message = batch.get(i);
+                if (TextUtils.isEmpty(message.getText()) && message.getDeletedAt() == null) continue;
+                if (cache.get(key(message)) != null) continue;
+                try {
+                    render(message);
+                } catch (Exception e) {
+                    // the bind renders it again and reports the error
+                }
+            }
+        });
+    }
+
+    private static String key(Message message) {
+        long updatedAt = message.getUpdatedAt() == null ? 0 : message.getUpdatedAt().getTime();
+        long deletedAt = message.getDeletedAt() == null ? 0 : message.getDeletedAt().getTime();
+        // local messages don't change their updated_at, the text tells their versions apart
+        String text = message.getText();
+        return message.getId() + ':' + updatedAt + ':' + deletedAt + ':' + (text == null ? 0 : text.hashCode());
+    }
+
+    /**
+     * @return the number of texts found in the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of texts that had to be rendered, ahead of time or when bound
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the time in milliseconds spent rendering texts, divided by the miss count it's the time
+     * a bind saves on a cache hit
+     */
+    public long getRenderTime() {
+        return renderTime.get();
+    }
+
+    public static Markdown getInstance(Context context) {
+        if (instance == null) {
+            synchronized (Markdown.class) {
+                if (instance == null)
+                    instance = new Markdown(context);
+            }
+        }
         return instance;
     }
 }
@@ -5,6 +5,14 @@ public interface UrlSigner {
 
     String signImageUrl(String url);
 
+    /**
+     * Signs the url of an image shown as a thumbnail of the given size in pixels.
+     * Override it to ask a CDN that can resize images for a smaller variant, by default it signs the original image
+     */
+    default String signThumbnailUrl(String url, int width, int height) {
+        return signImageUrl(url);
+    }
+
     class DefaultUrlSigner implements UrlSigner {
 
         @Override
@@ -0,0 +1,143 @@
+package com.getstream.sdk.chat.adapter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Computes the DiffUtil diff between the shown list and a new list on a background thread
+ * and dispatches the result to the adapter on the main thread.
+ * When lists are submitted faster than the diffs complete, only the latest list is applied
+ * and the diffs of the lists in between are skipped or dropped.
+ *
+ * @param <T> the type of the list items
+ */
+public class AsyncDiffDispatcher<T> {
+
+    public interface DiffCallbackFactory<T> {
+        DiffUtil.Callback create(List<T> oldList, List<T> newList);
+    }
+
+    private static final Executor DIFF_EXECUTOR = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "stream-diff");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final RecyclerView.Adapter adapter;
+    private final DiffCallbackFactory<T> callbackFactory;
+    private final boolean detectMoves;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger maxScheduledGeneration = new AtomicInteger(0);
+
+    private List<T> currentList;
+
+    private volatile long lastDiffTime;
+    private long lastDispatchTime;
+    private final AtomicInteger droppedDiffCount = new AtomicInteger(0);
+
+    public AsyncDiffDispatcher(RecyclerView.Adapter adapter,
+                               DiffCallbackFactory<T> callbackFactory,
+                               boolean detectMoves,
+                               @NonNull List<T> initialList) {
+        this.adapter = adapter;
+        this.callbackFactory = callbackFactory;
+        this.detectMoves = detectMoves;
+        this.currentList = initialList;
+    }
+
+    @NonNull
+    public List<T> getCurrentList() {
+        return currentList;
+    }
+
+    /**
+     * Submits a new list, must be called on the main thread
+     *
+     * @param newList        the list to show
+     * @param commitCallback runs on the main thread once the list is shown, not called when a newer list replaced it
+     */
+    public void submitList(@Nullable List<T> newList, @Nullable Runnable commitCallback) {
+        final int runGeneration = maxScheduledGeneration.incrementAndGet();
+        if (newList == null) {
+            newList = new ArrayList<>();
+        }
+        if (newList == currentList) {
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+
+        final List<T> oldList = currentList;
+        // fast paths, nothing to diff
+        if (oldList.isEmpty() || newList.isEmpty()) {
+            long start = SystemClock.uptimeMillis();
+            currentList = newList;
+            if (!oldList.isEmpty()) {
+                adapter.notifyItemRangeRemoved(0, oldList.size());
+            } else if (!newList.isEmpty()) {
+                adapter.notifyItemRangeInserted(0, newList.size());
+            }
+            lastDispatchTime = SystemClock.uptimeMillis() - start;
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+
+        final List<T> list = newList;
+        DIFF_EXECUTOR.execute(() -> {
+            if (maxScheduledGeneration.get() != runGeneration) {
+                // a newer list is already waiting, don't bother
+                droppedDiffCount.incrementAndGet();
+                return;
+            }
+            long start = SystemClock.uptimeMillis();
+            final DiffUtil.DiffResult result = DiffUtil.calculateDiff(callbackFactory.create(oldList, list), detectMoves);
+            lastDiffTime = SystemClock.uptimeMillis() - start;
+
+            mainHandler.post(() -> {
+                if (maxScheduledGeneration.get() != runGeneration) {
+                    droppedDiffCount.incrementAndGet();
+                    return;
+                }
+                long dispatchStart = SystemClock.uptimeMillis();
+                currentList = list;
+                // only update those rows that change...
+                result.dispatchUpdatesTo(adapter);
+                lastDispatchTime = SystemClock.uptimeMillis() - dispatchStart;
+                if (commitCallback != null) commitCallback.run();
+            });
+        });
+    }
+
+    /**
+     * @return the time in milliseconds the last diff took on the background thread
+     */
+    public long getLastDiffTime() {
+        return lastDiffTime;
+    }
+
+    /**
+     * @return the time in milliseconds the last update took on the main thread
+     */
+    public long getLastDispatchTime() {
+        return lastDispatchTime;
+    }
+
+    /**
+     * @return the number of diffs skipped or thrown away because a newer list was submitted
+     */
+    public int getDroppedDiffCount() {
+        return droppedDiffCount.get();
+    }
+}
@@ -0,0 +1,56 @@
+package com.getstream.sdk.chat.adapter;
+
+import android.text.TextUtils;
+
+import java.util.List;
+import java.util.Objects;
+
+import androidx.recyclerview.widget.DiffUtil;
+import io.getstream.chat.android.client.models.Attachment;
+
+/**
+ * Diffs two versions of the attachments of a message, an attachment is identified by its type and url
+ */
+public class AttachmentListDiffCallback extends DiffUtil.Callback {
+
+    private final List<Attachment> oldList, newList;
+    // true when something all the attachments are drawn with changed, like the position of the message
+    private final boolean changedAll;
+
+    public AttachmentListDiffCallback(List<Attachment> oldList, List<Attachment> newList, boolean changedAll) {
+        this.oldList = oldList;
+        this.newList = newList;
+        this.changedAll = changedAll;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldList == null ? 0 : oldList.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newList == null ? 0 : newList.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        Attachment oldAttachment = oldList.get(oldItemPosition);
+        Attachment newAttachment = newList.get(newItemPosition);
+        return TextUtils.equals(oldAttachment.getType(), newAttachment.getType())
+                && TextUtils.equals(getKey(oldAttachment), getKey(newAttachment));
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        return !changedAll && Objects.equals(oldList.get(oldItemPosition), newList.get(newItemPosition));
+    }
+
+    private static String getKey(Attachment attachment) {
+        if (!TextUtils.isEmpty(attachment.getUrl())) return attachment.getUrl();
+        if (!TextUtils.isEmpty(attachment.getImageUrl())) return attachment.getImageUrl();
+        if (!TextUtils.isEmpty(attachment.getAssetUrl())) return attachment.getAssetUrl();
+        if (!TextUtils.isEmpty(attachment.getOgUrl())) return attachment.getOgUrl();
+        return attachment.getTitle();
+    }
+}
@@ -1,14 +1,17 @@
 package com.getstream.sdk.chat.adapter;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.ViewGroup;
 
 import com.getstream.sdk.chat.view.MessageListView;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
 
 import java.util.List;
+import java.util.Objects;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import io.getstream.chat.android.client.models.Attachment;
 import io.getstream.chat.android.client.models.Message;
@@ -37,6 +40,36 @@ public class AttachmentListItemAdapter extends RecyclerView.Adapter<RecyclerView
         this.attachments = message.getAttachments();
     }
 
+    /**
+     * Shows the attachments of another message, the views of the current attachments are reused.
+     * A new version of the same message is diffed with the current one, so only the attachments that changed are bound again
+     */
+    public void setEntity(@NonNull MessageListItem messageListItem) {
+        MessageListItem oldItem = this.messageListItem;
+        Message oldMessage = this.message;
+        List<Attachment> oldAttachments = this.attachments;
+
+        this.messageListItem = messageListItem;
+        this.message = messageListItem.getMessage();
+        this.attachments = message.getAttachments();
+
+        if (oldItem == messageListItem
+                || oldAttachments == attachments
+                || TextUtils.isEmpty(message.getId())
+                || !message.getId().equals(oldMessage.getId())) {
+            notifyDataSetChanged();
+            return;
+        }
+        // the attachments are drawn depending on these and on each other
+        boolean changedAll = oldItem.isMine() != messageListItem.isMine()
+                || !Objects.equals(oldItem.getPositions(), messageListItem.getPositions())
+                || !TextUtils.equals(oldMessage.getType(), message.getType())
+                || !TextUtils.equals(oldMessage.getCommand(), message.getCommand())
+                || oldAttachments.size() != attachments.size();
+        DiffUtil.calculateDiff(new AttachmentListDiffCallback(oldAttachments, attachments, changedAll))
+                .dispatchUpdatesTo(this);
+    }
+
     @Override
     public int getItemViewType(int position) {
         try {
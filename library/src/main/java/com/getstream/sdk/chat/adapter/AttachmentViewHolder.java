@@ -9,11 +9,10 @@ import android.widget.AdapterView;
 import android.widget.ListView;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
-import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+import com.getstream.sdk.chat.utils.ThumbnailLoader;
 import com.getstream.sdk.chat.utils.roundedImageView.PorterShapeImageView;
 import com.getstream.sdk.chat.view.MessageListView;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
@@ -202,9 +201,7 @@ public class AttachmentViewHolder extends BaseAttachmentViewHolder {
 
         if (!attachUrl.contains("https:"))
             attachUrl = "https:" + attachUrl;
-        Glide.with(context)
-                .load(Chat.getInstance().urlSigner().signImageUrl(attachUrl))
-                .into(iv_media_thumb);
+        ThumbnailLoader.load(context, attachUrl, iv_media_thumb, style, 0);
         if (!message.getType().equals(ModelType.message_ephemeral))
             tv_media_title.setText(attachments.get(0).getTitle());
         tv_media_des.setText(attachments.get(0).getText());
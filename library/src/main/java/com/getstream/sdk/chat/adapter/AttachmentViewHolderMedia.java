@@ -10,10 +10,10 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.enums.GiphyAction;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.utils.ThumbnailLoader;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.utils.roundedImageView.PorterShapeImageView;
 import com.getstream.sdk.chat.view.MessageListView;
@@ -170,11 +170,11 @@ public class AttachmentViewHolderMedia extends BaseAttachmentViewHolder {
         final String type = attachment.getType();
         configImageThumbBackground();
 
-        Glide.with(context)
-                //.load(client.getUploadStorage().signGlideUrl(ModelType.getAssetUrl(attachment)))
-                .load(attachment.getAssetUrl())
-                .placeholder(R.drawable.stream_placeholder)
-                .into(iv_media_thumb);
+        String url = ThumbnailLoader.getThumbnailUrl(attachment);
+        if (url != null)
+            ThumbnailLoader.load(context, url, iv_media_thumb, style, R.drawable.stream_placeholder);
+        else
+            iv_media_thumb.setImageResource(R.drawable.stream_placeholder);
 
         if (!message.getType().equals(ModelType.message_ephemeral))
             tv_media_title.setText(attachment.getTitle());
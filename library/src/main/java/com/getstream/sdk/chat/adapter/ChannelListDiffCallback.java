@@ -1,5 +1,6 @@
 package com.getstream.sdk.chat.adapter;
 
+import java.util.Date;
 import java.util.List;
 
 import androidx.annotation.Nullable;
@@ -7,20 +8,31 @@ import androidx.recyclerview.widget.DiffUtil;
 import io.getstream.chat.android.client.models.Channel;
 import io.getstream.chat.android.client.models.Message;
 
-import static com.getstream.sdk.chat.utils.LlcMigrationUtils.computeLastMessage;
-import static com.getstream.sdk.chat.utils.LlcMigrationUtils.currentUserRead;
 import static com.getstream.sdk.chat.utils.LlcMigrationUtils.equalsLastMessageDate;
-import static com.getstream.sdk.chat.utils.LlcMigrationUtils.equalsName;
 import static com.getstream.sdk.chat.utils.LlcMigrationUtils.equalsUserLists;
-import static com.getstream.sdk.chat.utils.LlcMigrationUtils.getOtherUsers;
-import static com.getstream.sdk.chat.utils.LlcMigrationUtils.lastMessagesAreTheSame;
 
 public class ChannelListDiffCallback extends DiffUtil.Callback {
     private List<Channel> oldList, newList;
+    private ChannelStateCache stateCache;
 
     public ChannelListDiffCallback(List<Channel> oldList, List<Channel> newList) {
+        this(oldList, newList, new ChannelStateCache());
+    }
+
+    /**
+     * @param stateCache the derived states of the channels, shared with the view holders
+     */
+    public ChannelListDiffCallback(List<Channel> oldList, List<Channel> newList, ChannelStateCache stateCache) {
         this.oldList = oldList;
         this.newList = newList;
+        this.stateCache = stateCache;
+        // the callback is created on the diff thread, compute the states of the changed channels
+        // here instead of when their rows are bound
+        if (newList != null) {
+            for (Channel channel : newList) {
+                stateCache.get(channel);
+            }
+        }
     }
 
     @Override
@@ -59,10 +71,14 @@ public class ChannelListDiffCallback extends DiffUtil.Callback {
             contentTheSame = false;
         } else if (!oldChannel.getExtraData().equals(newChannel.getExtraData())) {
             contentTheSame = false;
-        } else if (!lastMessagesAreTheSame(oldChannel, newChannel)) {
-            contentTheSame = false;
-        } else if (currentUserRead(oldChannel, newChannel)) {
-            contentTheSame = false;
+        } else {
+            ChannelListItemState oldState = stateCache.get(oldChannel);
+            ChannelListItemState newState = stateCache.get(newChannel);
+            if (!lastMessagesAreTheSame(oldState, newState)) {
+                contentTheSame = false;
+            } else if (currentUserRead(oldState, newState)) {
+                contentTheSame = false;
+            }
         }
 
         return contentTheSame;
@@ -76,21 +92,43 @@ public class ChannelListDiffCallback extends DiffUtil.Callback {
 
         Channel oldChannel = oldList.get(oldItemPosition);
         Channel newChannel = newList.get(newItemPosition);
+        ChannelListItemState oldState = stateCache.get(oldChannel);
+        ChannelListItemState newState = stateCache.get(newChannel);
 
-        Message oldLastMessage = computeLastMessage(oldChannel);
-        Message newLastMessage = computeLastMessage(newChannel);
+        Message oldLastMessage = oldState.getLastMessage();
+        Message newLastMessage = newState.getLastMessage();
 
         if (oldLastMessage != null || newLastMessage != null) {
-            diff.lastMessage = !oldLastMessage.getId().equals(newLastMessage.getId());
+            diff.lastMessage = oldLastMessage == null || newLastMessage == null
+                    || !oldLastMessage.getId().equals(newLastMessage.getId());
         }
 
-        diff.name = !equalsName(newChannel, oldChannel);
-        diff.avatarView = !equalsUserLists(getOtherUsers(oldChannel), getOtherUsers(newChannel));
-        diff.readState = currentUserRead(oldChannel, newChannel);
+        diff.name = !newState.getName().equals(oldState.getName());
+        diff.avatarView = !equalsUserLists(oldState.getOtherUsers(), newState.getOtherUsers());
+        diff.readState = currentUserRead(oldState, newState);
         diff.lastMessageDate = !equalsLastMessageDate(oldChannel, newChannel);
 
         return diff;
     }
 
+    private static boolean lastMessagesAreTheSame(ChannelListItemState a, ChannelListItemState b) {
+        Message oldLastMessage = a.getLastMessage();
+        Message newLastMessage = b.getLastMessage();
+        return oldLastMessage == null ||
+                newLastMessage == null ||
+                newLastMessage.getUpdatedAt() == null ||
+                oldLastMessage.getUpdatedAt() == null ||
+                oldLastMessage.getUpdatedAt().getTime() >= newLastMessage.getUpdatedAt().getTime();
+    }
+
+    /**
+     * @return true if the current user read the channel since the old version
+     */
+    private static boolean currentUserRead(ChannelListItemState a, ChannelListItemState b) {
+        Date oldDate = a.getCurrentUserLastRead();
+        Date newDate = b.getCurrentUserLastRead();
+        return oldDate != null && newDate != null && newDate.after(oldDate);
+    }
+
 
 }
\ No newline at end of file
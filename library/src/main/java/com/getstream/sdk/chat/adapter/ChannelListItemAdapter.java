@@ -3,6 +3,7 @@ package com.getstream.sdk.chat.adapter;
 import android.content.Context;
 import android.view.ViewGroup;
 
+import com.getstream.sdk.chat.utils.PersistentList;
 import com.getstream.sdk.chat.view.ChannelListView;
 import com.getstream.sdk.chat.view.ChannelListViewStyle;
 
@@ -10,7 +11,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import io.getstream.chat.android.client.models.Channel;
 
@@ -18,17 +18,20 @@ public class ChannelListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     private final String TAG = ChannelListItemAdapter.class.getSimpleName();
 
     private Context context;
-    private List<Channel> channels; // cached list of channels
+    private AsyncDiffDispatcher<Channel> diffDispatcher; // holds the cached list of channels
     private ChannelListView.ChannelClickListener channelClickListener;
     private ChannelListView.ChannelClickListener channelLongClickListener;
     private ChannelListView.UserClickListener userClickListener;
     private ChannelListViewStyle style;
+    private final ChannelStateCache stateCache = new ChannelStateCache();
 
     private ChannelViewHolderFactory viewHolderFactory;
 
     public ChannelListItemAdapter(Context context, List<Channel> channels) {
         this.context = context;
-        this.channels = channels;
+        // channels move to the top on new messages, keep move detection on
+        this.diffDispatcher = new AsyncDiffDispatcher<>(this,
+                (oldList, newList) -> new ChannelListDiffCallback(oldList, newList, stateCache), true, channels);
         this.viewHolderFactory = new ChannelViewHolderFactory();
     }
 
@@ -62,21 +65,25 @@ public class ChannelListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     }
 
     public void replaceChannels(List<Channel> channelList) {
+        // the view model posts immutable lists, anything else is copied so the shown list can't change under the diff
+        diffDispatcher.submitList(PersistentList.of(channelList), null);
+    }
 
-        List<Channel> cloneChannelList = new ArrayList<>(new ArrayList<>(channelList));
-
-        final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
-                new ChannelListDiffCallback(channels, cloneChannelList), true);
+    /**
+     * @return the derived state of the channels, computed by the diff and read by the view holders
+     */
+    public ChannelStateCache getStateCache() {
+        return stateCache;
+    }
 
-        // only update those rows that change...
-        result.dispatchUpdatesTo(this);
-        channels = cloneChannelList;
+    public AsyncDiffDispatcher<Channel> getDiffDispatcher() {
+        return diffDispatcher;
     }
 
     @Override
     public int getItemViewType(int position) {
 
-        Channel channel = channels.get(position);
+        Channel channel = diffDispatcher.getCurrentList().get(position);
         return viewHolderFactory.getChannelViewType(channel);
 
     }
@@ -95,7 +102,7 @@ public class ChannelListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        Channel channelState = channels.get(position);
+        Channel channelState = diffDispatcher.getCurrentList().get(position);
         ((BaseChannelListItemViewHolder) holder).bind(this.context, channelState, position, null);
     }
 
@@ -103,7 +110,7 @@ public class ChannelListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
-        Channel channelState = channels.get(position);
+        Channel channelState = diffDispatcher.getCurrentList().get(position);
         ChannelItemPayloadDiff diff;
         if (payloads.isEmpty()) {
             diff = noDiff;
@@ -115,7 +122,7 @@ public class ChannelListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     @Override
     public int getItemCount() {
-        return channels.size();
+        return diffDispatcher.getCurrentList().size();
     }
 
     public ChannelListViewStyle getStyle() {
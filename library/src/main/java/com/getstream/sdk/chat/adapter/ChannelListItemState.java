@@ -0,0 +1,121 @@
+package com.getstream.sdk.chat.adapter;
+
+import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import io.getstream.chat.android.client.models.Channel;
+import io.getstream.chat.android.client.models.ChannelUserRead;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+/**
+ * What a channel row shows, derived from one version of a channel.
+ * Computed once per version by the {@link ChannelStateCache}, usually on the diff thread,
+ * and shared by the diff callback and the view holder.
+ */
+public class ChannelListItemState {
+
+    // the states are computed on the diff threads
+    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d");
+
+    private final Channel channel;
+    @Nullable
+    private final Message lastMessage;
+    private final boolean unread;
+    private final List<User> otherUsers;
+    private final String name;
+    private final String displayName;
+    private final List<ChannelUserRead> lastMessageReads;
+    @Nullable
+    private final Date currentUserLastRead;
+
+    public ChannelListItemState(Channel channel) {
+        this.channel = channel;
+
+        User currentUser = LlcMigrationUtils.getCurrentUser();
+        String currentUserId = currentUser.getId();
+
+        lastMessage = LlcMigrationUtils.computeLastMessage(channel);
+        boolean outgoing = lastMessage != null && currentUserId.equals(lastMessage.getUserId());
+        unread = !outgoing && !LlcMigrationUtils.readLastMessage(channel, lastMessage);
+        otherUsers = LlcMigrationUtils.getOtherUsers(channel);
+        name = LlcMigrationUtils.getName(channel);
+        displayName = LlcMigrationUtils.getChannelNameOrMembers(channel);
+        lastMessageReads = LlcMigrationUtils.getLastMessageReads(channel, lastMessage);
+
+        ChannelUserRead currentUserRead = LlcMigrationUtils.getRead(channel, currentUserId);
+        currentUserLastRead = currentUserRead == null ? null : currentUserRead.getLastRead();
+    }
+
+    private static String formatDate(@Nullable Message message) {
+        if (message == null) return "";
+        if (message.isToday()) return message.getTime();
+        synchronized (dateFormat) {
+            return dateFormat.format(message.getCreatedAt());
+        }
+    }
+
+    /**
+     * @return the channel version the state was derived from
+     */
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the last message that isn't deleted and is a regular one
+     */
+    @Nullable
+    public Message getLastMessage() {
+        return lastMessage;
+    }
+
+    /**
+     * @return the time of the last message if it is from today, its date otherwise.
+     * Formatted on every call, the same version of a channel shows a date instead of a time after midnight
+     */
+    public String getLastMessageDate() {
+        return formatDate(lastMessage);
+    }
+
+    /**
+     * @return true if the current user hasn't read the last message and didn't send it
+     */
+    public boolean isUnread() {
+        return unread;
+    }
+
+    public List<User> getOtherUsers() {
+        return otherUsers;
+    }
+
+    /**
+     * @return the name of the channel, empty if it has none
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the name of the channel, or the names of its members if it has none
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return the reads of the other users who read the last message, oldest first
+     */
+    public List<ChannelUserRead> getLastMessageReads() {
+        return lastMessageReads;
+    }
+
+    @Nullable
+    public Date getCurrentUserLastRead() {
+        return currentUserLastRead;
+    }
+}
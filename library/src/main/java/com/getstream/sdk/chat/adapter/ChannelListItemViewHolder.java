@@ -8,18 +8,15 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.MarkdownImpl;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
-import com.getstream.sdk.chat.utils.LlcMigrationUtils;
 import com.getstream.sdk.chat.utils.StringUtility;
 import com.getstream.sdk.chat.view.AvatarGroupView;
 import com.getstream.sdk.chat.view.ChannelListView;
 import com.getstream.sdk.chat.view.ChannelListViewStyle;
 import com.getstream.sdk.chat.view.ReadStateView;
 
-import java.text.SimpleDateFormat;
 import java.util.List;
 
 import androidx.annotation.IdRes;
@@ -30,8 +27,6 @@ import io.getstream.chat.android.client.models.*;
 
 public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
 
-    static final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d");
-
     protected TextView tv_name, tv_last_message, tv_date;
     protected ReadStateView<ChannelListViewStyle> read_state;
     protected AvatarGroupView<ChannelListViewStyle> avatarGroupView;
@@ -46,6 +41,10 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
 
     protected MarkdownImpl.MarkdownListener markdownListener;
 
+    protected ChannelStateCache stateCache;
+    // the derived state of the channel being bound
+    protected ChannelListItemState state;
+
     public ChannelListItemViewHolder(@NonNull View itemView) {
         super(itemView);
         findReferences();
@@ -83,11 +82,19 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
         this.markdownListener = markdownListener;
     }
 
+    /**
+     * @param stateCache the derived states the diff computed, shared by the rows of the list
+     */
+    public void setStateCache(ChannelStateCache stateCache) {
+        this.stateCache = stateCache;
+    }
+
     @Override
     public void bind(Context context, @NonNull Channel channel, int position, @Nullable ChannelItemPayloadDiff diff) {
 
         // setup the click listeners and the markdown builder
         this.context = context;
+        this.state = stateCache != null ? stateCache.get(channel) : new ChannelListItemState(channel);
 
         // the UI depends on the
         // - lastMessage
@@ -108,12 +115,12 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
 
     // set the channel name
     protected void configChannelName(Channel channel) {
-        String channelName = LlcMigrationUtils.getChannelNameOrMembers(channel);
+        String channelName = state.getDisplayName();
         tv_name.setText((!TextUtils.isEmpty(channelName) ? channelName : style.getChannelWithoutNameText()));
     }
 
     protected void configAvatarView(Channel channel) {
-        List<User> otherUsers = LlcMigrationUtils.getOtherUsers(channel);
+        List<User> otherUsers = state.getOtherUsers();
         avatarGroupView.setChannelAndLastActiveUsers(channel, otherUsers, style);
         // click listeners
         avatarGroupView.setOnClickListener(view -> {
@@ -128,7 +135,7 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
 
     @SuppressLint("ResourceType")
     protected void configLastMessage(Channel channel) {
-        Message lastMessage = LlcMigrationUtils.computeLastMessage(channel);
+        Message lastMessage = state.getLastMessage();
         iv_attachment_type.setVisibility(View.GONE);
         if (lastMessage == null) {
             tv_last_message.setText("");
@@ -139,7 +146,7 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
             if (markdownListener != null)
                 markdownListener.setText(tv_last_message, StringUtility.getDeletedOrMentionedText(lastMessage));
             else
-                MarkdownImpl.getInstance(context).setMarkdown(tv_last_message, StringUtility.getDeletedOrMentionedText(lastMessage));
+                MarkdownImpl.getInstance(context).setMarkdown(tv_last_message, lastMessage);
 
             return;
         }
@@ -184,21 +191,11 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
     }
 
     protected void configLastMessageDate(Channel channel) {
-
-        Message lastMessage = LlcMigrationUtils.computeLastMessage(channel);
-        if (lastMessage == null) {
-            tv_date.setText("");
-            return;
-        }
-
-        if (lastMessage.isToday())
-            tv_date.setText(lastMessage.getTime());
-        else
-            tv_date.setText(dateFormat.format(lastMessage.getCreatedAt()));
+        tv_date.setText(state.getLastMessageDate());
     }
 
     protected void configReadState(Channel channel) {
-        List<ChannelUserRead> lastMessageReads = LlcMigrationUtils.getLastMessageReads(channel);
+        List<ChannelUserRead> lastMessageReads = state.getLastMessageReads();
         read_state.setReads(lastMessageReads, true, style);
     }
 
@@ -222,14 +219,7 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
         tv_last_message.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.lastMessage.size);
         tv_date.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.lastMessageDateText.size);
 
-        User currentUser = Chat.getInstance().getClient().getCurrentUser();
-        String currentUserId = currentUser.getId();
-
-        Message lastMessage = LlcMigrationUtils.computeLastMessage(channel);
-        boolean outgoing = (lastMessage != null && lastMessage.getUserId().equals(currentUserId));
-        boolean readLastMessage = LlcMigrationUtils.readLastMessage(channel);
-
-        if (readLastMessage || outgoing)
+        if (!state.isUnread())
             applyReadStyle();
         else
             applyUnreadStyle();
@@ -0,0 +1,59 @@
+package com.getstream.sdk.chat.adapter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.getstream.chat.android.client.models.Channel;
+
+/**
+ * The {@link ChannelListItemState} of the channels in the list, by channel version.
+ * The view model replaces a channel by a copy when it changes, so a state is computed once per channel instance.
+ * The diff callback computes the states of a new list on the diff thread and the view holders find them here.
+ * Can be used from any thread.
+ */
+public class ChannelStateCache {
+
+    // the states of the latest two versions of each channel by cid, a diff compares both
+    private final Map<String, ChannelListItemState> current = new HashMap<>();
+    private final Map<String, ChannelListItemState> previous = new HashMap<>();
+
+    private int hitCount;
+    private int missCount;
+
+    public synchronized ChannelListItemState get(Channel channel) {
+        String cid = channel.getCid();
+        ChannelListItemState state = current.get(cid);
+        if (state != null && state.getChannel() == channel) {
+            hitCount++;
+            return state;
+        }
+        ChannelListItemState older = previous.get(cid);
+        if (older != null && older.getChannel() == channel) {
+            hitCount++;
+            return older;
+        }
+        missCount++;
+        ChannelListItemState computed = new ChannelListItemState(channel);
+        if (state != null) {
+            previous.put(cid, state);
+        }
+        current.put(cid, computed);
+        return computed;
+    }
+
+    public synchronized void clear() {
+        current.clear();
+        previous.clear();
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of states that were computed
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+}
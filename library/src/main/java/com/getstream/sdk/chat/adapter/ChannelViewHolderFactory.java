@@ -26,6 +26,9 @@ public class ChannelViewHolderFactory {
         holder.setChannelClickListener(adapter.getChannelClickListener());
         holder.setChannelLongClickListener(adapter.getChannelLongClickListener());
         holder.setUserClickListener(adapter.getUserClickListener());
+        if (holder instanceof ChannelListItemViewHolder) {
+            ((ChannelListItemViewHolder) holder).setStateCache(adapter.getStateCache());
+        }
     }
 
     public BaseChannelListItemViewHolder createChannelViewHolder(ChannelListItemAdapter adapter, ViewGroup parent, int viewType) {
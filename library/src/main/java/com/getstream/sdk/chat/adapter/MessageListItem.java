@@ -5,8 +5,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import java.util.zip.CRC32;
-import java.util.zip.Checksum;
 
 import androidx.annotation.Nullable;
 import io.getstream.chat.android.client.models.ChannelUserRead;
@@ -15,13 +13,16 @@ import io.getstream.chat.android.client.models.User;
 
 import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_DATE_SEPARATOR;
 import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_MESSAGE;
-import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_THREAD_SEPARATOR;
 import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_TYPING;
 
 public class MessageListItem {
 
     private static final String TAG = MessageListItem.class.getSimpleName();
 
+    // stable ids are the item type in the top byte and a per type value in the lower 56 bits
+    private static final int STABLE_ID_TYPE_SHIFT = 56;
+    private static final long STABLE_ID_VALUE_MASK = (1L << STABLE_ID_TYPE_SHIFT) - 1;
+
     private int type;
     private Message message;
     private List<ChannelUserRead> messageReadBy;
@@ -29,20 +30,34 @@ public class MessageListItem {
     private Date date;
     private Boolean messageMine;
     private List<User> users;
+    private long stableId;
 
     public MessageListItem(Date date) {
         this.type = MESSAGEITEM_DATE_SEPARATOR;
         this.date = date;
         this.messageMine = false;
         this.messageReadBy = new ArrayList<>();
+        this.stableId = computeStableID();
     }
 
     public MessageListItem(Message message, List<MessageViewHolderFactory.Position> positions, Boolean messageMine) {
+        this(message, positions, messageMine, hashMessageId(message.getId()));
+    }
+
+    /**
+     * @param messageStableId the number of the message among the messages of the list, see
+     *                        {@link com.getstream.sdk.chat.utils.MessageListItemBuilder}
+     */
+    public MessageListItem(Message message,
+                           List<MessageViewHolderFactory.Position> positions,
+                           Boolean messageMine,
+                           long messageStableId) {
         this.type = MESSAGEITEM_MESSAGE;
         this.message = message;
         this.positions = positions;
         this.messageMine = messageMine;
         this.messageReadBy = new ArrayList<>();
+        this.stableId = computeStableID(messageStableId);
     }
 
     public MessageListItem(List<User> users) {
@@ -50,6 +65,7 @@ public class MessageListItem {
         this.users = users;
         this.messageMine = false;
         this.messageReadBy = new ArrayList<>();
+        this.stableId = computeStableID();
     }
 
     public MessageListItem(int messageListItemType) {
@@ -57,15 +73,22 @@ public class MessageListItem {
         this.date = new Date();
         this.messageMine = false;
         this.messageReadBy = new ArrayList<>();
+        this.stableId = computeStableID();
+    }
+
+    private MessageListItem(MessageListItem other) {
+        this.type = other.type;
+        this.message = other.message;
+        this.positions = other.positions;
+        this.messageMine = other.messageMine;
+        this.date = other.date;
+        this.users = other.users;
+        this.messageReadBy = new ArrayList<>(other.messageReadBy);
+        this.stableId = other.stableId;
     }
 
     public MessageListItem copy() {
-        MessageListItem clone = new MessageListItem(message, positions, messageMine);
-        clone.date = date;
-        clone.type = type;
-        clone.users = users;
-        clone.messageReadBy.addAll(messageReadBy);
-        return clone;
+        return new MessageListItem(this);
     }
 
     // TODO: make this a little bit more compact (ie. ensure lists are not null higher up in the code)
@@ -135,24 +158,25 @@ public class MessageListItem {
     }
 
     long getStableID() {
-        Checksum checksum = new CRC32();
-        String plaintext = type + ":";
-        switch (type) {
-            case MESSAGEITEM_TYPING:
-                plaintext += "typing";
-                break;
-            case MESSAGEITEM_THREAD_SEPARATOR:
-                plaintext += "Start of a new thread";
-                break;
-            case MESSAGEITEM_MESSAGE:
-                plaintext += message.getId();
-                break;
-            case MESSAGEITEM_DATE_SEPARATOR:
-                plaintext += date.toString();
-                break;
+        return stableId;
+    }
+
+    private long computeStableID() {
+        return computeStableID(type == MESSAGEITEM_DATE_SEPARATOR ? date.getTime() : 0);
+    }
+
+    private long computeStableID(long value) {
+        return ((long) type << STABLE_ID_TYPE_SHIFT) | (value & STABLE_ID_VALUE_MASK);
+    }
+
+    // 64 bit FNV-1a, for message items built outside of a MessageListItemBuilder
+    private static long hashMessageId(String messageId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < messageId.length(); i++) {
+            hash ^= messageId.charAt(i);
+            hash *= 0x100000001b3L;
         }
-        checksum.update(plaintext.getBytes(), 0, plaintext.getBytes().length);
-        return checksum.getValue();
+        return hash;
     }
 
     public boolean isMine() {
@@ -12,7 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.DiffUtil;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 import io.getstream.chat.android.client.models.Channel;
 
@@ -27,7 +27,7 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     private MessageListView.UserClickListener userClickListener;
     private MessageListView.ReadStateClickListener readStateClickListener;
     private MessageListView.GiphySendListener giphySendListener;
-    private List<MessageListItem> messageListItemList;
+    private AsyncDiffDispatcher<MessageListItem> diffDispatcher;
     private boolean isThread;
     private MessageListViewStyle style;
     private Context context;
@@ -40,20 +40,25 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
         this.context = context;
         this.viewHolderFactory = new MessageViewHolderFactory();
         this.channel = channel;
-        this.messageListItemList = messageListItemList;
+        this.diffDispatcher = createDiffDispatcher(messageListItemList);
     }
 
     public MessageListItemAdapter(Context context, Channel channel, @NonNull List<MessageListItem> messageListItemList, MessageViewHolderFactory factory) {
         this.context = context;
         this.channel = channel;
-        this.messageListItemList = messageListItemList;
+        this.diffDispatcher = createDiffDispatcher(messageListItemList);
         this.viewHolderFactory = factory;
     }
 
     public MessageListItemAdapter(Context context) {
         this.context = context;
         this.viewHolderFactory = new MessageViewHolderFactory();
-        this.messageListItemList = new ArrayList<>();
+        this.diffDispatcher = createDiffDispatcher(new ArrayList<>());
+    }
+
+    private AsyncDiffDispatcher<MessageListItem> createDiffDispatcher(List<MessageListItem> messageListItemList) {
+        // messages are ordered by created_at and never move, so skip move detection
+        return new AsyncDiffDispatcher<>(this, MessageListItemDiffCallback::new, false, messageListItemList);
     }
 
     public void setBubbleHelper(MessageListView.BubbleHelper bubbleHelper) {
@@ -66,7 +71,7 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     @Override
     public long getItemId(int position) {
-        return messageListItemList.get(position).getStableID();
+        return diffDispatcher.getCurrentList().get(position).getStableID();
     }
 
     public MessageListViewStyle getStyle() {
@@ -86,19 +91,27 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     }
 
     public void replaceEntities(List<MessageListItem> newEntities) {
-        final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
-                new MessageListItemDiffCallback(messageListItemList, newEntities), true);
+        replaceEntities(newEntities, null);
+    }
 
-        // only update those rows that change...
-        result.dispatchUpdatesTo(this);
-        messageListItemList = newEntities;
+    /**
+     * Diffs the new entities on a background thread and updates the list on the main thread
+     *
+     * @param newEntities    the entities to show
+     * @param commitCallback runs once the new entities are shown
+     */
+    public void replaceEntities(List<MessageListItem> newEntities, @Nullable Runnable commitCallback) {
+        diffDispatcher.submitList(newEntities, commitCallback);
+    }
 
+    public AsyncDiffDispatcher<MessageListItem> getDiffDispatcher() {
+        return diffDispatcher;
     }
 
     @Override
     public int getItemViewType(int position) {
         try {
-            MessageListItem messageListItem = messageListItemList.get(position);
+            MessageListItem messageListItem = diffDispatcher.getCurrentList().get(position);
             return viewHolderFactory.getMessageViewType(messageListItem, messageListItem.isMine(), messageListItem.getPositions());
         } catch (IndexOutOfBoundsException e) {
             return 0;
@@ -115,7 +128,7 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     @Override
     public void onBindViewHolder(@NotNull RecyclerView.ViewHolder holder, int position) {
-        MessageListItem messageListItem = messageListItemList.get(position);
+        MessageListItem messageListItem = diffDispatcher.getCurrentList().get(position);
         ((BaseMessageListItemViewHolder) holder).bind(this.context,
                 this.channel,
                 messageListItem,
@@ -188,6 +201,6 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     @Override
     public int getItemCount() {
-        return messageListItemList.size();
+        return diffDispatcher.getCurrentList().size();
     }
 }
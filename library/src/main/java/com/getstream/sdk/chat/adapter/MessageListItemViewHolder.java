@@ -23,6 +23,7 @@ import com.getstream.sdk.chat.MarkdownImpl;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.navigation.destinations.WebLinkDestination;
+import com.getstream.sdk.chat.utils.EmojiClassifier;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
 import com.getstream.sdk.chat.utils.StringUtility;
 import com.getstream.sdk.chat.utils.Utils;
@@ -53,7 +54,15 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
     @DimenRes
     int avatarWidth;
     protected TextView tv_text;
+    protected ReactionStripView reactionStrip;
+    /**
+     * @deprecated the reactions are drawn by {@link #reactionStrip}, this list is only used by
+     * custom layouts that have a RecyclerView with the id rv_reaction and no reaction strip
+     */
+    @Deprecated
     protected RecyclerView rv_reaction;
+    // the view that shows the reactions, the strip or the list of a custom layout
+    protected View reactionView;
     protected AvatarGroupView<MessageListViewStyle> avatar;
     protected ImageView iv_tail;
     protected Space space_reaction_tail, space_header, space_same_user, space_reaction, space_attachment;
@@ -67,16 +76,19 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
     protected ImageView iv_reply;
     protected TextView tv_reply;
 
-    protected RecyclerView.LayoutManager mLayoutManager;
 
     protected Channel channel;
     protected MessageListViewStyle style;
+    @Deprecated
+    protected RecyclerView.LayoutManager mLayoutManager;
     protected MessageListView.BubbleHelper bubbleHelper;
     protected MessageViewHolderFactory viewHolderFactory;
     protected int position;
     protected Context context;
     protected Message message;
     protected MessageListItem messageListItem;
+    // the number of emoji the text consists of, -1 if it isn't emoji only
+    protected int emojiCount;
 
     protected MessageListView.MessageClickListener messageClickListener;
     protected MessageListView.MessageLongClickListener messageLongClickListener;
@@ -94,7 +106,13 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
     public MessageListItemViewHolder(int resId, ViewGroup viewGroup) {
         super(resId, viewGroup);
 
-        rv_reaction = itemView.findViewById(R.id.rv_reaction);
+        reactionStrip = itemView.findViewById(R.id.reaction_strip);
+        if (reactionStrip == null) {
+            rv_reaction = itemView.findViewById(R.id.rv_reaction);
+            reactionView = rv_reaction;
+        } else {
+            reactionView = reactionStrip;
+        }
         iv_tail = itemView.findViewById(R.id.iv_tail);
         space_reaction_tail = itemView.findViewById(R.id.space_reaction_tail);
 
@@ -114,14 +132,23 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
         space_attachment = itemView.findViewById(R.id.space_attachment);
 
         attachmentview = itemView.findViewById(R.id.attachmentview);
+        if (viewGroup instanceof MessageListView)
+            attachmentview.setRecycledViewPool(((MessageListView) viewGroup).getAttachmentViewPool());
 
         read_state = itemView.findViewById(R.id.read_state);
         pb_deliver = itemView.findViewById(R.id.pb_deliver);
         iv_deliver = itemView.findViewById(R.id.iv_deliver);
 
-        mLayoutManager = new LinearLayoutManager(context, RecyclerView.HORIZONTAL, false);
-        rv_reaction.setLayoutManager(mLayoutManager);
-        rv_reaction.setHasFixedSize(true);
+        if (reactionStrip != null) {
+            reactionStrip.setOnClickListener(view -> {
+                if (reactionViewClickListener != null)
+                    reactionViewClickListener.onReactionViewClick(message);
+            });
+        } else {
+            mLayoutManager = new LinearLayoutManager(itemView.getContext(), RecyclerView.HORIZONTAL, false);
+            rv_reaction.setLayoutManager(mLayoutManager);
+            rv_reaction.setHasFixedSize(true);
+        }
     }
 
     @Override
@@ -226,7 +253,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             space_attachment.setVisibility(View.GONE);
 
         // Reaction Gap
-        space_reaction.setVisibility(rv_reaction.getVisibility());
+        space_reaction.setVisibility(reactionView.getVisibility());
 
         // ONLY_FOR_DEBUG
         if (false) {
@@ -349,6 +376,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             return;
         }
         tv_text.setVisibility(View.VISIBLE);
+        emojiCount = EmojiClassifier.countEmoji(message.getText(), Integer.MAX_VALUE);
         // Set Text
         configMessageTextViewText();
         // Set Style
@@ -379,7 +407,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
         if (markdownListener != null)
             markdownListener.setText(tv_text, StringUtility.getDeletedOrMentionedText(message));
         else
-            MarkdownImpl.getInstance(context).setMarkdown(tv_text, StringUtility.getDeletedOrMentionedText(message));
+            MarkdownImpl.getInstance(context).setMarkdown(tv_text, message);
     }
 
     protected void configMessageTextStyle() {
@@ -397,13 +425,16 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
 
         if (style.getMessageLinkTextColor(messageListItem.isMine()) != 0)
             tv_text.setLinkTextColor(style.getMessageLinkTextColor(messageListItem.isMine()));
+
+        if (isJumboEmoji())
+            tv_text.setTextSize(TypedValue.COMPLEX_UNIT_PX, context.getResources().getDimensionPixelSize(R.dimen.stream_message_jumbo_emoji_font_size));
     }
 
     protected void configMessageTextBackground() {
         Drawable background;
         if (isFailedMessage()) {
             background = bubbleHelper.getDrawableForMessage(messageListItem.getMessage(), messageListItem.isMine(), messageListItem.getPositions());
-        } else if (isDeletedMessage() || StringUtility.isEmoji(message.getText())) {
+        } else if (isDeletedMessage() || isEmojiOnly()) {
             background = null;
         } else {
             if (!message.getAttachments().isEmpty() && !message.getAttachments().isEmpty())
@@ -467,7 +498,6 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
         attachmentview.setLongClickListener(messageLongClickListener);
     }
 
-    @SuppressLint("ClickableViewAccessibility")
     protected void configReactionView() {
         if (isDeletedMessage()
                 || isFailedMessage()
@@ -475,15 +505,24 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
                 || !channel.getConfig().isReactionsEnabled()
                 || message.getReactionCounts() == null
                 || message.getReactionCounts().size() == 0) {
-            rv_reaction.setVisibility(View.GONE);
+            reactionView.setVisibility(View.GONE);
             iv_tail.setVisibility(View.GONE);
             space_reaction_tail.setVisibility(View.GONE);
             return;
         }
         configStyleReactionView();
-        rv_reaction.setVisibility(View.VISIBLE);
+        reactionView.setVisibility(View.VISIBLE);
         iv_tail.setVisibility(View.VISIBLE);
         space_reaction_tail.setVisibility(View.VISIBLE);
+        if (reactionStrip != null) {
+            reactionStrip.setReactions(message.getReactionCounts(), style);
+        } else {
+            configReactionList();
+        }
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    private void configReactionList() {
         rv_reaction.setAdapter(new ReactionListItemAdapter(context,
                 message.getReactionCounts(),
                 LlcMigrationUtils.getReactionTypes(),
@@ -595,8 +634,8 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             params.startToEnd = activeContentViewResId;
 
         space_reaction_tail.setLayoutParams(params);
-        rv_reaction.post(() -> {
-            params.width = rv_reaction.getHeight() / 3;
+        reactionView.post(() -> {
+            params.width = reactionView.getHeight() / 3;
             space_reaction_tail.setLayoutParams(params);
         });
     }
@@ -613,26 +652,26 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             params.startToStart = space_reaction_tail.getId();
         else
             params.endToEnd = space_reaction_tail.getId();
-        rv_reaction.post(() -> {
-            params.height = rv_reaction.getHeight();
-            params.width = rv_reaction.getHeight();
-            params.topMargin = rv_reaction.getHeight() / 3;
+        reactionView.post(() -> {
+            params.height = reactionView.getHeight();
+            params.width = reactionView.getHeight();
+            params.topMargin = reactionView.getHeight() / 3;
             iv_tail.setLayoutParams(params);
         });
     }
 
     protected void configParamsReactionRecycleView() {
-        if (rv_reaction.getVisibility() != View.VISIBLE) return;
-        rv_reaction.setVisibility(View.INVISIBLE);
+        if (reactionView.getVisibility() != View.VISIBLE) return;
+        reactionView.setVisibility(View.INVISIBLE);
         iv_tail.setVisibility(View.INVISIBLE);
-        rv_reaction.post(() -> {
-            if (rv_reaction.getVisibility() == View.GONE) return;
+        reactionView.post(() -> {
+            if (reactionView.getVisibility() == View.GONE) return;
             set.clone((ConstraintLayout) itemView);
-            set.clear(R.id.rv_reaction, ConstraintSet.START);
-            set.clear(R.id.rv_reaction, ConstraintSet.END);
+            set.clear(reactionView.getId(), ConstraintSet.START);
+            set.clear(reactionView.getId(), ConstraintSet.END);
             set.applyTo((ConstraintLayout) itemView);
 
-            ConstraintLayout.LayoutParams params = (ConstraintLayout.LayoutParams) rv_reaction.getLayoutParams();
+            ConstraintLayout.LayoutParams params = (ConstraintLayout.LayoutParams) reactionView.getLayoutParams();
             if (!message.getAttachments().isEmpty()) {
                 if (messageListItem.isMine())
                     params.startToStart = R.id.space_reaction_tail;
@@ -641,7 +680,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             } else {
                 @DimenRes
                 int reactionMargin = context.getResources().getDimensionPixelSize(R.dimen.stream_reaction_margin);
-                if (tv_text.getWidth() + reactionMargin < rv_reaction.getWidth()) {
+                if (tv_text.getWidth() + reactionMargin < reactionView.getWidth()) {
                     if (messageListItem.isMine())
                         params.endToEnd = R.id.tv_text;
                     else
@@ -653,8 +692,8 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
                         params.endToEnd = R.id.space_reaction_tail;
                 }
             }
-            rv_reaction.setLayoutParams(params);
-            rv_reaction.setVisibility(View.VISIBLE);
+            reactionView.setLayoutParams(params);
+            reactionView.setVisibility(View.VISIBLE);
             iv_tail.setVisibility(View.VISIBLE);
             configParamsReadIndicator();
         });
@@ -740,7 +779,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
 
     protected void configStyleReactionView() {
         if (style.getReactionViewBgDrawable() == -1) {
-            rv_reaction.setBackground(new DrawableBuilder()
+            reactionView.setBackground(new DrawableBuilder()
                     .rectangle()
                     .rounded()
                     .solidColor(style.getReactionViewBgColor())
@@ -755,12 +794,26 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             DrawableCompat.setTint(iv_tail.getDrawable(), style.getReactionViewBgColor());
         } else {
             int drawable = style.getReactionViewBgDrawable();
-            rv_reaction.setBackground(context.getDrawable(drawable));
+            reactionView.setBackground(context.getDrawable(drawable));
             iv_tail.setVisibility(View.GONE);
         }
     }
 
 
+    /**
+     * @return true if the text of the message consists of emoji only, it is shown without a bubble
+     */
+    protected boolean isEmojiOnly() {
+        return emojiCount > 0;
+    }
+
+    /**
+     * @return true if the text of the message consists of a few emoji, they are shown large
+     */
+    protected boolean isJumboEmoji() {
+        return emojiCount > 0 && emojiCount <= EmojiClassifier.MAX_JUMBO_EMOJI;
+    }
+
     protected boolean isDeletedMessage() {
         return message.getDeletedAt() != null;
     }
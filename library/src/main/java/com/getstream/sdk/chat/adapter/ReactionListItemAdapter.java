@@ -19,6 +19,10 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.recyclerview.widget.RecyclerView;
 import io.getstream.chat.android.client.logger.ChatLogger;
 
+/**
+ * @deprecated the reactions of a message are drawn by {@link com.getstream.sdk.chat.view.ReactionStripView}
+ */
+@Deprecated
 public class ReactionListItemAdapter extends RecyclerView.Adapter<ReactionListItemAdapter.MyViewHolder> {
 
     private final String TAG = ReactionListItemAdapter.class.getSimpleName();
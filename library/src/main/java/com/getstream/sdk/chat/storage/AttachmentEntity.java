@@ -0,0 +1,25 @@
+package com.getstream.sdk.chat.storage;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+@Entity(tableName = "stream_attachment", primaryKeys = {"message_id", "position"})
+public class AttachmentEntity {
+
+    @ColumnInfo(name = "message_id")
+    @NonNull
+    public String messageId = "";
+
+    /**
+     * the position of the attachment in the message
+     */
+    public int position;
+
+    public String type;
+
+    /**
+     * the attachment serialized as json
+     */
+    public String data;
+}
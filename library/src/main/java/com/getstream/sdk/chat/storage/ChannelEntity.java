@@ -0,0 +1,32 @@
+package com.getstream.sdk.chat.storage;
+
+import java.util.Date;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * A channel without its messages, members and reads, which are stored in their own tables
+ */
+@Entity(tableName = "stream_channel")
+public class ChannelEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String cid = "";
+
+    public String type;
+
+    @ColumnInfo(name = "last_message_at")
+    public Date lastMessageAt;
+
+    @ColumnInfo(name = "updated_at")
+    public Date updatedAt;
+
+    /**
+     * the rest of the channel serialized as json
+     */
+    public String data;
+}
@@ -0,0 +1,24 @@
+package com.getstream.sdk.chat.storage;
+
+import java.util.Date;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * The date a user last read a channel, the user is stored as {@link UserEntity}
+ */
+@Entity(tableName = "stream_channel_read", primaryKeys = {"cid", "user_id"})
+public class ChannelReadEntity {
+
+    @NonNull
+    public String cid = "";
+
+    @ColumnInfo(name = "user_id")
+    @NonNull
+    public String userId = "";
+
+    @ColumnInfo(name = "last_read")
+    public Date lastRead;
+}
@@ -6,7 +6,6 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import io.getstream.chat.android.client.models.Channel;
 
 @Dao
 public interface ChannelsDao {
@@ -17,19 +16,43 @@ public interface ChannelsDao {
      */
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertChannel(Channel channel);
+    void insertChannel(ChannelEntity channel);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertChannels(List<Channel> channels);
+    void insertChannels(List<ChannelEntity> channels);
 
     @Query("SELECT * FROM stream_channel " +
             "WHERE stream_channel.cid IN (:cids)")
-    List<Channel> getChannels(final List<String> cids);
+    List<ChannelEntity> getChannels(final List<String> cids);
 
     @Query("SELECT * FROM stream_channel " +
             "WHERE stream_channel.cid IN (:cid)")
-    Channel getChannel(final String cid);
+    ChannelEntity getChannel(final String cid);
 
     @Query("DELETE FROM stream_channel WHERE stream_channel.cid IN (:cid)")
     void deleteChannel(final String cid);
-}
\ No newline at end of file
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertMembers(List<MemberEntity> members);
+
+    @Query("DELETE FROM stream_member WHERE stream_member.cid = :cid")
+    void deleteMembers(final String cid);
+
+    @Query("SELECT * FROM stream_member WHERE stream_member.cid = :cid")
+    List<MemberEntity> getMembers(final String cid);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertReads(List<ChannelReadEntity> reads);
+
+    @Query("DELETE FROM stream_channel_read WHERE stream_channel_read.cid = :cid")
+    void deleteReads(final String cid);
+
+    @Query("SELECT * FROM stream_channel_read WHERE stream_channel_read.cid = :cid")
+    List<ChannelReadEntity> getReads(final String cid);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertQuery(QueryChannelsEntity query);
+
+    @Query("SELECT * FROM stream_queries WHERE stream_queries.id = :id")
+    QueryChannelsEntity getQuery(final String id);
+}
@@ -0,0 +1,47 @@
+package com.getstream.sdk.chat.storage;
+
+import android.content.Context;
+
+import com.getstream.sdk.chat.storage.converter.DateConverter;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
+
+@Database(entities = {
+        ChannelEntity.class,
+        MessageEntity.class,
+        UserEntity.class,
+        QueryChannelsEntity.class,
+        ReactionEntity.class,
+        AttachmentEntity.class,
+        MemberEntity.class,
+        ChannelReadEntity.class
+}, version = 3, exportSchema = false)
+@TypeConverters({DateConverter.class})
+public abstract class ChatDatabase extends RoomDatabase {
+
+    private static final String DATABASE_NAME = "stream_chat_database";
+
+    private static volatile ChatDatabase instance;
+
+    public abstract ChannelsDao channelsDao();
+
+    public abstract MessageDao messageDao();
+
+    public abstract UsersDao usersDao();
+
+    public static ChatDatabase getDatabase(Context context) {
+        if (instance == null) {
+            synchronized (ChatDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(), ChatDatabase.class, DATABASE_NAME)
+                            .fallbackToDestructiveMigration()
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,628 @@
+package com.getstream.sdk.chat.storage;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.getstream.sdk.chat.storage.converter.FilterObjectConverter;
+import com.getstream.sdk.chat.storage.converter.QuerySortConverter;
+import com.getstream.sdk.chat.storage.converter.ReactionCountConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.Nullable;
+
+import io.getstream.chat.android.client.api.models.QuerySort;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import io.getstream.chat.android.client.models.Channel;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+import io.getstream.chat.android.client.utils.FilterObject;
+
+/**
+ * Stores channels, their latest messages and the results of channel queries, so that the channel list
+ * and the channel can be shown from disk before the network responds.
+ * All database work runs on a single background thread. Writes are buffered and written in one transaction
+ * a short while after the first one, so a burst of socket events results in a single transaction.
+ * Results are delivered on the main thread.
+ * The tables are normalized, see {@link EntityMapper}, so e.g. a reaction event rewrites the reactions
+ * of the message and its reaction counts, not the message.
+ */
+public class ChatStorage {
+
+    private static final long WRITE_DELAY_MILLIS = 300;
+    // sqlite's limit of bound parameters is 999
+    private static final int MAX_QUERY_ARGUMENTS = 500;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("ChatStorage");
+
+    private final ChatDatabase database;
+    private final ScheduledExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final EntityMapper mapper = new EntityMapper();
+
+    // guarded by this
+    private PendingWrites pending = new PendingWrites();
+    private boolean flushScheduled;
+
+    private final AtomicLong transactionCount = new AtomicLong();
+    private final AtomicLong writtenRowCount = new AtomicLong();
+    private final AtomicLong readRowCount = new AtomicLong();
+    private volatile long lastReadTime;
+
+    public ChatStorage(Context context) {
+        this(ChatDatabase.getDatabase(context));
+    }
+
+    public ChatStorage(ChatDatabase database) {
+        this.database = database;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the id the results of a channel query are stored with
+     */
+    public static String queryId(FilterObject filter, QuerySort sort) {
+        return FilterObjectConverter.objectToString(filter) + QuerySortConverter.objectToString(sort);
+    }
+
+    // region read
+
+    /**
+     * Reads the channels the query returned the last time, with their latest messages
+     */
+    public void selectChannels(String queryId, int limit, int messageLimit, OnQueryListener<List<Channel>> listener) {
+        executor.execute(() -> {
+            try {
+                List<Channel> channels = new ArrayList<>();
+                QueryChannelsEntity query = database.channelsDao().getQuery(queryId);
+                if (query != null && !query.channelCids.isEmpty()) {
+                    List<String> cids = query.channelCids.subList(0, Math.min(limit, query.channelCids.size()));
+                    Map<String, ChannelEntity> entities = new HashMap<>();
+                    for (ChannelEntity entity : selectChunked(cids, database.channelsDao()::getChannels)) {
+                        entities.put(entity.cid, entity);
+                    }
+                    // keep the order of the query
+                    for (String cid : cids) {
+                        ChannelEntity entity = entities.get(cid);
+                        if (entity != null) {
+                            channels.add(readChannel(entity, messageLimit));
+                        }
+                    }
+                }
+                mainHandler.post(() -> listener.onSuccess(channels));
+            } catch (Exception e) {
+                mainHandler.post(() -> listener.onFailure(e));
+            }
+        });
+    }
+
+    /**
+     * Reads a channel with its latest messages, the result is null if the channel isn't stored
+     */
+    public void selectChannel(String cid, int messageLimit, OnQueryListener<Channel> listener) {
+        executor.execute(() -> {
+            try {
+                ChannelEntity entity = database.channelsDao().getChannel(cid);
+                Channel channel = entity == null ? null : readChannel(entity, messageLimit);
+                mainHandler.post(() -> listener.onSuccess(channel));
+            } catch (Exception e) {
+                mainHandler.post(() -> listener.onFailure(e));
+            }
+        });
+    }
+
+    /**
+     * Reads the messages of the channel right before the given one, as far back as they are stored
+     * without a gap, see {@link MessageEntity#previousId}
+     */
+    public void selectMessagesBefore(String cid, String messageId, int limit, OnQueryListener<MessagePage> listener) {
+        executor.execute(() -> {
+            try {
+                // the cursor might still be waiting to be written
+                flush();
+                MessagePage page = readMessagesBefore(cid, messageId, limit);
+                mainHandler.post(() -> listener.onSuccess(page));
+            } catch (Exception e) {
+                mainHandler.post(() -> listener.onFailure(e));
+            }
+        });
+    }
+
+    /**
+     * Reads the messages around the given one, for jumping to a message. The page is empty if the message
+     * isn't stored.
+     */
+    public void selectMessagesAround(String cid, String messageId, int limit, OnQueryListener<MessagePage> listener) {
+        executor.execute(() -> {
+            try {
+                flush();
+                MessagePage page = readMessagesAround(cid, messageId, limit);
+                mainHandler.post(() -> listener.onSuccess(page));
+            } catch (Exception e) {
+                mainHandler.post(() -> listener.onFailure(e));
+            }
+        });
+    }
+
+    /**
+     * Reads the stored replies of a thread after the given reply, oldest first
+     *
+     * @param afterMessageId the last reply already known, null for the first replies
+     */
+    public void selectReplies(String parentId, @Nullable String afterMessageId, int limit,
+                              OnQueryListener<List<Message>> listener) {
+        executor.execute(() -> {
+            try {
+                flush();
+                MessageDao messageDao = database.messageDao();
+                MessageEntity cursor = afterMessageId == null ? null : messageDao.selectMessage(afterMessageId);
+                List<MessageEntity> entities = cursor == null
+                        ? messageDao.selectRepliesAfter(parentId, new Date(0), "", limit)
+                        : messageDao.selectRepliesAfter(parentId, cursor.createdAt, cursor.id, limit);
+                List<Message> replies = readMessages(entities, new LinkedHashSet<>(), new HashMap<>());
+                mainHandler.post(() -> listener.onSuccess(replies));
+            } catch (Exception e) {
+                mainHandler.post(() -> listener.onFailure(e));
+            }
+        });
+    }
+
+    private Channel readChannel(ChannelEntity entity, int messageLimit) {
+        long start = SystemClock.uptimeMillis();
+        List<MessageEntity> messageEntities = database.messageDao().selectMessagesForChannel(entity.cid, messageLimit);
+        // the dao returns the newest first
+        Collections.reverse(messageEntities);
+        List<MemberEntity> members = database.channelsDao().getMembers(entity.cid);
+        List<ChannelReadEntity> reads = database.channelsDao().getReads(entity.cid);
+
+        Set<String> userIds = new LinkedHashSet<>();
+        for (ChannelReadEntity read : reads) {
+            userIds.add(read.userId);
+        }
+        Map<String, User> users = new HashMap<>();
+        List<Message> messages = readMessages(messageEntities, userIds, users);
+
+        Channel channel = mapper.toChannel(entity, members, reads, users);
+        channel.getMessages().addAll(messages);
+
+        readRowCount.addAndGet(1 + members.size() + reads.size());
+        lastReadTime = SystemClock.uptimeMillis() - start;
+        return channel;
+    }
+
+    private MessagePage readMessagesBefore(String cid, String messageId, int limit) {
+        MessageDao messageDao = database.messageDao();
+        MessageEntity cursor = messageDao.selectMessage(messageId);
+        if (cursor == null || cursor.previousId == null) {
+            return MessagePage.empty();
+        }
+        if (cursor.previousId.isEmpty()) {
+            return new MessagePage(new ArrayList<>(), true);
+        }
+        List<MessageEntity> linked = new ArrayList<>();
+        boolean startOfChannel = false;
+        String expectedId = cursor.previousId;
+        // newest first, stop at the first message that isn't the one right before the previous
+        for (MessageEntity entity : messageDao.selectMessagesBefore(cid, cursor.createdAt, cursor.id, limit)) {
+            if (!entity.id.equals(expectedId)) break;
+            linked.add(entity);
+            expectedId = entity.previousId;
+            if (expectedId == null) break;
+            if (expectedId.isEmpty()) {
+                startOfChannel = true;
+                break;
+            }
+        }
+        Collections.reverse(linked);
+        return new MessagePage(readMessages(linked, new LinkedHashSet<>(), new HashMap<>()), startOfChannel);
+    }
+
+    private MessagePage readMessagesAround(String cid, String messageId, int limit) {
+        MessageDao messageDao = database.messageDao();
+        MessageEntity cursor = messageDao.selectMessage(messageId);
+        if (cursor == null) {
+            return MessagePage.empty();
+        }
+        MessagePage before = readMessagesBefore(cid, messageId, limit / 2);
+
+        List<MessageEntity> linked = new ArrayList<>();
+        // oldest first, starting with the cursor itself
+        String expectedPreviousId = null;
+        for (MessageEntity entity : messageDao.selectMessagesFrom(cid, cursor.createdAt, cursor.id, limit - before.messages.size())) {
+            if (expectedPreviousId != null && !expectedPreviousId.equals(entity.previousId)) break;
+            linked.add(entity);
+            expectedPreviousId = entity.id;
+        }
+        List<Message> messages = new ArrayList<>(before.messages.size() + linked.size());
+        messages.addAll(before.messages);
+        messages.addAll(readMessages(linked, new LinkedHashSet<>(), new HashMap<>()));
+        return new MessagePage(messages, before.startOfChannel);
+    }
+
+    /**
+     * Reads the attachments, reactions and users of the message rows
+     *
+     * @param userIds the ids of other users to read along, the ids of the messages' users are added
+     * @param users   receives the users that were read
+     * @return the messages in the order of the rows
+     */
+    private List<Message> readMessages(List<MessageEntity> messageEntities, Set<String> userIds, Map<String, User> users) {
+        MessageDao messageDao = database.messageDao();
+        List<String> messageIds = new ArrayList<>(messageEntities.size());
+        for (MessageEntity messageEntity : messageEntities) {
+            messageIds.add(messageEntity.id);
+        }
+        List<AttachmentEntity> attachmentEntities = selectChunked(messageIds, messageDao::selectAttachments);
+        Map<String, List<AttachmentEntity>> attachments = new HashMap<>();
+        for (AttachmentEntity attachment : attachmentEntities) {
+            group(attachments, attachment.messageId).add(attachment);
+        }
+        List<ReactionEntity> reactionEntities = selectChunked(messageIds, messageDao::selectReactions);
+        Map<String, List<ReactionEntity>> reactions = new HashMap<>();
+        for (ReactionEntity reaction : reactionEntities) {
+            group(reactions, reaction.messageId).add(reaction);
+        }
+
+        for (MessageEntity messageEntity : messageEntities) {
+            if (messageEntity.userId != null) userIds.add(messageEntity.userId);
+        }
+        for (ReactionEntity reaction : reactionEntities) {
+            userIds.add(reaction.userId);
+        }
+        for (UserEntity userEntity : selectChunked(new ArrayList<>(userIds), database.usersDao()::getUsers)) {
+            users.put(userEntity.id, mapper.toUser(userEntity));
+        }
+
+        List<Message> messages = new ArrayList<>(messageEntities.size());
+        for (MessageEntity messageEntity : messageEntities) {
+            messages.add(mapper.toMessage(messageEntity,
+                    orEmpty(attachments.get(messageEntity.id)),
+                    orEmpty(reactions.get(messageEntity.id)),
+                    users));
+        }
+        readRowCount.addAndGet(messageEntities.size() + attachmentEntities.size() + reactionEntities.size()
+                + users.size());
+        return messages;
+    }
+
+    private interface ChunkQuery<T> {
+        List<T> select(List<String> ids);
+    }
+
+    /**
+     * Runs a query with an IN list of ids in chunks, sqlite fails with more bound parameters than its limit
+     *
+     * @return the rows of all the chunks in their order
+     */
+    private static <T> List<T> selectChunked(List<String> ids, ChunkQuery<T> query) {
+        if (ids.size() <= MAX_QUERY_ARGUMENTS) {
+            return ids.isEmpty() ? Collections.emptyList() : query.select(ids);
+        }
+        List<T> rows = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_QUERY_ARGUMENTS) {
+            rows.addAll(query.select(ids.subList(i, Math.min(ids.size(), i + MAX_QUERY_ARGUMENTS))));
+        }
+        return rows;
+    }
+
+    private static <T> List<T> group(Map<String, List<T>> groups, String key) {
+        List<T> group = groups.get(key);
+        if (group == null) {
+            group = new ArrayList<>();
+            groups.put(key, group);
+        }
+        return group;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    // endregion
+
+    // region write
+
+    /**
+     * Stores the result of a channel query
+     *
+     * @param channelCids all the channels the query returned so far, in order
+     * @param channels    the channels that changed, usually the last page
+     */
+    public synchronized void storeQuery(String queryId, List<String> channelCids, List<Channel> channels) {
+        QueryChannelsEntity query = new QueryChannelsEntity();
+        query.id = queryId;
+        query.channelCids = new ArrayList<>(channelCids);
+        pending.queries.put(queryId, query);
+        for (Channel channel : channels) {
+            bufferChannel(channel, null);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Stores a channel and its latest messages
+     */
+    public synchronized void storeChannel(Channel channel) {
+        storeChannel(channel, false);
+    }
+
+    /**
+     * Stores a channel and its latest messages
+     *
+     * @param containsFirstMessage true if the messages go back to the first message of the channel
+     */
+    public synchronized void storeChannel(Channel channel, boolean containsFirstMessage) {
+        bufferChannel(channel, containsFirstMessage ? "" : null);
+        scheduleFlush();
+    }
+
+    /**
+     * @param previousId the id of the message right before this one in the channel, empty for the first message
+     *                   and null if unknown, in which case the stored one is kept
+     */
+    public synchronized void storeMessage(String cid, Message message, @Nullable String previousId) {
+        bufferMessage(cid, message, previousId);
+        scheduleFlush();
+    }
+
+    /**
+     * Stores consecutive messages of a channel, oldest first, linked to each other
+     *
+     * @param firstPreviousId the id of the message right before the first one, see {@link #storeMessage}
+     */
+    public synchronized void storeMessages(String cid, List<Message> messages, @Nullable String firstPreviousId) {
+        bufferMessages(cid, messages, firstPreviousId);
+        scheduleFlush();
+    }
+
+    /**
+     * Links a stored message to the message right before it in the channel
+     */
+    public synchronized void updatePreviousId(String messageId, String previousId) {
+        MessageEntity entity = pending.messages.get(messageId);
+        if (entity != null) {
+            entity.previousId = previousId;
+        } else {
+            pending.previousIds.put(messageId, previousId);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Stores the reactions and reaction counts of a message without rewriting the message
+     */
+    public synchronized void storeReactions(String cid, Message message) {
+        String id = message.getId();
+        if (pending.messages.containsKey(id)) {
+            // the whole message is written anyway
+            bufferMessage(cid, message, pending.messages.get(id).previousId);
+        } else {
+            pending.reactions.put(id, mapper.toReactionEntities(message));
+            pending.reactionCounts.put(id, new HashMap<>(message.getReactionCounts()));
+            bufferUsers(mapper.getReferencedUsers(message));
+        }
+        scheduleFlush();
+    }
+
+    public synchronized void deleteMessage(String id) {
+        pending.messages.remove(id);
+        pending.attachments.remove(id);
+        pending.reactions.remove(id);
+        pending.reactionCounts.remove(id);
+        pending.previousIds.remove(id);
+        pending.deletedMessages.add(id);
+        scheduleFlush();
+    }
+
+    private void bufferChannel(Channel channel, @Nullable String firstPreviousId) {
+        String cid = channel.getCid();
+        pending.channels.put(cid, mapper.toEntity(channel));
+        pending.members.put(cid, mapper.toMemberEntities(channel));
+        pending.reads.put(cid, mapper.toReadEntities(channel));
+        bufferUsers(mapper.getReferencedUsers(channel));
+
+        bufferMessages(cid, channel.getMessages(), firstPreviousId);
+    }
+
+    private void bufferMessages(String cid, List<Message> messages, @Nullable String firstPreviousId) {
+        String previousId = firstPreviousId;
+        for (Message message : messages) {
+            MessageEntity entity = bufferMessage(cid, message, previousId);
+            // replies aren't part of the channel's chain
+            if (entity.parentId == null) {
+                previousId = entity.id;
+            }
+        }
+    }
+
+    private MessageEntity bufferMessage(String cid, Message message, @Nullable String previousId) {
+        String id = message.getId();
+        MessageEntity entity = mapper.toEntity(cid, message);
+        if (entity.parentId == null) {
+            if (previousId != null) {
+                entity.previousId = previousId;
+            } else if (pending.messages.containsKey(id)) {
+                entity.previousId = pending.messages.get(id).previousId;
+            } else {
+                entity.previousId = pending.previousIds.get(id);
+            }
+        }
+        pending.previousIds.remove(id);
+        pending.messages.put(id, entity);
+        pending.attachments.put(id, mapper.toAttachmentEntities(message));
+        pending.reactions.put(id, mapper.toReactionEntities(message));
+        pending.reactionCounts.remove(id);
+        pending.deletedMessages.remove(id);
+        bufferUsers(mapper.getReferencedUsers(message));
+        return entity;
+    }
+
+    private void bufferUsers(List<User> users) {
+        for (User user : users) {
+            if (!pending.users.containsKey(user.getId())) {
+                pending.users.put(user.getId(), mapper.toEntity(user));
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        executor.schedule(this::flush, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        final PendingWrites writes;
+        synchronized (this) {
+            writes = pending;
+            pending = new PendingWrites();
+            flushScheduled = false;
+        }
+        if (writes.rowCount() == 0) {
+            return;
+        }
+        try {
+            database.runInTransaction(() -> writes.write(database));
+            transactionCount.incrementAndGet();
+            writtenRowCount.addAndGet(writes.rowCount());
+        } catch (Exception e) {
+            logger.logE("Failed to write to the offline storage: " + e.toString());
+        }
+    }
+
+    /**
+     * The rows to write in the next transaction
+     */
+    private static class PendingWrites {
+        final Map<String, UserEntity> users = new LinkedHashMap<>();
+        final Map<String, ChannelEntity> channels = new LinkedHashMap<>();
+        // by cid
+        final Map<String, List<MemberEntity>> members = new LinkedHashMap<>();
+        final Map<String, List<ChannelReadEntity>> reads = new LinkedHashMap<>();
+        final Map<String, MessageEntity> messages = new LinkedHashMap<>();
+        // by message id
+        final Map<String, List<AttachmentEntity>> attachments = new LinkedHashMap<>();
+        final Map<String, List<ReactionEntity>> reactions = new LinkedHashMap<>();
+        // reaction updates of messages that aren't rewritten, by message id
+        final Map<String, Map<String, Integer>> reactionCounts = new LinkedHashMap<>();
+        // links of messages that aren't rewritten, by message id
+        final Map<String, String> previousIds = new LinkedHashMap<>();
+        final Set<String> deletedMessages = new LinkedHashSet<>();
+        final Map<String, QueryChannelsEntity> queries = new LinkedHashMap<>();
+
+        void write(ChatDatabase database) {
+            ChannelsDao channelsDao = database.channelsDao();
+            MessageDao messageDao = database.messageDao();
+
+            database.usersDao().insertUsers(new ArrayList<>(users.values()));
+            channelsDao.insertChannels(new ArrayList<>(channels.values()));
+            for (Map.Entry<String, List<MemberEntity>> entry : members.entrySet()) {
+                channelsDao.deleteMembers(entry.getKey());
+                channelsDao.insertMembers(entry.getValue());
+            }
+            for (Map.Entry<String, List<ChannelReadEntity>> entry : reads.entrySet()) {
+                channelsDao.deleteReads(entry.getKey());
+                channelsDao.insertReads(entry.getValue());
+            }
+            keepPreviousIds(messageDao);
+            messageDao.insertMessages(new ArrayList<>(messages.values()));
+            for (Map.Entry<String, String> entry : previousIds.entrySet()) {
+                messageDao.updatePreviousId(entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, List<AttachmentEntity>> entry : attachments.entrySet()) {
+                messageDao.deleteAttachments(entry.getKey());
+                messageDao.insertAttachments(entry.getValue());
+            }
+            for (Map.Entry<String, List<ReactionEntity>> entry : reactions.entrySet()) {
+                messageDao.deleteReactions(entry.getKey());
+                messageDao.insertReactions(entry.getValue());
+            }
+            for (Map.Entry<String, Map<String, Integer>> entry : reactionCounts.entrySet()) {
+                messageDao.updateReactionCounts(entry.getKey(), ReactionCountConverter.mapToString(entry.getValue()));
+            }
+            for (String id : deletedMessages) {
+                messageDao.deleteMessage(id);
+                messageDao.deleteAttachments(id);
+                messageDao.deleteReactions(id);
+            }
+            for (QueryChannelsEntity query : queries.values()) {
+                channelsDao.insertQuery(query);
+            }
+        }
+
+        /**
+         * Replacing a row of a message whose predecessor isn't known would unlink it, keep the stored link
+         */
+        private void keepPreviousIds(MessageDao messageDao) {
+            List<String> unknown = new ArrayList<>();
+            for (MessageEntity entity : messages.values()) {
+                if (entity.previousId == null && entity.parentId == null) unknown.add(entity.id);
+            }
+            for (MessageDao.PreviousId stored : selectChunked(unknown, messageDao::selectPreviousIds)) {
+                MessageEntity entity = messages.get(stored.id);
+                if (entity != null) entity.previousId = stored.previousId;
+            }
+        }
+
+        int rowCount() {
+            int count = users.size() + channels.size() + messages.size() + reactionCounts.size()
+                    + previousIds.size() + deletedMessages.size() + queries.size();
+            for (List<MemberEntity> list : members.values()) count += list.size();
+            for (List<ChannelReadEntity> list : reads.values()) count += list.size();
+            for (List<AttachmentEntity> list : attachments.values()) count += list.size();
+            for (List<ReactionEntity> list : reactions.values()) count += list.size();
+            return count;
+        }
+    }
+
+    // endregion
+
+    /**
+     * @return the number of write transactions
+     */
+    public long getTransactionCount() {
+        return transactionCount.get();
+    }
+
+    /**
+     * @return the number of rows written or deleted
+     */
+    public long getWrittenRowCount() {
+        return writtenRowCount.get();
+    }
+
+    /**
+     * @return the number of rows read
+     */
+    public long getReadRowCount() {
+        return readRowCount.get();
+    }
+
+    /**
+     * @return the time in milliseconds reading the last channel with its messages took
+     */
+    public long getLastReadTime() {
+        return lastReadTime;
+    }
+}
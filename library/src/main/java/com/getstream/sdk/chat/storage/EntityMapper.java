@@ -0,0 +1,262 @@
+package com.getstream.sdk.chat.storage;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.getstream.chat.android.client.models.Attachment;
+import io.getstream.chat.android.client.models.Channel;
+import io.getstream.chat.android.client.models.ChannelUserRead;
+import io.getstream.chat.android.client.models.Member;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.Reaction;
+import io.getstream.chat.android.client.models.User;
+
+/**
+ * Maps the models to the rows of the normalized tables and back.
+ * Only the fields without a table of their own end up in the json data of a row,
+ * so e.g. a reaction is a row of its own and a message row doesn't contain its reactions.
+ */
+class EntityMapper {
+
+    private static final Set<String> MESSAGE_FIELDS_STORED_APART = new HashSet<>(Arrays.asList(
+            // the message's channel points back to the message
+            "channel",
+            "user",
+            "attachments",
+            "latestReactions",
+            "ownReactions",
+            "reactionCounts"
+    ));
+
+    private static final Set<String> CHANNEL_FIELDS_STORED_APART = new HashSet<>(Arrays.asList(
+            "messages",
+            "members",
+            "read"
+    ));
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Date.class, (JsonSerializer<Date>) (date, type, context) ->
+                    new JsonPrimitive(date.getTime()))
+            .registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (json, type, context) ->
+                    new Date(json.getAsLong()))
+            .setExclusionStrategies(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(FieldAttributes f) {
+                    Class<?> declaringClass = f.getDeclaringClass();
+                    if (declaringClass == Message.class) {
+                        return MESSAGE_FIELDS_STORED_APART.contains(f.getName());
+                    } else if (declaringClass == Channel.class) {
+                        return CHANNEL_FIELDS_STORED_APART.contains(f.getName());
+                    } else if (declaringClass == Reaction.class) {
+                        return f.getName().equals("user");
+                    }
+                    return false;
+                }
+
+                @Override
+                public boolean shouldSkipClass(Class<?> clazz) {
+                    return false;
+                }
+            })
+            .create();
+
+    // region to entities
+
+    ChannelEntity toEntity(Channel channel) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.cid = channel.getCid();
+        entity.type = channel.getType();
+        entity.lastMessageAt = channel.getLastMessageAt();
+        entity.updatedAt = channel.getUpdatedAt();
+        entity.data = gson.toJson(channel);
+        return entity;
+    }
+
+    List<MemberEntity> toMemberEntities(Channel channel) {
+        List<MemberEntity> entities = new ArrayList<>();
+        if (channel.getMembers() == null) {
+            return entities;
+        }
+        for (Member member : channel.getMembers()) {
+            if (member.getUser() == null) continue;
+            MemberEntity entity = new MemberEntity();
+            entity.cid = channel.getCid();
+            entity.userId = member.getUser().getId();
+            entity.data = gson.toJson(member);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    List<ChannelReadEntity> toReadEntities(Channel channel) {
+        List<ChannelReadEntity> entities = new ArrayList<>();
+        for (ChannelUserRead read : channel.getRead()) {
+            if (read.getUser() == null) continue;
+            ChannelReadEntity entity = new ChannelReadEntity();
+            entity.cid = channel.getCid();
+            entity.userId = read.getUser().getId();
+            entity.lastRead = read.getLastRead();
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    MessageEntity toEntity(String cid, Message message) {
+        MessageEntity entity = new MessageEntity();
+        entity.id = message.getId();
+        entity.cid = cid;
+        entity.createdAt = message.getCreatedAt();
+        entity.userId = message.getUser() == null ? null : message.getUser().getId();
+        String parentId = message.getParentId();
+        entity.parentId = parentId == null || parentId.isEmpty() ? null : parentId;
+        entity.reactionCounts = new HashMap<>(message.getReactionCounts());
+        entity.data = gson.toJson(message);
+        return entity;
+    }
+
+    List<AttachmentEntity> toAttachmentEntities(Message message) {
+        List<AttachmentEntity> entities = new ArrayList<>(message.getAttachments().size());
+        for (int i = 0; i < message.getAttachments().size(); i++) {
+            Attachment attachment = message.getAttachments().get(i);
+            AttachmentEntity entity = new AttachmentEntity();
+            entity.messageId = message.getId();
+            entity.position = i;
+            entity.type = attachment.getType();
+            entity.data = gson.toJson(attachment);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    List<ReactionEntity> toReactionEntities(Message message) {
+        List<ReactionEntity> entities = new ArrayList<>();
+        addReactionEntities(entities, message.getId(), message.getLatestReactions(), false);
+        addReactionEntities(entities, message.getId(), message.getOwnReactions(), true);
+        return entities;
+    }
+
+    private void addReactionEntities(List<ReactionEntity> entities, String messageId, List<Reaction> reactions, boolean own) {
+        for (Reaction reaction : reactions) {
+            if (reaction.getUser() == null || reaction.getType() == null) continue;
+            ReactionEntity entity = new ReactionEntity();
+            entity.messageId = messageId;
+            entity.userId = reaction.getUser().getId();
+            entity.type = reaction.getType();
+            entity.own = own;
+            entity.data = gson.toJson(reaction);
+            entities.add(entity);
+        }
+    }
+
+    UserEntity toEntity(User user) {
+        UserEntity entity = new UserEntity();
+        entity.id = user.getId();
+        entity.data = gson.toJson(user);
+        return entity;
+    }
+
+    /**
+     * @return the users the message rows refer to
+     */
+    List<User> getReferencedUsers(Message message) {
+        List<User> users = new ArrayList<>();
+        if (message.getUser() != null) {
+            users.add(message.getUser());
+        }
+        for (Reaction reaction : message.getLatestReactions()) {
+            if (reaction.getUser() != null) users.add(reaction.getUser());
+        }
+        for (Reaction reaction : message.getOwnReactions()) {
+            if (reaction.getUser() != null) users.add(reaction.getUser());
+        }
+        return users;
+    }
+
+    /**
+     * @return the users the channel rows refer to
+     */
+    List<User> getReferencedUsers(Channel channel) {
+        List<User> users = new ArrayList<>();
+        for (ChannelUserRead read : channel.getRead()) {
+            if (read.getUser() != null) users.add(read.getUser());
+        }
+        return users;
+    }
+
+    // endregion
+
+    // region to models
+
+    Channel toChannel(ChannelEntity entity, List<MemberEntity> memberEntities,
+                      List<ChannelReadEntity> readEntities, Map<String, User> users) {
+        Channel channel = gson.fromJson(entity.data, Channel.class);
+
+        List<Member> members = new ArrayList<>(memberEntities.size());
+        for (MemberEntity memberEntity : memberEntities) {
+            members.add(gson.fromJson(memberEntity.data, Member.class));
+        }
+        channel.setMembers(members);
+
+        channel.getRead().clear();
+        for (ChannelReadEntity readEntity : readEntities) {
+            User user = users.get(readEntity.userId);
+            if (user == null) continue;
+            ChannelUserRead read = new ChannelUserRead();
+            read.setUser(user);
+            read.setLastRead(readEntity.lastRead);
+            channel.getRead().add(read);
+        }
+        channel.getMessages().clear();
+        return channel;
+    }
+
+    Message toMessage(MessageEntity entity, List<AttachmentEntity> attachmentEntities,
+                      List<ReactionEntity> reactionEntities, Map<String, User> users) {
+        Message message = gson.fromJson(entity.data, Message.class);
+        User user = users.get(entity.userId);
+        if (user != null) {
+            message.setUser(user);
+        }
+        if (entity.reactionCounts != null) {
+            message.getReactionCounts().putAll(entity.reactionCounts);
+        }
+
+        message.getAttachments().clear();
+        for (AttachmentEntity attachmentEntity : attachmentEntities) {
+            message.getAttachments().add(gson.fromJson(attachmentEntity.data, Attachment.class));
+        }
+
+        message.getLatestReactions().clear();
+        message.getOwnReactions().clear();
+        for (ReactionEntity reactionEntity : reactionEntities) {
+            Reaction reaction = gson.fromJson(reactionEntity.data, Reaction.class);
+            reaction.setUser(users.get(reactionEntity.userId));
+            if (reactionEntity.own) {
+                message.getOwnReactions().add(reaction);
+            } else {
+                message.getLatestReactions().add(reaction);
+            }
+        }
+        return message;
+    }
+
+    User toUser(UserEntity entity) {
+        return gson.fromJson(entity.data, User.class);
+    }
+
+    // endregion
+}
@@ -0,0 +1,21 @@
+package com.getstream.sdk.chat.storage;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+@Entity(tableName = "stream_member", primaryKeys = {"cid", "user_id"})
+public class MemberEntity {
+
+    @NonNull
+    public String cid = "";
+
+    @ColumnInfo(name = "user_id")
+    @NonNull
+    public String userId = "";
+
+    /**
+     * the member serialized as json
+     */
+    public String data;
+}
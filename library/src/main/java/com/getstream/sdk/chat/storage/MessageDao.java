@@ -1,31 +1,102 @@
 package com.getstream.sdk.chat.storage;
 
+import java.util.Date;
 import java.util.List;
 
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import io.getstream.chat.android.client.models.Message;
 
 
 @Dao
 public interface MessageDao {
 
     @Insert
-    void insert(Message word);
+    void insert(MessageEntity word);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertMessages(List<Message> messages);
+    void insertMessages(List<MessageEntity> messages);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertMessage(Message message);
+    void insertMessage(MessageEntity message);
 
     @Query("DELETE FROM stream_message WHERE stream_message.id = :id")
     void deleteMessage(String id);
 
+    /**
+     * @return the latest messages of the channel, newest first
+     */
     @Query("SELECT * FROM stream_message " +
-            "WHERE stream_message.cid = :cid ORDER by created_at ASC LIMIT :limit")
-    List<Message> selectMessagesForChannel(final String cid, final Integer limit);
+            "WHERE stream_message.cid = :cid AND stream_message.parent_id IS NULL " +
+            "ORDER by created_at DESC, id DESC LIMIT :limit")
+    List<MessageEntity> selectMessagesForChannel(final String cid, final Integer limit);
 
-}
\ No newline at end of file
+    /**
+     * @return the messages of the channel before the cursor, newest first
+     */
+    @Query("SELECT * FROM stream_message " +
+            "WHERE stream_message.cid = :cid AND stream_message.parent_id IS NULL " +
+            "AND (created_at < :createdAt OR (created_at = :createdAt AND id < :id)) " +
+            "ORDER by created_at DESC, id DESC LIMIT :limit")
+    List<MessageEntity> selectMessagesBefore(final String cid, final Date createdAt, final String id, final Integer limit);
+
+    /**
+     * @return the messages of the channel from the cursor on, including the cursor, oldest first
+     */
+    @Query("SELECT * FROM stream_message " +
+            "WHERE stream_message.cid = :cid AND stream_message.parent_id IS NULL " +
+            "AND (created_at > :createdAt OR (created_at = :createdAt AND id >= :id)) " +
+            "ORDER by created_at ASC, id ASC LIMIT :limit")
+    List<MessageEntity> selectMessagesFrom(final String cid, final Date createdAt, final String id, final Integer limit);
+
+    /**
+     * @return the replies of a thread after the cursor, oldest first
+     */
+    @Query("SELECT * FROM stream_message " +
+            "WHERE stream_message.parent_id = :parentId " +
+            "AND (created_at > :createdAt OR (created_at = :createdAt AND id > :id)) " +
+            "ORDER by created_at ASC, id ASC LIMIT :limit")
+    List<MessageEntity> selectRepliesAfter(final String parentId, final Date createdAt, final String id, final Integer limit);
+
+    @Query("SELECT * FROM stream_message WHERE stream_message.id = :id")
+    MessageEntity selectMessage(final String id);
+
+    @Query("SELECT id, previous_id FROM stream_message WHERE stream_message.id IN (:ids)")
+    List<PreviousId> selectPreviousIds(final List<String> ids);
+
+    @Query("UPDATE stream_message SET previous_id = :previousId WHERE stream_message.id = :id")
+    void updatePreviousId(String id, String previousId);
+
+    @Query("UPDATE stream_message SET reaction_counts = :reactionCounts WHERE stream_message.id = :id")
+    void updateReactionCounts(String id, String reactionCounts);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertReactions(List<ReactionEntity> reactions);
+
+    @Query("DELETE FROM stream_reaction WHERE stream_reaction.message_id = :messageId")
+    void deleteReactions(String messageId);
+
+    @Query("SELECT * FROM stream_reaction WHERE stream_reaction.message_id IN (:messageIds)")
+    List<ReactionEntity> selectReactions(final List<String> messageIds);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAttachments(List<AttachmentEntity> attachments);
+
+    @Query("DELETE FROM stream_attachment WHERE stream_attachment.message_id = :messageId")
+    void deleteAttachments(String messageId);
+
+    @Query("SELECT * FROM stream_attachment WHERE stream_attachment.message_id IN (:messageIds) ORDER BY position")
+    List<AttachmentEntity> selectAttachments(final List<String> messageIds);
+
+    class PreviousId {
+        @NonNull
+        public String id = "";
+
+        @ColumnInfo(name = "previous_id")
+        public String previousId;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.getstream.sdk.chat.storage;
+
+import com.getstream.sdk.chat.storage.converter.ReactionCountConverter;
+
+import java.util.Date;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+
+/**
+ * A message, its user, attachments and reactions are stored in their own tables
+ */
+@Entity(tableName = "stream_message", indices = {
+        @Index(value = {"cid", "created_at", "id"}),
+        @Index(value = {"parent_id", "created_at", "id"})
+})
+public class MessageEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+
+    public String cid;
+
+    @ColumnInfo(name = "created_at")
+    public Date createdAt;
+
+    @ColumnInfo(name = "user_id")
+    public String userId;
+
+    @ColumnInfo(name = "parent_id")
+    public String parentId;
+
+    /**
+     * the id of the message right before this one in the channel, empty for the first message of the channel
+     * and null if unknown. Only messages linked this way are known to have no gap between them.
+     */
+    @ColumnInfo(name = "previous_id")
+    public String previousId;
+
+    /**
+     * kept out of the json, so that a reaction only updates this column
+     */
+    @ColumnInfo(name = "reaction_counts")
+    @TypeConverters(ReactionCountConverter.class)
+    public Map<String, Integer> reactionCounts;
+
+    /**
+     * the message without its user, attachments and reactions serialized as json
+     */
+    public String data;
+}
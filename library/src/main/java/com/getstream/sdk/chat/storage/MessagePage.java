@@ -0,0 +1,28 @@
+package com.getstream.sdk.chat.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.getstream.chat.android.client.models.Message;
+
+/**
+ * Messages read from the offline storage, oldest first, without gaps between them
+ */
+public class MessagePage {
+
+    public final List<Message> messages;
+
+    /**
+     * true if the page goes back to the first message of the channel
+     */
+    public final boolean startOfChannel;
+
+    public MessagePage(List<Message> messages, boolean startOfChannel) {
+        this.messages = messages;
+        this.startOfChannel = startOfChannel;
+    }
+
+    public static MessagePage empty() {
+        return new MessagePage(new ArrayList<>(), false);
+    }
+}
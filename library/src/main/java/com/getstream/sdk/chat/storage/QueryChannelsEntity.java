@@ -0,0 +1,30 @@
+package com.getstream.sdk.chat.storage;
+
+import com.getstream.sdk.chat.storage.converter.ChannelIdListConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+
+/**
+ * The channels a query returned, in order, so the channel list can be shown before the query runs again
+ */
+@Entity(tableName = "stream_queries")
+public class QueryChannelsEntity {
+
+    /**
+     * the filter and sort of the query
+     */
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+
+    @ColumnInfo(name = "channel_cids")
+    @TypeConverters(ChannelIdListConverter.class)
+    public List<String> channelCids = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.getstream.sdk.chat.storage;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * A reaction of a message, the user is stored as {@link UserEntity}
+ */
+@Entity(tableName = "stream_reaction", primaryKeys = {"message_id", "user_id", "type", "own"})
+public class ReactionEntity {
+
+    @ColumnInfo(name = "message_id")
+    @NonNull
+    public String messageId = "";
+
+    @ColumnInfo(name = "user_id")
+    @NonNull
+    public String userId = "";
+
+    @NonNull
+    public String type = "";
+
+    /**
+     * true for the current user's reactions, false for the latest reactions
+     */
+    public boolean own;
+
+    /**
+     * the reaction without its user serialized as json
+     */
+    public String data;
+}
@@ -0,0 +1,18 @@
+package com.getstream.sdk.chat.storage;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "stream_user")
+public class UserEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String id = "";
+
+    /**
+     * the user serialized as json
+     */
+    public String data;
+}
@@ -6,19 +6,18 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import io.getstream.chat.android.client.models.User;
 
 @Dao
 public interface UsersDao {
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertUser(User user);
+    void insertUser(UserEntity user);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertUsers(List<User> users);
+    void insertUsers(List<UserEntity> users);
 
-    @Query("SELECT * FROM User " +
-            "WHERE User.id IN (:ids)")
-    List<User> getUsers(final List<String> ids);
+    @Query("SELECT * FROM stream_user " +
+            "WHERE stream_user.id IN (:ids)")
+    List<UserEntity> getUsers(final List<String> ids);
 
-}
\ No newline at end of file
+}
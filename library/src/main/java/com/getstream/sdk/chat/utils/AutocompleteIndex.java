@@ -0,0 +1,213 @@
+package com.getstream.sdk.chat.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds items by the beginning of their names or of any word of their names, ignoring case and accents.
+ * The words are kept in a sorted array, so a query is a binary search followed by a scan of the matches,
+ * and items are added and removed one by one without rebuilding the index.
+ * Names that start with the query come first, then names with a later word that starts with it.
+ * Can be used from any thread.
+ *
+ * @param <T> the type of the items
+ */
+public class AutocompleteIndex<T> {
+
+    public interface Naming<T> {
+        /**
+         * @return the key that identifies the item
+         */
+        String getKey(T item);
+
+        /**
+         * @return the name the item is found by
+         */
+        String getName(T item);
+    }
+
+    private static class Entry<T> {
+        final String key;
+        final T item;
+        final List<Token<T>> tokens = new ArrayList<>();
+
+        Entry(String key, T item) {
+            this.key = key;
+            this.item = item;
+        }
+    }
+
+    private static class Token<T> {
+        final String text;
+        final Entry<T> entry;
+        // true for the whole name, false for a later word of it
+        final boolean first;
+
+        Token(String text, Entry<T> entry, boolean first) {
+            this.text = text;
+            this.entry = entry;
+            this.first = first;
+        }
+    }
+
+    // the words of a name are suffixes of the name, so an entry never has two equal tokens
+    private final Comparator<Token<T>> tokenOrder = (a, b) -> {
+        int order = a.text.compareTo(b.text);
+        return order != 0 ? order : a.entry.key.compareTo(b.entry.key);
+    };
+
+    private final Naming<T> naming;
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private final List<Token<T>> tokens = new ArrayList<>();
+
+    public AutocompleteIndex(Naming<T> naming) {
+        this.naming = naming;
+    }
+
+    /**
+     * Adds an item, replacing the item with the same key
+     */
+    public synchronized void put(T item) {
+        removeEntry(naming.getKey(item));
+        for (Token<T> token : addEntry(item).tokens) {
+            int index = Collections.binarySearch(tokens, token, tokenOrder);
+            tokens.add(-index - 1, token);
+        }
+    }
+
+    /**
+     * Adds items, replacing the items with the same keys, sorting the index once
+     */
+    public synchronized void putAll(Collection<? extends T> items) {
+        Map<String, T> added = new LinkedHashMap<>();
+        for (T item : items) {
+            String key = naming.getKey(item);
+            removeEntry(key);
+            added.put(key, item);
+        }
+        for (T item : added.values()) {
+            tokens.addAll(addEntry(item).tokens);
+        }
+        Collections.sort(tokens, tokenOrder);
+    }
+
+    /**
+     * Replaces all items
+     */
+    public synchronized void setAll(Collection<? extends T> items) {
+        clear();
+        putAll(items);
+    }
+
+    public synchronized void remove(String key) {
+        removeEntry(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        tokens.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param query the beginning of a name or of a word of a name, empty for all items
+     * @param limit the maximum number of items
+     * @return the matching items, the ones with a name that starts with the query first, each in the order of the names
+     */
+    public synchronized List<T> search(String query, int limit) {
+        String normalized = normalize(query);
+        // a space after a complete name ends it, the name doesn't match anymore
+        if (!normalized.isEmpty() && Character.isWhitespace(query.charAt(query.length() - 1))) normalized += ' ';
+        int from = lowerBound(normalized);
+        int to = from;
+        while (to < tokens.size() && tokens.get(to).text.startsWith(normalized)) to++;
+
+        List<Entry<T>> found = new ArrayList<>(Math.min(limit, to - from));
+        collect(from, to, true, limit, found);
+        collect(from, to, false, limit, found);
+
+        List<T> items = new ArrayList<>(found.size());
+        for (Entry<T> entry : found) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    private void collect(int from, int to, boolean first, int limit, List<Entry<T>> found) {
+        for (int i = from; i < to && found.size() < limit; i++) {
+            Token<T> token = tokens.get(i);
+            if (token.first != first || found.contains(token.entry)) continue;
+            found.add(token.entry);
+        }
+    }
+
+    private int lowerBound(String text) {
+        int low = 0;
+        int high = tokens.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.get(middle).text.compareTo(text) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Entry<T> addEntry(T item) {
+        Entry<T> entry = new Entry<>(naming.getKey(item), item);
+        String name = normalize(naming.getName(item));
+        for (int i = 0; i < name.length(); i++) {
+            if (i == 0 || name.charAt(i - 1) == ' ') {
+                entry.tokens.add(new Token<>(name.substring(i), entry, i == 0));
+            }
+        }
+        entries.put(entry.key, entry);
+        return entry;
+    }
+
+    private void removeEntry(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) return;
+        for (Token<T> token : entry.tokens) {
+            int index = Collections.binarySearch(tokens, token, tokenOrder);
+            if (index >= 0) tokens.remove(index);
+        }
+    }
+
+    /**
+     * @return the text in lower case without accents and with single spaces between the words
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isWhitespace(c)) {
+                if (!space) normalized.append(' ');
+                space = true;
+            } else {
+                normalized.append(c);
+                space = false;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') normalized.setLength(length - 1);
+        return normalized.toString().toLowerCase(Locale.US);
+    }
+}
@@ -0,0 +1,192 @@
+package com.getstream.sdk.chat.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.getstream.chat.android.client.events.ChatEvent;
+import io.getstream.chat.android.client.events.MessageReadEvent;
+import io.getstream.chat.android.client.events.MessageUpdatedEvent;
+import io.getstream.chat.android.client.events.ReactionDeletedEvent;
+import io.getstream.chat.android.client.events.ReactionNewEvent;
+import io.getstream.chat.android.client.events.TypingStartEvent;
+import io.getstream.chat.android.client.events.TypingStopEvent;
+import io.getstream.chat.android.client.models.Message;
+
+/**
+ * Collects chat events and hands them over in batches on the main thread, aligned to the next frame
+ * after the batch window, so that a burst of events results in a single update of the UI state.
+ * Events that are made redundant by a later event of the same batch are dropped:
+ * updates and reactions of the same message (they carry the whole message), typing events of the same user
+ * and read events (the reads are taken from the channel).
+ */
+public class ChatEventBatcher {
+
+    public interface BatchHandler {
+        /**
+         * @param events the events of the batch in the order they were received, runs on the main thread
+         */
+        void onBatch(List<ChatEvent> events);
+    }
+
+    private final BatchHandler handler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> dispatch();
+    // the choreographer is per thread, frame callbacks have to be posted from the main thread
+    private final Runnable postFrameCallback =
+            () -> Choreographer.getInstance().postFrameCallbackDelayed(frameCallback, windowMillis);
+
+    private List<ChatEvent> pending = new ArrayList<>();
+    private boolean scheduled;
+    private volatile long windowMillis;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong eventCount = new AtomicLong();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+
+    public ChatEventBatcher(BatchHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * @param windowMillis how long to collect events before the next frame, 0 collects until the next frame
+     */
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Adds an event to the current batch, can be called from any thread
+     */
+    public void add(ChatEvent event) {
+        synchronized (this) {
+            pending.add(event);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        mainHandler.post(postFrameCallback);
+    }
+
+    /**
+     * Drops the pending events and the scheduled dispatch, call on the main thread
+     */
+    public void cancel() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+            scheduled = false;
+        }
+        mainHandler.removeCallbacks(postFrameCallback);
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+    }
+
+    private void dispatch() {
+        List<ChatEvent> events;
+        synchronized (this) {
+            events = pending;
+            pending = new ArrayList<>();
+            scheduled = false;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ChatEvent> batch = coalesce(events);
+
+        batchCount.incrementAndGet();
+        eventCount.addAndGet(events.size());
+        droppedEventCount.addAndGet(events.size() - batch.size());
+        lastBatchSize = events.size();
+        if (events.size() > maxBatchSize) {
+            maxBatchSize = events.size();
+        }
+        handler.onBatch(batch);
+    }
+
+    /**
+     * @return the events without the ones a later event makes redundant, in the original order
+     */
+    static List<ChatEvent> coalesce(List<ChatEvent> events) {
+        boolean[] keep = new boolean[events.size()];
+        // message ids whose latest state is already in the batch
+        Set<String> updatedMessages = new HashSet<>();
+        Set<String> typingUsers = new HashSet<>();
+        boolean hasRead = false;
+        int kept = 0;
+
+        for (int i = events.size() - 1; i >= 0; i--) {
+            ChatEvent event = events.get(i);
+            boolean redundant = false;
+            if (isMessageUpdate(event)) {
+                redundant = !updatedMessages.add(event.getMessage().getId());
+            } else if (event instanceof TypingStartEvent || event instanceof TypingStopEvent) {
+                redundant = event.getUser() != null && !typingUsers.add(event.getUser().getId());
+            } else if (event instanceof MessageReadEvent) {
+                redundant = hasRead;
+                hasRead = true;
+            } else {
+                // new and deleted messages have to be applied in order, an older update isn't redundant
+                Message message = event.getMessage();
+                if (message != null) {
+                    updatedMessages.remove(message.getId());
+                }
+            }
+            keep[i] = !redundant;
+            if (!redundant) kept++;
+        }
+
+        if (kept == events.size()) {
+            return events;
+        }
+        List<ChatEvent> batch = new ArrayList<>(kept);
+        for (int i = 0; i < events.size(); i++) {
+            if (keep[i]) batch.add(events.get(i));
+        }
+        return batch;
+    }
+
+    private static boolean isMessageUpdate(ChatEvent event) {
+        return (event instanceof MessageUpdatedEvent
+                || event instanceof ReactionNewEvent
+                || event instanceof ReactionDeletedEvent)
+                && event.getMessage() != null;
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getEventCount() {
+        return eventCount.get();
+    }
+
+    /**
+     * @return the number of events dropped because a later event of the same batch made them redundant
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * @return the number of events received in the last batch, including the dropped ones
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+}
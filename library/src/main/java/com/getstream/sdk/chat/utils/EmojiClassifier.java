@@ -0,0 +1,178 @@
+package com.getstream.sdk.chat.utils;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Tells whether a text consists of emoji only, by scanning its code points against a table of the emoji ranges.
+ * An emoji is counted once with its variation selector, skin tone, keycap, tags and zero width joined parts,
+ * and a flag is a pair of regional indicators.
+ * Doesn't allocate, so it can be called on every bind.
+ */
+public final class EmojiClassifier {
+
+    /**
+     * Texts of at most this many emoji are shown large
+     */
+    public static final int MAX_JUMBO_EMOJI = 3;
+
+    // sorted, non overlapping inclusive ranges of the code points shown as emoji
+    private static final int[] RANGES = {
+            0x00A9, 0x00A9,
+            0x00AE, 0x00AE,
+            0x203C, 0x203C,
+            0x2049, 0x2049,
+            0x2122, 0x2122,
+            0x2139, 0x2139,
+            0x2194, 0x2199,
+            0x21A9, 0x21AA,
+            0x231A, 0x231B,
+            0x2328, 0x2328,
+            0x23CF, 0x23CF,
+            0x23E9, 0x23F3,
+            0x23F8, 0x23FA,
+            0x24C2, 0x24C2,
+            0x25AA, 0x25AB,
+            0x25B6, 0x25B6,
+            0x25C0, 0x25C0,
+            0x25FB, 0x25FE,
+            0x2600, 0x27BF,
+            0x2934, 0x2935,
+            0x2B05, 0x2B07,
+            0x2B1B, 0x2B1C,
+            0x2B50, 0x2B50,
+            0x2B55, 0x2B55,
+            0x3030, 0x3030,
+            0x303D, 0x303D,
+            0x3297, 0x3297,
+            0x3299, 0x3299,
+            0x1F004, 0x1F004,
+            0x1F0CF, 0x1F0CF,
+            0x1F170, 0x1F171,
+            0x1F17E, 0x1F17F,
+            0x1F18E, 0x1F18E,
+            0x1F191, 0x1F19A,
+            0x1F1E6, 0x1F1FF,
+            0x1F201, 0x1F202,
+            0x1F21A, 0x1F21A,
+            0x1F22F, 0x1F22F,
+            0x1F232, 0x1F23A,
+            0x1F250, 0x1F251,
+            0x1F300, 0x1F6FF,
+            0x1F7E0, 0x1F7EB,
+            0x1F900, 0x1F9FF,
+            0x1FA70, 0x1FAFF,
+    };
+
+    private static final int VARIATION_SELECTOR = 0xFE0F;
+    private static final int ZERO_WIDTH_JOINER = 0x200D;
+    private static final int COMBINING_KEYCAP = 0x20E3;
+    private static final int REGIONAL_INDICATOR_FIRST = 0x1F1E6;
+    private static final int REGIONAL_INDICATOR_LAST = 0x1F1FF;
+    private static final int SKIN_TONE_FIRST = 0x1F3FB;
+    private static final int SKIN_TONE_LAST = 0x1F3FF;
+    private static final int TAG_FIRST = 0xE0020;
+    private static final int TAG_LAST = 0xE007F;
+
+    private EmojiClassifier() {
+    }
+
+    /**
+     * @return true if the text isn't empty and consists of emoji only
+     */
+    public static boolean isEmojiOnly(@Nullable CharSequence text) {
+        return countEmoji(text, Integer.MAX_VALUE) > 0;
+    }
+
+    /**
+     * @return true if the text consists of 1 to {@link #MAX_JUMBO_EMOJI} emoji
+     */
+    public static boolean isJumboEmoji(@Nullable CharSequence text) {
+        return countEmoji(text, MAX_JUMBO_EMOJI) > 0;
+    }
+
+    /**
+     * Counts the emoji of a text, stopping as soon as it finds something else or more than max emoji.
+     *
+     * @return the number of emoji, 0 for an empty text and -1 if the text isn't made of at most max emoji
+     */
+    public static int countEmoji(@Nullable CharSequence text, int max) {
+        if (text == null) return 0;
+        int length = text.length();
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            if (count == max) return -1;
+            i = skipEmoji(text, i, length);
+            if (i < 0) return -1;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the index after the emoji starting at start, or -1 if there is none
+     */
+    private static int skipEmoji(CharSequence text, int start, int length) {
+        int i = start;
+        while (true) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (isKeycapBase(codePoint)) {
+                // digits, # and * are emoji only with the keycap
+                if (i < length && text.charAt(i) == VARIATION_SELECTOR) i++;
+                if (i >= length || text.charAt(i) != COMBINING_KEYCAP) return -1;
+                return i + 1;
+            }
+            if (!isEmojiCodePoint(codePoint)) return -1;
+            if (isRegionalIndicator(codePoint) && i < length) {
+                int next = Character.codePointAt(text, i);
+                if (isRegionalIndicator(next)) return i + Character.charCount(next);
+            }
+            // the modifiers belong to the emoji before them
+            while (i < length) {
+                int next = Character.codePointAt(text, i);
+                if (next == VARIATION_SELECTOR
+                        || next == COMBINING_KEYCAP
+                        || (next >= SKIN_TONE_FIRST && next <= SKIN_TONE_LAST)
+                        || (next >= TAG_FIRST && next <= TAG_LAST)) {
+                    i += Character.charCount(next);
+                } else {
+                    break;
+                }
+            }
+            if (i + 1 < length && text.charAt(i) == ZERO_WIDTH_JOINER) {
+                i++;
+                continue;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * @return true if the code point is shown as an emoji on its own
+     */
+    public static boolean isEmojiCodePoint(int codePoint) {
+        if (codePoint < RANGES[0]) return false;
+        int low = 0;
+        int high = RANGES.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (codePoint < RANGES[middle * 2]) {
+                high = middle - 1;
+            } else if (codePoint > RANGES[middle * 2 + 1]) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRegionalIndicator(int codePoint) {
+        return codePoint >= REGIONAL_INDICATOR_FIRST && codePoint <= REGIONAL_INDICATOR_LAST;
+    }
+
+    private static boolean isKeycapBase(int codePoint) {
+        return codePoint == '#' || codePoint == '*' || (codePoint >= '0' && codePoint <= '9');
+    }
+}
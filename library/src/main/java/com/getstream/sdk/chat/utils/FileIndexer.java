@@ -0,0 +1,279 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+import com.getstream.sdk.chat.model.ModelType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Finds the files that can be attached, the documents, archives and audio files of the given directories.
+ * Directories are walked iteratively on a background thread and the files are delivered in batches on the main thread
+ * while the walk goes on, it can be cancelled at any time.
+ * The listing of every directory is kept in an index that is saved in the cache directory, a directory is only listed
+ * again if its modification time changed, so walking the storage again only checks the directories.
+ */
+public class FileIndexer {
+
+    private static final TaggedLogger logger = ChatLogger.Companion.get(FileIndexer.class.getSimpleName());
+
+    private static final String INDEX_FILE_NAME = "stream_file_index";
+    private static final int INDEX_VERSION = 1;
+    private static final int BATCH_SIZE = 50;
+
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+    static {
+        MIME_TYPES.put("pdf", ModelType.attach_mime_pdf);
+        MIME_TYPES.put("ppt", ModelType.attach_mime_ppt);
+        MIME_TYPES.put("csv", ModelType.attach_mime_csv);
+        MIME_TYPES.put("xlsx", ModelType.attach_mime_xlsx);
+        MIME_TYPES.put("doc", ModelType.attach_mime_doc);
+        MIME_TYPES.put("docx", ModelType.attach_mime_docx);
+        MIME_TYPES.put("txt", ModelType.attach_mime_txt);
+        MIME_TYPES.put("zip", ModelType.attach_mime_zip);
+        MIME_TYPES.put("tar", ModelType.attach_mime_tar);
+        MIME_TYPES.put("mov", ModelType.attach_mime_mov);
+        MIME_TYPES.put("mp3", ModelType.attach_mime_mp3);
+    }
+
+    // one walk at a time, the index is only used on this thread
+    private static final Executor INDEX_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stream-file-index");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static volatile FileIndexer instance;
+
+    public interface Listener {
+        /**
+         * @param files the next files found, in the order of the walk
+         */
+        void onFilesFound(List<AttachmentMetaData> files);
+
+        /**
+         * Called once the walk is done, unless it was cancelled
+         */
+        void onFinished();
+    }
+
+    /**
+     * A walk of a directory, cancelling it stops the walk and its batches aren't delivered anymore
+     */
+    public static class Task {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static class DirectoryEntry {
+        final long lastModified;
+        final List<String> directories;
+        final List<String> files;
+
+        DirectoryEntry(long lastModified, List<String> directories, List<String> files) {
+            this.lastModified = lastModified;
+            this.directories = directories;
+            this.files = files;
+        }
+    }
+
+    private final File indexFile;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // the directory entries by path, loaded from the index file by the first walk
+    private Map<String, DirectoryEntry> index;
+
+    private FileIndexer(Context context) {
+        indexFile = new File(context.getApplicationContext().getCacheDir(), INDEX_FILE_NAME);
+    }
+
+    public static FileIndexer getInstance(Context context) {
+        if (instance == null) {
+            synchronized (FileIndexer.class) {
+                if (instance == null)
+                    instance = new FileIndexer(context);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Walks the directory and everything below it, call on the main thread
+     */
+    public Task index(File root, Listener listener) {
+        Task task = new Task();
+        INDEX_EXECUTOR.execute(() -> walk(root, task, listener));
+        return task;
+    }
+
+    /**
+     * @return the mime type of the files with the name that can be attached, null for the others
+     */
+    public static String getMimeType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot == -1 || dot == fileName.length() - 1) return null;
+        return MIME_TYPES.get(fileName.substring(dot + 1).toLowerCase(Locale.US));
+    }
+
+    private void walk(File root, Task task, Listener listener) {
+        if (task.isCancelled()) return;
+        if (index == null) index = readIndex();
+
+        Map<String, DirectoryEntry> visited = new HashMap<>();
+        List<AttachmentMetaData> batch = new ArrayList<>(BATCH_SIZE);
+        Deque<File> directories = new ArrayDeque<>();
+        directories.push(root);
+        while (!directories.isEmpty()) {
+            if (task.isCancelled()) break;
+            File directory = directories.pop();
+            DirectoryEntry entry = getEntry(directory);
+            if (entry == null) continue;
+            visited.put(directory.getPath(), entry);
+
+            for (String name : entry.files) {
+                File file = new File(directory, name);
+                AttachmentMetaData attachment = new AttachmentMetaData(file);
+                Utils.configFileAttachment(attachment, file, ModelType.attach_file, getMimeType(name));
+                batch.add(attachment);
+                if (batch.size() == BATCH_SIZE) {
+                    deliver(batch, task, listener);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            // pushed in reverse so they are walked in the order they were listed
+            for (int i = entry.directories.size() - 1; i >= 0; i--) {
+                directories.push(new File(directory, entry.directories.get(i)));
+            }
+        }
+
+        if (task.isCancelled()) {
+            // the entries that were checked are still valid
+            index.putAll(visited);
+        } else {
+            // directories that weren't reached anymore were removed
+            index = visited;
+            if (!batch.isEmpty()) deliver(batch, task, listener);
+            mainHandler.post(() -> {
+                if (!task.isCancelled()) listener.onFinished();
+            });
+        }
+        writeIndex(index);
+    }
+
+    /**
+     * @return the entry of the directory from the index if it didn't change, listed again otherwise
+     */
+    private DirectoryEntry getEntry(File directory) {
+        long lastModified = directory.lastModified();
+        DirectoryEntry entry = index.get(directory.getPath());
+        if (entry != null && entry.lastModified == lastModified && lastModified != 0) return entry;
+
+        File[] children = directory.listFiles();
+        if (children == null) return null;
+        List<String> directories = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        for (File child : children) {
+            String name = child.getName();
+            if (child.isDirectory()) {
+                directories.add(name);
+            } else if (getMimeType(name) != null) {
+                files.add(name);
+            }
+        }
+        return new DirectoryEntry(lastModified, directories, files);
+    }
+
+    private void deliver(List<AttachmentMetaData> batch, Task task, Listener listener) {
+        mainHandler.post(() -> {
+            if (!task.isCancelled()) listener.onFilesFound(batch);
+        });
+    }
+
+    private Map<String, DirectoryEntry> readIndex() {
+        Map<String, DirectoryEntry> entries = new HashMap<>();
+        if (!indexFile.exists()) return entries;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != INDEX_VERSION) return entries;
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = input.readUTF();
+                long lastModified = input.readLong();
+                List<String> directories = readNames(input);
+                List<String> files = readNames(input);
+                entries.put(path, new DirectoryEntry(lastModified, directories, files));
+            }
+        } catch (IOException e) {
+            logger.logE("Failed to read the file index: " + e.toString());
+            entries.clear();
+        }
+        return entries;
+    }
+
+    private static List<String> readNames(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count == 0) return Collections.emptyList();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(input.readUTF());
+        }
+        return names;
+    }
+
+    private void writeIndex(Map<String, DirectoryEntry> entries) {
+        // written next to the index and renamed, so a walk that is killed doesn't leave a broken index
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            output.writeInt(INDEX_VERSION);
+            output.writeInt(entries.size());
+            for (Map.Entry<String, DirectoryEntry> entry : entries.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue().lastModified);
+                writeNames(output, entry.getValue().directories);
+                writeNames(output, entry.getValue().files);
+            }
+        } catch (IOException e) {
+            logger.logE("Failed to write the file index: " + e.toString());
+            return;
+        }
+        if (!tempFile.renameTo(indexFile))
+            logger.logE("Failed to replace the file index");
+    }
+
+    private static void writeNames(DataOutputStream output, List<String> names) throws IOException {
+        output.writeInt(names.size());
+        for (String name : names) {
+            output.writeUTF(name);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.net.ConnectivityManager;
+import android.os.SystemClock;
+import android.util.SparseArray;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.target.Target;
+import com.getstream.sdk.chat.Chat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Loads the images of the rows a list is scrolling towards before they are shown, so that flings don't show placeholders.
+ * The next rows in the direction of the scroll are preloaded into the caches of Glide, and the preloads of rows
+ * that moved far away from the visible rows are cancelled.
+ * Preloads follow their rows when items are inserted or removed before them, e.g. a page of older messages.
+ * Pauses while the memory is low and on metered networks.
+ * Only used on the main thread.
+ */
+public class ImagePrefetcher extends RecyclerView.OnScrollListener implements ComponentCallbacks2 {
+
+    public static final int DEFAULT_PREFETCH_ROWS = 10;
+    // how long prefetching stays paused after the system asked to trim memory
+    private static final long LOW_MEMORY_PAUSE_MILLIS = 30_000;
+
+    public interface RequestProvider {
+        /**
+         * Adds the requests of the images of the row at the position, the ones its view would make
+         */
+        void collectRequests(RequestManager glide, int position, List<RequestBuilder<?>> requests);
+    }
+
+    private final Context context;
+    private final RequestManager glide;
+    private final RequestProvider provider;
+    private final int prefetchRows;
+    private final ConnectivityManager connectivityManager;
+
+    private RecyclerView recyclerView;
+    private RecyclerView.Adapter<?> adapter;
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            cancelAll();
+            firstVisible = lastVisible = RecyclerView.NO_POSITION;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            shift(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            cancelRange(positionStart, positionStart + itemCount - 1);
+            shift(positionStart + itemCount, -itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            onChanged();
+        }
+    };
+    // the preloads of the rows that aren't shown yet by position
+    private final SparseArray<List<Target<?>>> prefetched = new SparseArray<>();
+    private final List<RequestBuilder<?>> requests = new ArrayList<>();
+    private int firstVisible = RecyclerView.NO_POSITION;
+    private int lastVisible = RecyclerView.NO_POSITION;
+    private boolean metered;
+    private long lowMemoryUntil;
+
+    private int hitCount;
+    private int missCount;
+    private int requestCount;
+    private int cancelCount;
+
+    public ImagePrefetcher(Context context, RequestProvider provider) {
+        this(context, provider, DEFAULT_PREFETCH_ROWS);
+    }
+
+    /**
+     * @param prefetchRows the number of rows after the visible ones that are prefetched
+     */
+    public ImagePrefetcher(Context context, RequestProvider provider, int prefetchRows) {
+        this.context = context.getApplicationContext();
+        this.glide = Glide.with(context);
+        this.provider = provider;
+        this.prefetchRows = prefetchRows;
+        this.connectivityManager = (ConnectivityManager) this.context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Starts prefetching when the list scrolls, the list must have a {@link LinearLayoutManager}
+     */
+    public void attach(RecyclerView recyclerView) {
+        if (this.recyclerView == recyclerView) return;
+        detach();
+        this.recyclerView = recyclerView;
+        recyclerView.addOnScrollListener(this);
+        context.registerComponentCallbacks(this);
+        observe(recyclerView.getAdapter());
+        updateMetered();
+    }
+
+    public void detach() {
+        if (recyclerView == null) return;
+        recyclerView.removeOnScrollListener(this);
+        context.unregisterComponentCallbacks(this);
+        observe(null);
+        recyclerView = null;
+        cancelAll();
+        firstVisible = lastVisible = RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        // the network can change between flings, not during one
+        if (newState == RecyclerView.SCROLL_STATE_DRAGGING) updateMetered();
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)
+                || recyclerView.getAdapter() == null) return;
+        if (recyclerView.getAdapter() != adapter) {
+            // the positions of the preloads belong to the previous adapter
+            cancelAll();
+            firstVisible = lastVisible = RecyclerView.NO_POSITION;
+            observe(recyclerView.getAdapter());
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return;
+
+        countShownRows(first, last);
+        firstVisible = first;
+        lastVisible = last;
+        cancelOutside(first - prefetchRows, last + prefetchRows);
+
+        if (isPaused()) {
+            cancelAll();
+            return;
+        }
+        int itemCount = recyclerView.getAdapter().getItemCount();
+        if (dy > 0) {
+            prefetch(last + 1, Math.min(itemCount - 1, last + prefetchRows));
+        } else if (dy < 0) {
+            prefetch(Math.max(0, first - prefetchRows), first - 1);
+        }
+    }
+
+    private boolean isPaused() {
+        return metered || SystemClock.uptimeMillis() < lowMemoryUntil;
+    }
+
+    private void updateMetered() {
+        metered = connectivityManager != null && connectivityManager.isActiveNetworkMetered();
+    }
+
+    // the rows that became visible were prefetched or not
+    private void countShownRows(int first, int last) {
+        for (int position = first; position <= last; position++) {
+            if (position >= firstVisible && position <= lastVisible) continue;
+            if (prefetched.get(position) != null) {
+                hitCount++;
+                // the preload goes on for the view, which waits for the same image
+                prefetched.remove(position);
+            } else {
+                missCount++;
+            }
+        }
+    }
+
+    private void prefetch(int from, int to) {
+        for (int position = from; position <= to; position++) {
+            if (prefetched.get(position) != null) continue;
+            requests.clear();
+            provider.collectRequests(glide, position, requests);
+            List<Target<?>> targets = new ArrayList<>(requests.size());
+            for (RequestBuilder<?> request : requests) {
+                targets.add(request.preload());
+                requestCount++;
+            }
+            prefetched.put(position, targets);
+        }
+        requests.clear();
+    }
+
+    private void observe(RecyclerView.Adapter<?> newAdapter) {
+        if (adapter != null) adapter.unregisterAdapterDataObserver(dataObserver);
+        adapter = newAdapter;
+        if (adapter != null) adapter.registerAdapterDataObserver(dataObserver);
+    }
+
+    // moves the preloads and the visible rows from the position on by the delta
+    private void shift(int from, int delta) {
+        if (firstVisible >= from) firstVisible += delta;
+        if (lastVisible >= from) lastVisible += delta;
+        int size = prefetched.size();
+        if (size == 0 || prefetched.keyAt(size - 1) < from) return;
+        int[] positions = new int[size];
+        List<List<Target<?>>> targets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int position = prefetched.keyAt(i);
+            positions[i] = position >= from ? position + delta : position;
+            targets.add(prefetched.valueAt(i));
+        }
+        prefetched.clear();
+        for (int i = 0; i < size; i++) {
+            prefetched.put(positions[i], targets.get(i));
+        }
+    }
+
+    private void cancelRange(int from, int to) {
+        for (int i = prefetched.size() - 1; i >= 0; i--) {
+            int position = prefetched.keyAt(i);
+            if (position < from || position > to) continue;
+            cancel(prefetched.valueAt(i));
+            prefetched.removeAt(i);
+        }
+    }
+
+    private void cancelOutside(int from, int to) {
+        for (int i = prefetched.size() - 1; i >= 0; i--) {
+            int position = prefetched.keyAt(i);
+            if (position >= from && position <= to) continue;
+            cancel(prefetched.valueAt(i));
+            prefetched.removeAt(i);
+        }
+    }
+
+    private void cancelAll() {
+        for (int i = 0; i < prefetched.size(); i++) {
+            cancel(prefetched.valueAt(i));
+        }
+        prefetched.clear();
+    }
+
+    private void cancel(List<Target<?>> targets) {
+        for (Target<?> target : targets) {
+            // stops the loads that aren't done, the finished ones stay in the caches
+            glide.clear(target);
+            cancelCount++;
+        }
+    }
+
+    /**
+     * @return a request that downloads the avatar at the url into the disk cache of Glide
+     */
+    public static RequestBuilder<File> avatarRequest(RequestManager glide, String url) {
+        return glide.downloadOnly().load(Chat.getInstance().urlSigner().signImageUrl(url));
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_LOW) onLowMemory();
+    }
+
+    @Override
+    public void onLowMemory() {
+        lowMemoryUntil = SystemClock.uptimeMillis() + LOW_MEMORY_PAUSE_MILLIS;
+        cancelAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    /**
+     * @return the number of rows that were prefetched when they were shown
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of rows that weren't prefetched when they were shown,
+     * the rows shown at the start and after a jump are misses too
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of images requested ahead of time
+     */
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return the number of prefetched images that were cancelled or released before their rows were shown
+     */
+    public int getCancelCount() {
+        return cancelCount;
+    }
+}
@@ -2,6 +2,7 @@ package com.getstream.sdk.chat.utils;
 
 
 import android.text.TextUtils;
+import android.util.LruCache;
 
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
@@ -23,7 +24,22 @@ import static com.getstream.sdk.chat.enums.Dates.YESTERDAY;
 
 public class LlcMigrationUtils {
 
-    private static Map<String, String> reactionTypes;
+    // the emoji by reaction type, built once and shared by every message
+    private static final Map<String, String> reactionTypes;
+
+    static {
+        Map<String, String> types = new LinkedHashMap<>();
+        types.put("like", "\uD83D\uDC4D");
+        types.put("love", "\u2764\uFE0F");
+        types.put("haha", "\uD83D\uDE02");
+        types.put("wow", "\uD83D\uDE32");
+        types.put("sad", " \uD83D\uDE41");
+        types.put("angry", "\uD83D\uDE21");
+        reactionTypes = Collections.unmodifiableMap(types);
+    }
+
+    // initials by name, empty if the name has none
+    private static final LruCache<String, String> initialsCache = new LruCache<>(1000);
 
     public static String getInitials(User user) {
 
@@ -33,6 +49,23 @@ public class LlcMigrationUtils {
             name = "";
         }
 
+        return getInitials(name);
+    }
+
+    /**
+     * @return the initials of the first two words of the name, null if there are none
+     */
+    private static String getInitials(String name) {
+        // avatars ask for the same names over and over while scrolling
+        String initials = initialsCache.get(name);
+        if (initials == null) {
+            initials = computeInitials(name);
+            initialsCache.put(name, initials == null ? "" : initials);
+        }
+        return initials == null || initials.isEmpty() ? null : initials;
+    }
+
+    private static String computeInitials(String name) {
         String[] names = name.split(" ");
         String firstName = names[0];
         String lastName = null;
@@ -103,10 +136,16 @@ public class LlcMigrationUtils {
     }
 
     public static boolean readLastMessage(Channel channel) {
+        return readLastMessage(channel, computeLastMessage(channel));
+    }
+
+    /**
+     * @param lastMessage the channel's last message, see {@link #computeLastMessage(Channel)}
+     */
+    public static boolean readLastMessage(Channel channel, @Nullable Message lastMessage) {
         User currentUser = getCurrentUser();
         String currentUserId = currentUser.getId();
         Date myReadDate = getReadDateOfChannelLastMessage(currentUserId, channel);
-        Message lastMessage = computeLastMessage(channel);
         if (myReadDate == null) {
             return false;
         } else if (lastMessage == null) {
@@ -115,7 +154,13 @@ public class LlcMigrationUtils {
     }
 
     public static List<ChannelUserRead> getLastMessageReads(Channel channel) {
-        Message lastMessage = computeLastMessage(channel);
+        return getLastMessageReads(channel, computeLastMessage(channel));
+    }
+
+    /**
+     * @param lastMessage the channel's last message, see {@link #computeLastMessage(Channel)}
+     */
+    public static List<ChannelUserRead> getLastMessageReads(Channel channel, @Nullable Message lastMessage) {
         List<ChannelUserRead> readLastMessage = new ArrayList<>();
         List<ChannelUserRead> reads = channel.getRead();
         if (reads == null || lastMessage == null) return readLastMessage;
@@ -374,37 +419,10 @@ public class LlcMigrationUtils {
         if (name == null) {
             return "";
         }
-        String[] names = name.split(" ");
-        String firstName = names[0];
-        String lastName = null;
-        try {
-            lastName = names[1];
-        } catch (Exception e) {
-        }
-
-        if (!TextUtils.isEmpty(firstName) && TextUtils.isEmpty(lastName))
-            return firstName.substring(0, 1).toUpperCase();
-        if (TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
-            return lastName.substring(0, 1).toUpperCase();
-
-        if (!TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
-            return firstName.substring(0, 1).toUpperCase() + lastName.substring(0, 1).toUpperCase();
-        return null;
+        return getInitials(name);
     }
 
     public static Map<String, String> getReactionTypes() {
-        if (reactionTypes == null) {
-            reactionTypes = new HashMap<String, String>() {
-                {
-                    put("like", "\uD83D\uDC4D");
-                    put("love", "\u2764\uFE0F");
-                    put("haha", "\uD83D\uDE02");
-                    put("wow", "\uD83D\uDE32");
-                    put("sad", " \uD83D\uDE41");
-                    put("angry", "\uD83D\uDE21");
-                }
-            };
-        }
         return reactionTypes;
     }
 
@@ -0,0 +1,198 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.MediaStore;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+import com.getstream.sdk.chat.model.ModelType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Loads the photos and videos of the device page by page, the newest first, on a background thread.
+ * Every page is a query of its own that continues after the last row of the previous one,
+ * so only the rows of the pages that are shown are read, however large the gallery is.
+ * The files aren't checked, a file that was removed is found out when it is selected.
+ * Pages are delivered on the main thread.
+ */
+public class MediaGalleryLoader {
+
+    public static final int DEFAULT_PAGE_SIZE = 60;
+
+    private static final TaggedLogger logger = ChatLogger.Companion.get(MediaGalleryLoader.class.getSimpleName());
+
+    private static final Executor QUERY_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stream-gallery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final String[] COLUMNS = {
+            MediaStore.Files.FileColumns._ID,
+            MediaStore.Files.FileColumns.DATA,
+            MediaStore.Files.FileColumns.DATE_ADDED,
+            MediaStore.Files.FileColumns.MEDIA_TYPE,
+            MediaStore.Video.VideoColumns.DURATION,
+    };
+
+    private static final String MEDIA_SELECTION = "(" + MediaStore.Files.FileColumns.MEDIA_TYPE + "="
+            + MediaStore.Files.FileColumns.MEDIA_TYPE_IMAGE
+            + " OR "
+            + MediaStore.Files.FileColumns.MEDIA_TYPE + "="
+            + MediaStore.Files.FileColumns.MEDIA_TYPE_VIDEO + ")";
+
+    // continues after the last row of the previous page, the id breaks ties of the date
+    private static final String AFTER_SELECTION = " AND (" + MediaStore.Files.FileColumns.DATE_ADDED + "<?"
+            + " OR (" + MediaStore.Files.FileColumns.DATE_ADDED + "=? AND " + MediaStore.Files.FileColumns._ID + "<?))";
+
+    private static final String SORT_ORDER = MediaStore.Files.FileColumns.DATE_ADDED + " DESC, "
+            + MediaStore.Files.FileColumns._ID + " DESC";
+
+    // the media provider rejects a limit in the sort order from Android 11, Build.VERSION_CODES.R
+    private static final int QUERY_ARGS_LIMIT_SDK = 30;
+
+    public interface PageListener {
+        /**
+         * @param page       the next photos and videos, the newest first
+         * @param endReached true if there are no older ones
+         */
+        void onPageLoaded(List<AttachmentMetaData> page, boolean endReached);
+    }
+
+    private final ContentResolver contentResolver;
+    private final int pageSize;
+    private final PageListener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // the keyset of the last row loaded, only used on the query thread
+    private long lastDateAdded = -1;
+    private long lastId = -1;
+
+    // only used on the main thread
+    private boolean loading;
+    private boolean endReached;
+    private boolean cancelled;
+
+    public MediaGalleryLoader(Context context, PageListener listener) {
+        this(context, DEFAULT_PAGE_SIZE, listener);
+    }
+
+    public MediaGalleryLoader(Context context, int pageSize, PageListener listener) {
+        this.contentResolver = context.getApplicationContext().getContentResolver();
+        this.pageSize = pageSize;
+        this.listener = listener;
+    }
+
+    /**
+     * Loads the next page unless one is loading or all were loaded, call on the main thread
+     */
+    public void loadNextPage() {
+        if (loading || endReached || cancelled) return;
+        loading = true;
+        QUERY_EXECUTOR.execute(() -> {
+            List<AttachmentMetaData> page = new ArrayList<>(pageSize);
+            boolean lastPage = queryNextPage(page) < pageSize;
+            mainHandler.post(() -> {
+                loading = false;
+                if (cancelled) return;
+                endReached = lastPage;
+                listener.onPageLoaded(page, endReached);
+            });
+        });
+    }
+
+    /**
+     * Stops loading, a page that is being loaded isn't delivered
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    /**
+     * @return the number of rows read, less than the page size at the end of the gallery
+     */
+    private int queryNextPage(List<AttachmentMetaData> page) {
+        int rows = 0;
+        Cursor cursor = null;
+        try {
+            cursor = query();
+            if (cursor == null) {
+                logger.logE("ContentResolver query return null");
+                return rows;
+            }
+            int idColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns._ID);
+            int dataColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.DATA);
+            int dateColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.DATE_ADDED);
+            int typeColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.MEDIA_TYPE);
+            int durationColumn = cursor.getColumnIndex(MediaStore.Video.VideoColumns.DURATION);
+            // the limit may be ignored by the provider, reading only a page keeps the memory bounded anyway
+            while (rows < pageSize && cursor.moveToNext()) {
+                rows++;
+                lastId = cursor.getLong(idColumn);
+                lastDateAdded = cursor.getLong(dateColumn);
+                String path = cursor.getString(dataColumn);
+                if (path == null) continue;
+                page.add(toAttachment(new File(path), cursor.getInt(typeColumn),
+                        durationColumn == -1 ? 0 : cursor.getLong(durationColumn)));
+            }
+        } catch (Exception e) {
+            logger.logE("Failed to query the gallery: " + e.toString());
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+        return rows;
+    }
+
+    private Cursor query() {
+        Uri uri = MediaStore.Files.getContentUri("external");
+        String selection = MEDIA_SELECTION;
+        String[] selectionArgs = null;
+        if (lastId != -1) {
+            selection += AFTER_SELECTION;
+            String date = String.valueOf(lastDateAdded);
+            selectionArgs = new String[]{date, date, String.valueOf(lastId)};
+        }
+        if (Build.VERSION.SDK_INT >= QUERY_ARGS_LIMIT_SDK) {
+            Bundle args = new Bundle();
+            args.putString(ContentResolver.QUERY_ARG_SQL_SELECTION, selection);
+            args.putStringArray(ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS, selectionArgs);
+            args.putString(ContentResolver.QUERY_ARG_SQL_SORT_ORDER, SORT_ORDER);
+            args.putInt(ContentResolver.QUERY_ARG_LIMIT, pageSize);
+            return contentResolver.query(uri, COLUMNS, args, null);
+        }
+        return contentResolver.query(uri, COLUMNS, selection, selectionArgs, SORT_ORDER + " LIMIT " + pageSize);
+    }
+
+    private static AttachmentMetaData toAttachment(File file, int mediaType, long duration) {
+        AttachmentMetaData attachment = new AttachmentMetaData(file);
+        if (mediaType == Constant.MEDIA_TYPE_IMAGE) {
+            attachment.type = ModelType.attach_image;
+        } else if (mediaType == Constant.MEDIA_TYPE_VIDEO) {
+            attachment.videoLength = (int) (duration / 1000);
+            Utils.configFileAttachment(attachment, file, ModelType.attach_file, ModelType.attach_mime_mp4);
+        }
+        return attachment;
+    }
+}
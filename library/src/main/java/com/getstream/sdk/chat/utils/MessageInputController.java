@@ -1,12 +1,13 @@
 package com.getstream.sdk.chat.utils;
 
-import android.app.Activity;
 import android.content.Context;
 import android.media.MediaMetadataRetriever;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.AdapterView;
@@ -34,16 +35,21 @@ import java.util.List;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import io.getstream.chat.android.client.errors.ChatError;
 import io.getstream.chat.android.client.models.Channel;
 import io.getstream.chat.android.client.models.Command;
-import io.getstream.chat.android.client.models.Member;
 import io.getstream.chat.android.client.models.User;
 import io.getstream.chat.android.client.utils.ProgressCallback;
 
 public class MessageInputController {
 
     private static final String TAG = MessageInputController.class.getSimpleName();
+    // the number of media items from the end of the gallery at which the next page is loaded
+    private static final int MEDIA_PREFETCH_DISTANCE = 20;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final long SUGGESTION_DEBOUNCE_MILLIS = 100;
 
     private ChannelViewModel viewModel;
     private Channel channel;
@@ -62,7 +68,14 @@ public class MessageInputController {
     private MessageInputView.AttachmentListener attachmentListener;
 
     private List<AttachmentMetaData> attachmentData;
+    private MediaGalleryLoader galleryLoader;
+    private FileIndexer.Task fileIndexing;
     private UploadManager uploadManager;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSuggestions;
+    // increased on every change of the text, the suggestions of an older text are dropped
+    private int suggestionGeneration;
     // region Attachment
 
     public MessageInputController(@NonNull Context context,
@@ -76,7 +89,13 @@ public class MessageInputController {
         this.channel = viewModel.getChannel();
         this.style = style;
         this.attachmentListener = attachmentListener;
-        uploadManager = new UploadManager(channel);
+        uploadManager = new UploadManager(channel, context);
+        binding.rvMedia.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadMoreMediaIfNeeded(recyclerView);
+            }
+        });
     }
 
     public List<AttachmentMetaData> getSelectedAttachments() {
@@ -156,6 +175,7 @@ public class MessageInputController {
         binding.getRoot().setBackgroundResource(0);
         messageInputType = null;
         commandMentionListItemAdapter = null;
+        cancelAttachmentLoading();
         configAttachmentButtonVisible(true);
     }
 
@@ -163,33 +183,82 @@ public class MessageInputController {
 
     // region Upload Attachment File
 
-    private void configSelectAttachView(boolean isMedia) {
-        binding.setIsAttachFile(!isMedia);
-        getAttachmentsFromLocal(isMedia);
+    private void configSelectMediaView() {
+        binding.setIsAttachFile(false);
+        if (!selectedAttachments.isEmpty()) {
+            showHideComposerAttachmentGalleryView(true, true);
+            setSelectedAttachmentAdapter(false, true);
+            return;
+        }
+        cancelAttachmentLoading();
+        attachmentData = new ArrayList<>();
+        setAttachmentAdapters(true);
+        galleryLoader = new MediaGalleryLoader(context, this::onMediaPageLoaded);
+        galleryLoader.loadNextPage();
+    }
+
+    private void onMediaPageLoaded(List<AttachmentMetaData> page, boolean endReached) {
+        if (mediaAttachmentAdapter == null) return;
+        binding.progressBarFileLoader.setVisibility(View.GONE);
+        if (!page.isEmpty()) {
+            int start = attachmentData.size();
+            attachmentData.addAll(page);
+            mediaAttachmentAdapter.notifyItemRangeInserted(start, page.size());
+        } else if (attachmentData.isEmpty()) {
+            Utils.showMessage(context, context.getResources().getString(R.string.stream_no_media_error));
+            onClickCloseBackGroundView();
+        }
+    }
+
+    private void loadMoreMediaIfNeeded(RecyclerView recyclerView) {
+        if (galleryLoader == null || galleryLoader.isLoading() || galleryLoader.isEndReached()) return;
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager.findLastVisibleItemPosition() >= layoutManager.getItemCount() - MEDIA_PREFETCH_DISTANCE)
+            galleryLoader.loadNextPage();
+    }
 
-        ((Activity) context).runOnUiThread(() -> {
-            if (selectedAttachments.isEmpty()) {
-                setAttachmentAdapters(isMedia);
+    private void configSelectFileView() {
+        binding.setIsAttachFile(true);
+        if (!selectedAttachments.isEmpty()) {
+            showHideComposerAttachmentGalleryView(true, false);
+            setSelectedAttachmentAdapter(false, false);
+            return;
+        }
+        cancelAttachmentLoading();
+        attachmentData = new ArrayList<>();
+        setAttachmentAdapters(false);
+        fileIndexing = FileIndexer.getInstance(context).index(Environment.getExternalStorageDirectory(), new FileIndexer.Listener() {
+            @Override
+            public void onFilesFound(List<AttachmentMetaData> files) {
+                if (fileAttachmentAdapter == null) return;
+                binding.progressBarFileLoader.setVisibility(View.GONE);
+                attachmentData.addAll(files);
+                fileAttachmentAdapter.notifyDataSetChanged();
+            }
+
+            @Override
+            public void onFinished() {
+                fileIndexing = null;
+                if (fileAttachmentAdapter == null) return;
+                binding.progressBarFileLoader.setVisibility(View.GONE);
                 if (attachmentData.isEmpty()) {
                     Utils.showMessage(context, context.getResources().getString(R.string.stream_no_media_error));
                     onClickCloseBackGroundView();
                 }
-                binding.progressBarFileLoader.setVisibility(View.GONE);
-            } else {
-                showHideComposerAttachmentGalleryView(true, isMedia);
-                setSelectedAttachmentAdapter(false, isMedia);
             }
         });
     }
 
-    private void getAttachmentsFromLocal(boolean isMedia) {
-        if (isMedia) {
-            attachmentData = Utils.getMediaAttachments(context);
-            return;
+    private void cancelAttachmentLoading() {
+        if (galleryLoader != null) {
+            galleryLoader.cancel();
+            galleryLoader = null;
+        }
+        if (fileIndexing != null) {
+            fileIndexing.cancel();
+            fileIndexing = null;
         }
-
-        Utils.attachments = new ArrayList<>();
-        attachmentData = Utils.getFileAttachments(Environment.getExternalStorageDirectory());
     }
 
     private void setAttachmentAdapters(boolean isMedia) {
@@ -222,6 +291,11 @@ public class MessageInputController {
 
     private void uploadOrCancelAttachment(AttachmentMetaData attachment,
                                           boolean isMedia) {
+        if (!attachment.isSelected && !attachment.isUploaded() && !attachment.file.exists()) {
+            // the gallery doesn't check the files up front
+            removeMissingAttachment(attachment, isMedia);
+            return;
+        }
         if (!attachment.isSelected) {
             uploadAttachment(attachment, true, isMedia);
         } else {
@@ -229,6 +303,16 @@ public class MessageInputController {
         }
     }
 
+    private void removeMissingAttachment(AttachmentMetaData attachment, boolean isMedia) {
+        int index = attachmentData.indexOf(attachment);
+        if (index == -1) return;
+        attachmentData.remove(index);
+        if (isMedia)
+            mediaAttachmentAdapter.notifyItemRemoved(index);
+        else
+            fileAttachmentAdapter.notifyDataSetChanged();
+    }
+
     public boolean isOverMaxUploadFileSize(File file, boolean showErrorToast) {
         if (file.length() > Constant.MAX_UPLOAD_FILE_SIZE) {
             if (showErrorToast)
@@ -320,7 +404,10 @@ public class MessageInputController {
             setSelectedAttachments(editAttachments);
 
 
-        AsyncTask.execute(() -> configSelectAttachView(isMedia));
+        if (isMedia)
+            configSelectMediaView();
+        else
+            configSelectFileView();
         if (selectedAttachments.isEmpty()) {
             binding.progressBarFileLoader.setVisibility(View.VISIBLE);
             onClickOpenBackGroundView(isMedia ? MessageInputType.UPLOAD_MEDIA : MessageInputType.UPLOAD_FILE);
@@ -389,6 +476,7 @@ public class MessageInputController {
         binding.lvComposer.setVisibility(View.GONE);
         binding.rvComposer.setVisibility(View.GONE);
 
+        cancelAttachmentLoading();
         mediaAttachmentAdapter = null;
         selectedMediaAttachmentAdapter = null;
         fileAttachmentAdapter = null;
@@ -433,38 +521,47 @@ public class MessageInputController {
     }
 
     public void checkCommand(String text) {
+        if (pendingSuggestions != null) {
+            mainHandler.removeCallbacks(pendingSuggestions);
+            pendingSuggestions = null;
+        }
+        suggestionGeneration++;
         if (TextUtils.isEmpty(text)
-                || (!text.startsWith("/") && !text.contains("@"))) {
+                || (!text.startsWith("/") && text.indexOf('@') == -1)) {
             closeCommandView();
-        } else if (text.length() == 1) {
-            onClickCommandViewOpen(text.startsWith("/"));
-        } else if (text.endsWith("@")) {
-            onClickCommandViewOpen(false);
-        } else {
-            setCommandsMentionUsers(text);
-            if (!commands.isEmpty() && binding.clCommand.getVisibility() != View.VISIBLE)
-                openCommandView();
-
-            setCommandMentionListItemAdapter(text.startsWith("/"));
+            return;
         }
-
-        if (commands == null || commands.isEmpty())
+        boolean isCommand = text.startsWith("/");
+        // only the text after the last @ is the name being typed
+        String query = isCommand ? text.substring(1) : text.substring(text.lastIndexOf('@') + 1);
+        int generation = suggestionGeneration;
+        pendingSuggestions = () -> {
+            pendingSuggestions = null;
+            AsyncTask.execute(() -> {
+                List<Object> suggestions = new ArrayList<>(isCommand
+                        ? viewModel.getCommandIndex().search(query, MAX_SUGGESTIONS)
+                        : viewModel.getMentionIndex().search(query, MAX_SUGGESTIONS));
+                mainHandler.post(() -> {
+                    // the text changed in the meantime
+                    if (generation != suggestionGeneration) return;
+                    showSuggestions(isCommand, query, suggestions);
+                });
+            });
+        };
+        // the list opens right away, the queries typed after are debounced
+        mainHandler.postDelayed(pendingSuggestions, query.isEmpty() ? 0 : SUGGESTION_DEBOUNCE_MILLIS);
+    }
+
+    private void showSuggestions(boolean isCommand, String query, List<Object> suggestions) {
+        commands = suggestions;
+        if (commands.isEmpty()) {
             closeCommandView();
-
-    }
-
-    private void onClickCommandViewOpen(boolean isCommand) {
-        if (isCommand) {
-            setCommands("");
-        } else {
-            setMentionUsers("");
+            return;
         }
-        String title = binding.tvTitle.getContext().getResources().getString(isCommand ? R.string.stream_input_type_command : R.string.stream_input_type_auto_mention);
-        binding.tvTitle.setText(title);
-        binding.tvCommand.setText("");
+        if (binding.clCommand.getVisibility() != View.VISIBLE)
+            openCommandView();
+        binding.tvCommand.setText(isCommand ? query : "");
         setCommandMentionListItemAdapter(isCommand);
-
-        openCommandView();
         binding.lvCommand.setOnItemClickListener((AdapterView<?> adapterView, View view, int position, long l) -> {
             if (isCommand)
                 binding.etMessage.setText("/" + ((Command) commands.get(position)).getName() + " ");
@@ -489,44 +586,5 @@ public class MessageInputController {
             commandMentionListItemAdapter.notifyDataSetChanged();
         }
     }
-
-    private void setCommandsMentionUsers(String string) {
-        if (commands == null) commands = new ArrayList<>();
-        commands.clear();
-        if (string.startsWith("/")) {
-            List<Command> commands = channel.getConfig().getCommands();
-            if (commands == null || commands.isEmpty()) return;
-
-            String commandStr = string.replace("/", "");
-            setCommands(commandStr);
-            binding.tvCommand.setText(commandStr);
-        } else {
-            String[] names = string.split("@");
-            if (names.length > 0)
-                setMentionUsers(names[names.length - 1]);
-        }
-    }
-
-    private void setCommands(String string) {
-        if (commands == null) commands = new ArrayList<>();
-        commands.clear();
-        for (int i = 0; i < channel.getConfig().getCommands().size(); i++) {
-            Command command = channel.getConfig().getCommands().get(i);
-            if (command.getName().contains(string)) commands.add(command);
-        }
-    }
-
-    private void setMentionUsers(String string) {
-        if (commands == null) commands = new ArrayList<>();
-        commands.clear();
-
-        List<Member> members = channel.getMembers();
-        for (int i = 0; i < members.size(); i++) {
-            Member member = members.get(i);
-            User user = member.getUser();
-            if (user.getName().toLowerCase().contains(string.toLowerCase()))
-                commands.add(user);
-        }
-    }
     // endregion
 }
@@ -0,0 +1,90 @@
+package com.getstream.sdk.chat.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.getstream.chat.android.client.models.Message;
+
+/**
+ * Describes a single change to a message list, so that {@link MessageListItemLiveData}
+ * can update only the affected list items instead of rebuilding all of them
+ */
+public class MessageListDelta {
+
+    public enum Type {
+        /**
+         * new messages were added at the end of the list
+         */
+        APPEND,
+        /**
+         * a page of older messages was inserted at the top of the list
+         */
+        PREPEND,
+        /**
+         * messages were inserted in the middle of the list, e.g. a message arriving out of order
+         */
+        INSERT,
+        /**
+         * a message was replaced in place
+         */
+        UPDATE,
+        /**
+         * a message was removed from the list
+         */
+        DELETE,
+        /**
+         * the list changed in a way that requires a full rebuild
+         */
+        RESET
+    }
+
+    private final Type type;
+    private final int index;
+    private final List<Message> messages;
+
+    private MessageListDelta(Type type, int index, List<Message> messages) {
+        this.type = type;
+        this.index = index;
+        this.messages = messages;
+    }
+
+    public static MessageListDelta append(int index, Message message) {
+        return new MessageListDelta(Type.APPEND, index, Collections.singletonList(message));
+    }
+
+    public static MessageListDelta prepend(int index, List<Message> messages) {
+        return new MessageListDelta(Type.PREPEND, index, new ArrayList<>(messages));
+    }
+
+    public static MessageListDelta insert(int index, Message message) {
+        return new MessageListDelta(Type.INSERT, index, Collections.singletonList(message));
+    }
+
+    public static MessageListDelta update(int index, Message message) {
+        return new MessageListDelta(Type.UPDATE, index, Collections.singletonList(message));
+    }
+
+    public static MessageListDelta delete(int index) {
+        return new MessageListDelta(Type.DELETE, index, Collections.emptyList());
+    }
+
+    public static MessageListDelta reset(List<Message> messages) {
+        return new MessageListDelta(Type.RESET, 0, messages == null ? Collections.emptyList() : new ArrayList<>(messages));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the position in the message list (before the change) the delta applies to
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+}
@@ -0,0 +1,239 @@
+package com.getstream.sdk.chat.utils;
+
+import com.getstream.sdk.chat.adapter.MessageListItem;
+import com.getstream.sdk.chat.adapter.MessageViewHolderFactory;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_THREAD_SEPARATOR;
+
+/**
+ * Turns a list of messages into message list items (positions, date separators, thread separator).
+ * Keeps the items of the previous build around so that a {@link MessageListDelta} only rebuilds
+ * the changed messages and their direct neighbours.
+ */
+public class MessageListItemBuilder {
+
+    private final User currentUser;
+
+    // messageItems.get(i) and separatorItems.get(i) always belong to messages.get(i)
+    private final List<Message> messages = new ArrayList<>();
+    private final List<MessageListItem> messageItems = new ArrayList<>();
+    private final List<MessageListItem> separatorItems = new ArrayList<>();
+    private MessageListItem threadSeparatorItem;
+    private boolean thread;
+    // every message id of this list gets its own number, so message items never collide
+    private final Map<String, Long> messageStableIds = new HashMap<>();
+
+    private final Calendar calendarA = Calendar.getInstance();
+    private final Calendar calendarB = Calendar.getInstance();
+
+    private int itemsRebuiltLastEvent;
+    private long itemsRebuiltTotal;
+    private long eventCount;
+    private long fullRebuildCount;
+
+    public MessageListItemBuilder(User currentUser) {
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Rebuilds all the items for the given messages
+     *
+     * @param messages the messages ordered by created_at
+     * @param thread   true if the first message is the parent message of a thread
+     */
+    public void rebuild(List<Message> messages, boolean thread) {
+        beginEvent();
+        fullRebuildCount++;
+        this.thread = thread;
+        this.messages.clear();
+        this.messageItems.clear();
+        this.separatorItems.clear();
+        if (messages != null) {
+            this.messages.addAll(messages);
+        }
+        for (int i = 0; i < this.messages.size(); i++) {
+            messageItems.add(null);
+            separatorItems.add(null);
+        }
+        threadSeparatorItem = thread ? new MessageListItem(MESSAGEITEM_THREAD_SEPARATOR) : null;
+        rebuildRange(0, this.messages.size() - 1);
+    }
+
+    /**
+     * Applies a delta to the previously built messages
+     *
+     * @param delta the change to apply
+     * @return false if the delta doesn't fit the built messages, a full rebuild is needed in that case
+     */
+    public boolean apply(MessageListDelta delta) {
+        int index = delta.getIndex();
+        int size = messages.size();
+        switch (delta.getType()) {
+            case APPEND:
+            case PREPEND:
+            case INSERT:
+                if (index < 0 || index > size) return false;
+                beginEvent();
+                List<Message> inserted = delta.getMessages();
+                messages.addAll(index, inserted);
+                for (int i = 0; i < inserted.size(); i++) {
+                    messageItems.add(index, null);
+                    separatorItems.add(index, null);
+                }
+                rebuildRange(index - 1, index + inserted.size());
+                return true;
+            case UPDATE:
+                if (index < 0 || index >= size) return false;
+                beginEvent();
+                messages.set(index, delta.getMessages().get(0));
+                rebuildRange(index - 1, index + 1);
+                return true;
+            case DELETE:
+                if (index < 0 || index >= size) return false;
+                beginEvent();
+                messages.remove(index);
+                messageItems.remove(index);
+                separatorItems.remove(index);
+                rebuildRange(index - 1, index);
+                return true;
+            case RESET:
+                rebuild(delta.getMessages(), thread);
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the flattened list of items, date and thread separators included
+     */
+    public List<MessageListItem> getItems() {
+        List<MessageListItem> items = new ArrayList<>(messages.size() + 8);
+        for (int i = 0; i < messages.size(); i++) {
+            MessageListItem separator = separatorItems.get(i);
+            if (separator != null) {
+                items.add(separator);
+            }
+            items.add(messageItems.get(i));
+            if (thread && i == 0) {
+                items.add(threadSeparatorItem);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @return the messages of the last build, ordered like the items
+     */
+    public List<Message> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    public boolean isThread() {
+        return thread;
+    }
+
+    /**
+     * @return the number of items (messages and date separators) rebuilt for the last event
+     */
+    public int getItemsRebuiltLastEvent() {
+        return itemsRebuiltLastEvent;
+    }
+
+    public long getItemsRebuiltTotal() {
+        return itemsRebuiltTotal;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getFullRebuildCount() {
+        return fullRebuildCount;
+    }
+
+    private void beginEvent() {
+        eventCount++;
+        itemsRebuiltLastEvent = 0;
+    }
+
+    private void rebuildRange(int from, int to) {
+        int start = Math.max(0, from);
+        int end = Math.min(messages.size() - 1, to);
+        for (int i = start; i <= end; i++) {
+            buildItemAt(i);
+        }
+    }
+
+    private void buildItemAt(int i) {
+        int size = messages.size();
+        Message message = messages.get(i);
+        Message previousMessage = null;
+        Message nextMessage = null;
+
+        // in a thread the parent message stands on its own, followed by the thread separator
+        if (i > 0 && !(thread && i == 1)) {
+            previousMessage = messages.get(i - 1);
+        }
+        if (i + 1 < size && !(thread && i == 0)) {
+            nextMessage = messages.get(i + 1);
+        }
+
+        // determine if the message is written by the current user
+        Boolean mine = message.getUser().equals(currentUser);
+        // determine the position (top, middle, bottom)
+        User user = message.getUser();
+        List<MessageViewHolderFactory.Position> positions = new ArrayList<>();
+        if (previousMessage == null || !previousMessage.getUser().equals(user)) {
+            positions.add(MessageViewHolderFactory.Position.TOP);
+        }
+        if (nextMessage == null || !nextMessage.getUser().equals(user)) {
+            positions.add(MessageViewHolderFactory.Position.BOTTOM);
+        }
+        if (previousMessage != null && nextMessage != null) {
+            if (previousMessage.getUser().equals(user) && nextMessage.getUser().equals(user)) {
+                positions.add(MessageViewHolderFactory.Position.MIDDLE);
+            }
+        }
+
+        // date separator
+        MessageListItem separator = null;
+        if (previousMessage != null && !isSameDay(previousMessage, message)) {
+            separator = new MessageListItem(message.getCreatedAt());
+            itemsRebuiltLastEvent++;
+        }
+        separatorItems.set(i, separator);
+        messageItems.set(i, new MessageListItem(message, positions, mine, getMessageStableId(message.getId())));
+        itemsRebuiltLastEvent++;
+        itemsRebuiltTotal += separator == null ? 1 : 2;
+    }
+
+    private long getMessageStableId(String messageId) {
+        Long id = messageStableIds.get(messageId);
+        if (id == null) {
+            id = (long) messageStableIds.size() + 1;
+            messageStableIds.put(messageId, id);
+        }
+        return id;
+    }
+
+    private boolean isSameDay(Message a, Message b) {
+        calendarA.setTime(a.getCreatedAt());
+        calendarB.setTime(b.getCreatedAt());
+        return calendarA.get(Calendar.YEAR) == calendarB.get(Calendar.YEAR)
+                && calendarA.get(Calendar.DAY_OF_YEAR) == calendarB.get(Calendar.DAY_OF_YEAR);
+    }
+}
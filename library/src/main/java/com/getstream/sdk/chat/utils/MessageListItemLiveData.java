@@ -4,13 +4,14 @@ import android.os.Handler;
 import android.os.Looper;
 
 import com.getstream.sdk.chat.adapter.MessageListItem;
-import com.getstream.sdk.chat.adapter.MessageViewHolderFactory;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LifecycleOwner;
@@ -24,7 +25,6 @@ import io.getstream.chat.android.client.models.Message;
 import io.getstream.chat.android.client.models.User;
 
 import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_MESSAGE;
-import static com.getstream.sdk.chat.adapter.MessageViewHolderFactory.MESSAGEITEM_THREAD_SEPARATOR;
 
 
 public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
@@ -37,9 +37,14 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
     private MutableLiveData<Map<String, ChannelUserRead>> reads;
 
     private User currentUser;
+    private MessageListItemBuilder builder;
+    private Queue<MessageListDelta> pendingDeltas;
+    private Queue<MessageListDelta> pendingThreadDeltas;
     private List<MessageListItem> messageEntities;
     private List<MessageListItem> typingEntities;
-    private Map<String, ChannelUserRead> readsByUser;
+    private ReadStateIndex readStateIndex;
+    // the message entities with the read state applied
+    private List<MessageListItem> messageListItems;
     private Boolean isLoadingMore;
     private Boolean hasNewMessages;
     private String lastMessageID;
@@ -55,9 +60,13 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
         this.currentUser = currentUser;
         this.typing = typing;
         this.reads = reads;
+        this.builder = new MessageListItemBuilder(currentUser);
+        this.pendingDeltas = new ConcurrentLinkedQueue<>();
+        this.pendingThreadDeltas = new ConcurrentLinkedQueue<>();
         this.messageEntities = new ArrayList<>();
         this.typingEntities = new ArrayList<>();
-        this.readsByUser = new HashMap<>();
+        this.readStateIndex = new ReadStateIndex(currentUser.getId());
+        this.messageListItems = new ArrayList<>();
         this.isLoadingMore = false;
         // scroll behaviour is only triggered for new messages
         this.lastMessageID = "";
@@ -69,48 +78,8 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
     }
 
     private synchronized void broadcastValue() {
-        List<MessageListItem> merged = new ArrayList<>();
-
-        for (MessageListItem i : messageEntities) {
-            merged.add(i.copy());
-        }
-
-        // TODO no need to do this whole thing for typing changes!
-        // TODO replace with more efficient approach
-        // remove the old read state
-        for (MessageListItem i : merged) {
-            if (i.getMessageReadBy().size() != 0) {
-                i.removeMessageReadBy();
-            }
-        }
-
-        // set the new read state
-        // this wil become slow with many users and many messages
-        for (Map.Entry<String, ChannelUserRead> entry : readsByUser.entrySet()) {
-            // we don't show read state for the current user
-            if (entry.getValue().getUser().getId().equals(currentUser.getId())) {
-                continue;
-            }
-            for (int i = merged.size(); i-- > 0; ) {
-                MessageListItem e = merged.get(i);
-                ChannelUserRead userRead = entry.getValue();
-                // skip things that aren't messages
-                if (e.getType() != MESSAGEITEM_MESSAGE) {
-                    continue;
-                }
-                // skip message owner as reader
-                if (userRead.getUserId().equals(e.getMessage().getUserId())) {
-                    continue;
-                }
-                if (userRead.getLastRead().after(e.getMessage().getCreatedAt())) {
-                    // set the read state on this entity
-                    e.addMessageReadBy(userRead);
-                    // we only show it for the last message, so break
-                    break;
-                }
-            }
-        }
-
+        List<MessageListItem> merged = new ArrayList<>(messageListItems.size() + typingEntities.size());
+        merged.addAll(messageListItems);
         merged.addAll(typingEntities);
 
         MessageListItemWrapper wrapper = new MessageListItemWrapper(isLoadingMore, hasNewMessages, merged);
@@ -128,9 +97,89 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
         });
     }
 
-    private boolean isSameDay(Message a, Message b) {
-        SimpleDateFormat fmt = new SimpleDateFormat("yyyyMMdd");
-        return fmt.format(a.getCreatedAt()).equals(fmt.format(b.getCreatedAt()));
+    /**
+     * Applies the read state to all the message items, used when the messages changed
+     */
+    private void applyReadState() {
+        readStateIndex.setMessages(builder.getMessages());
+        if (!readStateIndex.hasReaders()) {
+            messageListItems = messageEntities;
+            return;
+        }
+        List<MessageListItem> items = new ArrayList<>(messageEntities.size());
+        for (MessageListItem item : messageEntities) {
+            items.add(withReadState(item));
+        }
+        messageListItems = items;
+    }
+
+    /**
+     * Applies the read state to the items of the given messages only, used when the reads changed
+     */
+    private void applyReadState(Set<String> changedMessageIds) {
+        List<MessageListItem> items = new ArrayList<>(messageListItems);
+        int remaining = changedMessageIds.size();
+        // readers are usually on the latest messages
+        for (int i = items.size(); i-- > 0 && remaining > 0; ) {
+            MessageListItem item = messageEntities.get(i);
+            if (item.getType() == MESSAGEITEM_MESSAGE && changedMessageIds.contains(item.getMessage().getId())) {
+                items.set(i, withReadState(item));
+                remaining--;
+            }
+        }
+        messageListItems = items;
+    }
+
+    private MessageListItem withReadState(MessageListItem item) {
+        if (item.getType() != MESSAGEITEM_MESSAGE) {
+            return item;
+        }
+        List<ChannelUserRead> readers = readStateIndex.getReaders(item.getMessage().getId());
+        if (readers.isEmpty()) {
+            return item;
+        }
+        MessageListItem copy = item.copy();
+        for (ChannelUserRead read : readers) {
+            copy.addMessageReadBy(read);
+        }
+        return copy;
+    }
+
+    /**
+     * Queues the change that goes with the next emission of the messages (or thread messages) live data.
+     * Call this before posting the new list, the emission is then handled by only rebuilding the affected items.
+     * An emission without queued deltas falls back to a full rebuild.
+     *
+     * @param delta  the change to the message list
+     * @param thread true if the change is for the thread messages
+     */
+    public void addDelta(MessageListDelta delta, boolean thread) {
+        if (thread) {
+            pendingThreadDeltas.add(delta);
+        } else {
+            pendingDeltas.add(delta);
+        }
+    }
+
+    /**
+     * @return the number of items rebuilt for the last message list change
+     */
+    public int getItemsRebuiltLastEvent() {
+        return builder.getItemsRebuiltLastEvent();
+    }
+
+    /**
+     * @return the number of items rebuilt since this live data was created
+     */
+    public long getItemsRebuiltTotal() {
+        return builder.getItemsRebuiltTotal();
+    }
+
+    /**
+     * @return the number of message list changes that needed a full rebuild
+     */
+    public long getFullRebuildCount() {
+        return builder.getFullRebuildCount();
     }
 
     private boolean isThread() {
@@ -147,17 +196,25 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
             if (reads == null) {
                 reads = new HashMap<>();
             }
-            readsByUser = reads;
+            Set<String> changedMessageIds = readStateIndex.updateReads(reads);
+            if (changedMessageIds.isEmpty()) {
+                return;
+            }
+            applyReadState(changedMessageIds);
             logger.logI("broadcast because reads changed");
             broadcastValue();
         });
 
         messages.observe(owner, messages -> {
-            if (threadMessages.getValue() != null) return;
-            progressMessages(messages);
+            if (threadMessages.getValue() != null) {
+                // the thread is shown, the next channel emission will be a full rebuild
+                pendingDeltas.clear();
+                return;
+            }
+            progressMessages(messages, pendingDeltas);
         });
 
-        threadMessages.observe(owner, this::progressMessages);
+        threadMessages.observe(owner, messages -> progressMessages(messages, pendingThreadDeltas));
 
         this.typing.observe(owner, users -> {
             if (isThread()) return;
@@ -175,7 +232,14 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
     }
 
     public void progressMessages(List<Message> messages) {
-        if (messages == null || messages.size() == 0) return;
+        progressMessages(messages, new ConcurrentLinkedQueue<>());
+    }
+
+    private void progressMessages(List<Message> messages, Queue<MessageListDelta> deltas) {
+        if (messages == null || messages.size() == 0) {
+            deltas.clear();
+            return;
+        }
         // update based on messages
         hasNewMessages = false;
         String newlastMessageID = messages.get(messages.size() - 1).getId();
@@ -183,59 +247,23 @@ public class MessageListItemLiveData extends LiveData<MessageListItemWrapper> {
             hasNewMessages = true;
         }
         lastMessageID = newlastMessageID;
-        List<MessageListItem> entities = new ArrayList<MessageListItem>();
-        // iterate over messages and stick in the date entities
-        Message previousMessage = null;
-        int size = messages.size();
-        int topIndex = Math.max(0, size - 1);
-        for (int i = 0; i < size; i++) {
-            Message message = messages.get(i);
-            Message nextMessage = null;
-            if (i + 1 <= topIndex) {
-                nextMessage = messages.get(i + 1);
-            }
-
-            // Thread
-            if (isThread() && i == 0)
-                nextMessage = null;
-
-            // determine if the message is written by the current user
-            Boolean mine = message.getUser().equals(currentUser);
-            // determine the position (top, middle, bottom)
-            User user = message.getUser();
-            List<MessageViewHolderFactory.Position> positions = new ArrayList<>();
-            if (previousMessage == null || !previousMessage.getUser().equals(user)) {
-                positions.add(MessageViewHolderFactory.Position.TOP);
-            }
 
-            if (nextMessage == null || !nextMessage.getUser().equals(user)) {
-                positions.add(MessageViewHolderFactory.Position.BOTTOM);
-            }
-
-            if (previousMessage != null && nextMessage != null) {
-                if (previousMessage.getUser().equals(user) && nextMessage.getUser().equals(user)) {
-                    positions.add(MessageViewHolderFactory.Position.MIDDLE);
-                }
-            }
-            // date separator
-            if (previousMessage != null && !isSameDay(previousMessage, message))
-                entities.add(new MessageListItem(message.getCreatedAt()));
-
-            MessageListItem messageListItem = new MessageListItem(message, positions, mine);
-            entities.add(messageListItem);
-
-            // Insert Thread Separator
-            if (isThread() && i == 0) {
-                entities.add(new MessageListItem(MESSAGEITEM_THREAD_SEPARATOR));
-                previousMessage = null;
-            } else {
-                // set the previous message for the next iteration
-                previousMessage = message;
+        boolean thread = isThread();
+        // deltas only apply on top of a build of the same list
+        boolean applied = !deltas.isEmpty() && builder.isThread() == thread;
+        MessageListDelta delta;
+        while ((delta = deltas.poll()) != null) {
+            if (applied) {
+                applied = builder.apply(delta);
             }
         }
-        this.messageEntities.clear();
-        this.messageEntities.addAll(entities);
-        logger.logI("broadcast because messages changed");
+        if (!applied || builder.size() != messages.size()) {
+            builder.rebuild(messages, thread);
+        }
+
+        this.messageEntities = builder.getItems();
+        applyReadState();
+        logger.logI("broadcast because messages changed, rebuilt " + builder.getItemsRebuiltLastEvent() + " items");
         broadcastValue();
     }
 
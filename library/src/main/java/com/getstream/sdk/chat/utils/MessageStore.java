@@ -0,0 +1,334 @@
+package com.getstream.sdk.chat.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+import io.getstream.chat.android.client.models.Message;
+
+/**
+ * Messages ordered by created_at and indexed by id.
+ * Looking up a message by id is a hash lookup, finding its position or the position for a new message
+ * is a binary search on created_at.
+ * Every change is reported to the {@link OnChangeListener} together with an immutable snapshot of the messages,
+ * while holding the store's lock, so that changes are reported in the order they were made.
+ * The snapshots are {@link PersistentList}s, taking one is free and consecutive snapshots share
+ * everything but the changed chunk.
+ */
+public class MessageStore {
+
+    public interface OnChangeListener {
+        void onChange(MessageListDelta delta, List<Message> snapshot);
+    }
+
+    private static final Comparator<Message> CREATED_AT_COMPARATOR = (a, b) -> {
+        long timeA = createdAt(a);
+        long timeB = createdAt(b);
+        return timeA < timeB ? -1 : (timeA == timeB ? 0 : 1);
+    };
+
+    private PersistentList<Message> messages = PersistentList.empty();
+    private final Map<String, Message> messagesById = new HashMap<>();
+    private OnChangeListener listener;
+
+    public synchronized void setOnChangeListener(OnChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return an immutable snapshot of the messages
+     */
+    public synchronized PersistentList<Message> snapshot() {
+        return messages;
+    }
+
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    @Nullable
+    public synchronized Message get(String id) {
+        return messagesById.get(id);
+    }
+
+    @Nullable
+    public synchronized Message getAt(int index) {
+        return index >= 0 && index < messages.size() ? messages.get(index) : null;
+    }
+
+    public synchronized boolean contains(String id) {
+        return messagesById.containsKey(id);
+    }
+
+    /**
+     * @return the position of the message with the given id or -1
+     */
+    public synchronized int indexOf(String id) {
+        Message message = messagesById.get(id);
+        if (message == null) {
+            return -1;
+        }
+        long time = createdAt(message);
+        for (int i = lowerBound(time); i < messages.size() && createdAt(messages.get(i)) == time; i++) {
+            if (messages.get(i) == message) {
+                return i;
+            }
+        }
+        // the messages are not ordered the way we expect, fall back to a scan
+        for (int i = 0; i < messages.size(); i++) {
+            if (messages.get(i) == message) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces all the messages
+     */
+    public synchronized void setMessages(@Nullable List<Message> newMessages) {
+        messagesById.clear();
+        List<Message> sorted = new ArrayList<>();
+        if (newMessages != null) {
+            for (Message message : newMessages) {
+                Message previous = messagesById.put(message.getId(), message);
+                if (previous != null) {
+                    sorted.remove(previous);
+                }
+                sorted.add(message);
+            }
+            Collections.sort(sorted, CREATED_AT_COMPARATOR);
+        }
+        messages = PersistentList.of(sorted);
+        notifyChange(MessageListDelta.reset(messages));
+    }
+
+    /**
+     * Reports the current messages again as a reset, e.g. when the list goes back to showing them
+     */
+    public synchronized void republish() {
+        notifyChange(MessageListDelta.reset(messages));
+    }
+
+    /**
+     * Removes all messages without reporting a change
+     */
+    public synchronized void clear() {
+        messages = PersistentList.empty();
+        messagesById.clear();
+    }
+
+    /**
+     * Updates the message with the same id, or inserts it ordered by created_at
+     */
+    public synchronized void upsert(Message message) {
+        if (!update(message)) {
+            insert(message);
+        }
+    }
+
+    /**
+     * Updates the message with the same id in place, created_at can't change
+     *
+     * @return false if there is no message with the same id
+     */
+    public synchronized boolean update(Message message) {
+        int index = indexOf(message.getId());
+        if (index == -1) {
+            return false;
+        }
+        messages = messages.with(index, message);
+        messagesById.put(message.getId(), message);
+        notifyChange(MessageListDelta.update(index, message));
+        return true;
+    }
+
+    /**
+     * Replaces the message with the given id by a message that can have a different id,
+     * e.g. a locally created message by the message the server returned
+     *
+     * @return false if there is no message with the old id
+     */
+    public synchronized boolean replace(String oldId, Message message) {
+        int index = indexOf(oldId);
+        if (index == -1) {
+            return false;
+        }
+        if (!oldId.equals(message.getId()) && messagesById.containsKey(message.getId())) {
+            // the new version already arrived through another route
+            remove(message.getId());
+            index = indexOf(oldId);
+        }
+        messagesById.remove(oldId);
+        messagesById.put(message.getId(), message);
+
+        long time = createdAt(message);
+        boolean ordered = (index == 0 || createdAt(messages.get(index - 1)) <= time)
+                && (index == messages.size() - 1 || time <= createdAt(messages.get(index + 1)));
+        if (ordered) {
+            messages = messages.with(index, message);
+            notifyChange(MessageListDelta.update(index, message));
+        } else {
+            messages = messages.minus(index);
+            notifyChange(MessageListDelta.delete(index));
+            messagesById.remove(message.getId());
+            insert(message);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if there is no message with the given id
+     */
+    public synchronized boolean remove(String id) {
+        int index = indexOf(id);
+        if (index == -1) {
+            return false;
+        }
+        messages = messages.minus(index);
+        messagesById.remove(id);
+        notifyChange(MessageListDelta.delete(index));
+        return true;
+    }
+
+    /**
+     * Removes all the messages of the given type
+     *
+     * @return the number of removed messages
+     */
+    public synchronized int removeType(String type) {
+        int removed = 0;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            Message message = messages.get(i);
+            if (type.equals(message.getType())) {
+                messages = messages.minus(i);
+                messagesById.remove(message.getId());
+                notifyChange(MessageListDelta.delete(i));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Merges a page of messages in a single pass over both lists.
+     * Messages that are already known are updated in place.
+     */
+    public synchronized void merge(List<Message> page) {
+        if (page == null || page.isEmpty()) {
+            return;
+        }
+        boolean updated = false;
+        List<Message> added = new ArrayList<>();
+        for (Message message : page) {
+            int index = indexOf(message.getId());
+            if (index == -1) {
+                // skip duplicates within the page
+                if (!messagesById.containsKey(message.getId())) {
+                    added.add(message);
+                    messagesById.put(message.getId(), message);
+                }
+            } else {
+                messages = messages.with(index, message);
+                messagesById.put(message.getId(), message);
+                updated = true;
+            }
+        }
+        if (added.isEmpty()) {
+            if (updated) {
+                notifyChange(MessageListDelta.reset(messages));
+            }
+            return;
+        }
+        Collections.sort(added, CREATED_AT_COMPARATOR);
+
+        // usually a page of older messages, which all go in the same place and share the rest of the list
+        int firstAdded = lowerBound(createdAt(added.get(0)));
+        boolean contiguous = firstAdded == lowerBound(createdAt(added.get(added.size() - 1)));
+        if (contiguous) {
+            messages = messages.plusAll(firstAdded, added);
+            if (updated) {
+                notifyChange(MessageListDelta.reset(messages));
+            } else {
+                notifyChange(MessageListDelta.prepend(firstAdded, added));
+            }
+            return;
+        }
+
+        List<Message> merged = new ArrayList<>(messages.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < messages.size() || j < added.size()) {
+            boolean takeAdded = i >= messages.size()
+                    || (j < added.size() && createdAt(added.get(j)) < createdAt(messages.get(i)));
+            if (takeAdded) {
+                merged.add(added.get(j++));
+            } else {
+                merged.add(messages.get(i++));
+            }
+        }
+        messages = PersistentList.of(merged);
+        notifyChange(MessageListDelta.reset(messages));
+    }
+
+    private void insert(Message message) {
+        long time = createdAt(message);
+        int index = upperBound(time);
+        messages = messages.plus(index, message);
+        messagesById.put(message.getId(), message);
+        if (index == messages.size() - 1) {
+            notifyChange(MessageListDelta.append(index, message));
+        } else {
+            notifyChange(MessageListDelta.insert(index, message));
+        }
+    }
+
+    // first position with created_at >= time
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = messages.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (createdAt(messages.get(middle)) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // first position with created_at > time
+    private int upperBound(long time) {
+        int low = 0;
+        int high = messages.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (createdAt(messages.get(middle)) <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void notifyChange(MessageListDelta delta) {
+        if (listener != null) {
+            listener.onChange(delta, snapshot());
+        }
+    }
+
+    private static long createdAt(Message message) {
+        // local messages without a date go last
+        return message.getCreatedAt() == null ? Long.MAX_VALUE : message.getCreatedAt().getTime();
+    }
+}
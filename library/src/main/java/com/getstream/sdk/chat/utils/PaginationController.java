@@ -0,0 +1,257 @@
+package com.getstream.sdk.chat.utils;
+
+/**
+ * Loads the pages of a list before the user reaches its end.
+ * A page is requested when the list is scrolled within the prefetch distance of its end, and once it's shown
+ * the following page is fetched and kept until it's needed, so a page is usually shown without waiting for the network.
+ * The faster the list is scrolled, the more items a page has, between the page size and the max page size.
+ * Only one page is fetched at a time.
+ * Only used on the main thread, the pager calls back there too.
+ *
+ * @param <P> the type of a page
+ */
+public class PaginationController<P> {
+
+    public static final int DEFAULT_PREFETCH_DISTANCE = 20;
+    // assumed until a fetch is measured
+    private static final long INITIAL_FETCH_TIME_MILLIS = 500;
+    // a scroll sample older than this doesn't tell the current speed
+    private static final long MAX_SAMPLE_INTERVAL_MILLIS = 1000;
+
+    public interface Pager<P> {
+        /**
+         * Fetches the page after the last fetched one, the first one follows the items of the list
+         *
+         * @param limit the maximum number of items of the page
+         */
+        void fetch(int limit, FetchCallback<P> callback);
+
+        /**
+         * Adds the page to the list
+         */
+        void show(P page);
+
+        /**
+         * @param waiting true when the user reached the end of the list and the next page isn't fetched yet,
+         *                false once it's shown or failed
+         */
+        void onWaitingChanged(boolean waiting);
+    }
+
+    public interface FetchCallback<P> {
+        /**
+         * @param endReached true if there are no pages after this one
+         */
+        void onFetched(P page, boolean endReached);
+
+        void onFailed();
+    }
+
+    public interface Clock {
+        long uptimeMillis();
+    }
+
+    private final Pager<P> pager;
+    private final Clock clock;
+    private int pageSize;
+    private int maxPageSize;
+    private int prefetchDistance;
+
+    // increased by a reset, the fetches of an older generation are ignored
+    private int generation;
+    private boolean fetching;
+    private boolean endReached;
+    private P buffered;
+    private boolean waiting;
+    private long waitStart;
+
+    private long fetchStart;
+    private long fetchTime = INITIAL_FETCH_TIME_MILLIS;
+    // the speed towards the end of the list in items per second
+    private float velocity;
+    private int lastDistance = -1;
+    private long lastSampleTime;
+
+    private int bufferHitCount;
+    private int bufferMissCount;
+    private long lastLatency;
+    private long totalLatency;
+    private int shownCount;
+
+    /**
+     * @param pageSize    the number of items of a page at rest
+     * @param maxPageSize the number of items of a page when the list is scrolled fast
+     */
+    public PaginationController(Pager<P> pager, Clock clock, int pageSize, int maxPageSize, int prefetchDistance) {
+        this.pager = pager;
+        this.clock = clock;
+        this.pageSize = pageSize;
+        this.maxPageSize = Math.max(pageSize, maxPageSize);
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    public void setPageSize(int pageSize, int maxPageSize) {
+        this.pageSize = pageSize;
+        this.maxPageSize = Math.max(pageSize, maxPageSize);
+    }
+
+    public void setPrefetchDistance(int prefetchDistance) {
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * Call when the list scrolls towards its end
+     *
+     * @param distanceToEnd the number of items between the last one shown and the end of the list
+     */
+    public void onScrolled(int distanceToEnd) {
+        long now = clock.uptimeMillis();
+        if (lastDistance >= 0 && now > lastSampleTime) {
+            long interval = now - lastSampleTime;
+            float speed = Math.max(0, lastDistance - distanceToEnd) * 1000f / interval;
+            velocity = interval > MAX_SAMPLE_INTERVAL_MILLIS ? speed : (velocity + speed) / 2;
+        }
+        lastDistance = distanceToEnd;
+        lastSampleTime = now;
+
+        if (distanceToEnd <= prefetchDistance) requestPage();
+    }
+
+    /**
+     * Shows the next page, right away if it's fetched already
+     */
+    public void requestPage() {
+        if (waiting) return;
+        if (buffered != null) {
+            bufferHitCount++;
+            P page = buffered;
+            buffered = null;
+            show(page, 0);
+            prefetchNext();
+            return;
+        }
+        if (endReached) return;
+        bufferMissCount++;
+        waiting = true;
+        waitStart = clock.uptimeMillis();
+        pager.onWaitingChanged(true);
+        if (!fetching) fetch();
+    }
+
+    /**
+     * Forgets the fetched page and the end of the list, call when the items of the list are replaced
+     */
+    public void reset() {
+        generation++;
+        fetching = false;
+        endReached = false;
+        buffered = null;
+        lastDistance = -1;
+        velocity = 0;
+        if (waiting) {
+            waiting = false;
+            pager.onWaitingChanged(false);
+        }
+    }
+
+    /**
+     * Forgets the fetched page and a fetch that isn't waited for, call when the items before them change,
+     * e.g. an event moved an item, so that the next page is fetched after the change.
+     * A fetch the user is waiting for goes on, its page is shown right away.
+     */
+    public void invalidate() {
+        if (waiting) return;
+        generation++;
+        fetching = false;
+        endReached = false;
+        buffered = null;
+    }
+
+    public boolean isEndReached() {
+        return endReached && buffered == null;
+    }
+
+    /**
+     * @return the number of items the next fetch asks for, enough for the items scrolled while two pages are fetched
+     */
+    public int getPageSize() {
+        double needed = Math.ceil(velocity * fetchTime / 1000.0 * 2);
+        return (int) Math.min(maxPageSize, Math.max(pageSize, needed));
+    }
+
+    private void fetch() {
+        fetching = true;
+        fetchStart = clock.uptimeMillis();
+        int fetchGeneration = generation;
+        pager.fetch(getPageSize(), new FetchCallback<P>() {
+            @Override
+            public void onFetched(P page, boolean end) {
+                if (fetchGeneration != generation) return;
+                fetching = false;
+                fetchTime = (fetchTime + clock.uptimeMillis() - fetchStart) / 2;
+                endReached = end;
+                if (waiting) {
+                    waiting = false;
+                    show(page, clock.uptimeMillis() - waitStart);
+                    pager.onWaitingChanged(false);
+                    prefetchNext();
+                } else {
+                    buffered = page;
+                }
+            }
+
+            @Override
+            public void onFailed() {
+                if (fetchGeneration != generation) return;
+                fetching = false;
+                // the next scroll tries again
+                if (waiting) {
+                    waiting = false;
+                    pager.onWaitingChanged(false);
+                }
+            }
+        });
+    }
+
+    private void prefetchNext() {
+        if (!fetching && buffered == null && !endReached) fetch();
+    }
+
+    private void show(P page, long latency) {
+        lastLatency = latency;
+        totalLatency += latency;
+        shownCount++;
+        // the distance grows with the new items, it isn't a scroll
+        lastDistance = -1;
+        pager.show(page);
+    }
+
+    /**
+     * @return the number of pages that were fetched already when they were needed
+     */
+    public int getBufferHitCount() {
+        return bufferHitCount;
+    }
+
+    /**
+     * @return the number of pages the user waited for
+     */
+    public int getBufferMissCount() {
+        return bufferMissCount;
+    }
+
+    /**
+     * @return the time in milliseconds between the user reaching the end of the list and the last page being added to it,
+     * 0 when it was fetched already
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * @return the average of the latencies of the shown pages in milliseconds
+     */
+    public long getAverageLatency() {
+        return shownCount == 0 ? 0 : totalLatency / shownCount;
+    }
+}
@@ -0,0 +1,280 @@
+package com.getstream.sdk.chat.utils;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list split in chunks of at most {@link #MAX_CHUNK_SIZE} elements.
+ * Changing an element, inserting or removing one returns a new list that shares all the untouched chunks
+ * with this one, so a change copies one chunk and the chunk references instead of the whole list.
+ * Snapshots handed to LiveData can be kept and diffed without defensive copies,
+ * and unchanged elements are the same instances in both versions.
+ *
+ * @param <T> the type of the elements
+ */
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int CHUNK_SIZE = 32;
+    static final int MAX_CHUNK_SIZE = CHUNK_SIZE * 2;
+
+    private static final PersistentList<Object> EMPTY = new PersistentList<>(new Object[0][], new int[0], 0);
+
+    private final Object[][] chunks;
+    // index of the first element of each chunk
+    private final int[] offsets;
+    private final int size;
+
+    private PersistentList(Object[][] chunks, int[] offsets, int size) {
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /**
+     * @return the given list if it is already a persistent list, a persistent copy otherwise
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> of(Collection<? extends T> elements) {
+        if (elements instanceof PersistentList) {
+            return (PersistentList<T>) elements;
+        }
+        if (elements == null || elements.isEmpty()) {
+            return empty();
+        }
+        Object[] all = elements.toArray();
+        int chunkCount = (all.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Object[][] chunks = new Object[chunkCount][];
+        for (int i = 0; i < chunkCount; i++) {
+            int start = i * CHUNK_SIZE;
+            Object[] chunk = new Object[Math.min(CHUNK_SIZE, all.length - start)];
+            System.arraycopy(all, start, chunk, 0, chunk.length);
+            chunks[i] = chunk;
+        }
+        return create(chunks);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index, size);
+        int chunk = chunkOf(index);
+        return (T) chunks[chunk][index - offsets[chunk]];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a list with the element at the given position replaced
+     */
+    public PersistentList<T> with(int index, T element) {
+        checkIndex(index, size);
+        int chunk = chunkOf(index);
+        Object[] copy = chunks[chunk].clone();
+        copy[index - offsets[chunk]] = element;
+        Object[][] newChunks = chunks.clone();
+        newChunks[chunk] = copy;
+        // the chunk sizes didn't change, so the offsets can be shared
+        return new PersistentList<>(newChunks, offsets, size);
+    }
+
+    /**
+     * @return a list with the element inserted at the given position
+     */
+    public PersistentList<T> plus(int index, T element) {
+        checkIndex(index, size + 1);
+        if (size == 0) {
+            return create(new Object[][]{new Object[]{element}});
+        }
+        // appending goes to the end of the last chunk
+        int chunk = index == size ? chunks.length - 1 : chunkOf(index);
+        Object[] old = chunks[chunk];
+        int position = index - offsets[chunk];
+        Object[] grown = new Object[old.length + 1];
+        System.arraycopy(old, 0, grown, 0, position);
+        grown[position] = element;
+        System.arraycopy(old, position, grown, position + 1, old.length - position);
+
+        if (grown.length <= MAX_CHUNK_SIZE) {
+            Object[][] newChunks = chunks.clone();
+            newChunks[chunk] = grown;
+            return create(newChunks);
+        }
+        // split the chunk in two halves
+        int half = grown.length / 2;
+        Object[] first = new Object[half];
+        Object[] second = new Object[grown.length - half];
+        System.arraycopy(grown, 0, first, 0, half);
+        System.arraycopy(grown, half, second, 0, second.length);
+        Object[][] newChunks = new Object[chunks.length + 1][];
+        System.arraycopy(chunks, 0, newChunks, 0, chunk);
+        newChunks[chunk] = first;
+        newChunks[chunk + 1] = second;
+        System.arraycopy(chunks, chunk + 1, newChunks, chunk + 2, chunks.length - chunk - 1);
+        return create(newChunks);
+    }
+
+    /**
+     * @return a list with the element appended
+     */
+    public PersistentList<T> plus(T element) {
+        return plus(size, element);
+    }
+
+    /**
+     * @return a list with the elements inserted at the given position, in new chunks when the position is
+     * at a chunk boundary
+     */
+    public PersistentList<T> plusAll(int index, Collection<? extends T> elements) {
+        checkIndex(index, size + 1);
+        if (elements.isEmpty()) {
+            return this;
+        }
+        if (size == 0) {
+            return of(elements);
+        }
+        PersistentList<T> inserted = of(elements);
+        int chunk = index == size ? chunks.length : chunkOf(index);
+        int position = chunk == chunks.length ? 0 : index - offsets[chunk];
+
+        // split the chunk the elements go into, the chunks around it are shared
+        boolean split = position > 0;
+        Object[][] newChunks = new Object[chunks.length + inserted.chunks.length + (split ? 1 : 0)][];
+        System.arraycopy(chunks, 0, newChunks, 0, chunk);
+        int next = chunk;
+        if (split) {
+            Object[] old = chunks[chunk];
+            Object[] head = new Object[position];
+            Object[] tail = new Object[old.length - position];
+            System.arraycopy(old, 0, head, 0, position);
+            System.arraycopy(old, position, tail, 0, tail.length);
+            newChunks[next++] = head;
+            System.arraycopy(inserted.chunks, 0, newChunks, next, inserted.chunks.length);
+            next += inserted.chunks.length;
+            newChunks[next++] = tail;
+            System.arraycopy(chunks, chunk + 1, newChunks, next, chunks.length - chunk - 1);
+        } else {
+            System.arraycopy(inserted.chunks, 0, newChunks, next, inserted.chunks.length);
+            next += inserted.chunks.length;
+            System.arraycopy(chunks, chunk, newChunks, next, chunks.length - chunk);
+        }
+        // the head, the tail and the last inserted chunk can be small, from the last one so the indexes stay valid
+        int last = chunk + inserted.chunks.length - 1;
+        if (split) {
+            newChunks = merge(newChunks, last + 2);
+            newChunks = merge(newChunks, last + 1);
+            newChunks = merge(newChunks, chunk);
+        } else {
+            newChunks = merge(newChunks, last);
+        }
+        return create(newChunks);
+    }
+
+    /**
+     * @return a list without the element at the given position
+     */
+    public PersistentList<T> minus(int index) {
+        checkIndex(index, size);
+        int chunk = chunkOf(index);
+        Object[] old = chunks[chunk];
+        if (old.length == 1) {
+            if (chunks.length == 1) {
+                return empty();
+            }
+            Object[][] newChunks = new Object[chunks.length - 1][];
+            System.arraycopy(chunks, 0, newChunks, 0, chunk);
+            System.arraycopy(chunks, chunk + 1, newChunks, chunk, chunks.length - chunk - 1);
+            return create(newChunks);
+        }
+        int position = index - offsets[chunk];
+        Object[] shrunk = new Object[old.length - 1];
+        System.arraycopy(old, 0, shrunk, 0, position);
+        System.arraycopy(old, position + 1, shrunk, position, old.length - position - 1);
+        Object[][] newChunks = chunks.clone();
+        newChunks[chunk] = shrunk;
+        return create(merge(newChunks, chunk));
+    }
+
+    /**
+     * @return the number of chunks, exposed for tests
+     */
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    private int chunkOf(int index) {
+        // last chunk whose offset is <= index
+        int low = 0;
+        int high = offsets.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Merges the chunk into its smaller neighbour if it has less than half of {@link #MAX_CHUNK_SIZE} elements,
+     * the merged chunk is split in two halves again if it's too big
+     */
+    private static Object[][] merge(Object[][] chunks, int chunk) {
+        if (chunks.length == 1 || chunks[chunk].length >= MAX_CHUNK_SIZE / 2) {
+            return chunks;
+        }
+        int first = chunk;
+        if (chunk == chunks.length - 1
+                || (chunk > 0 && chunks[chunk - 1].length < chunks[chunk + 1].length)) {
+            first = chunk - 1;
+        }
+        Object[] left = chunks[first];
+        Object[] right = chunks[first + 1];
+        Object[] merged = new Object[left.length + right.length];
+        System.arraycopy(left, 0, merged, 0, left.length);
+        System.arraycopy(right, 0, merged, left.length, right.length);
+
+        if (merged.length <= MAX_CHUNK_SIZE) {
+            Object[][] newChunks = new Object[chunks.length - 1][];
+            System.arraycopy(chunks, 0, newChunks, 0, first);
+            newChunks[first] = merged;
+            System.arraycopy(chunks, first + 2, newChunks, first + 1, chunks.length - first - 2);
+            return newChunks;
+        }
+        int half = merged.length / 2;
+        Object[] head = new Object[half];
+        Object[] tail = new Object[merged.length - half];
+        System.arraycopy(merged, 0, head, 0, half);
+        System.arraycopy(merged, half, tail, 0, tail.length);
+        Object[][] newChunks = chunks.clone();
+        newChunks[first] = head;
+        newChunks[first + 1] = tail;
+        return newChunks;
+    }
+
+    private static <T> PersistentList<T> create(Object[][] chunks) {
+        int[] offsets = new int[chunks.length];
+        int size = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i] = size;
+            size += chunks[i].length;
+        }
+        return new PersistentList<>(chunks, offsets, size);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+}
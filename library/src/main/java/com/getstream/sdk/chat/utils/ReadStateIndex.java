@@ -0,0 +1,173 @@
+package com.getstream.sdk.chat.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.getstream.chat.android.client.models.ChannelUserRead;
+import io.getstream.chat.android.client.models.Message;
+
+/**
+ * Keeps track of the message each reader's read state is shown on.
+ * A reader is shown on the last message created before its last read date, skipping the reader's own messages.
+ * The messages are ordered by created_at, so finding that message is a binary search,
+ * and a changed read only touches the message the reader moves from and the one it moves to.
+ */
+public class ReadStateIndex {
+
+    private final String currentUserId;
+    private List<Message> messages;
+    private final Map<String, ChannelUserRead> readsByUser;
+    private final Map<String, Message> messageByReader;
+    private final Map<String, List<ChannelUserRead>> readersByMessageId;
+
+    public ReadStateIndex(String currentUserId) {
+        this.currentUserId = currentUserId;
+        this.messages = Collections.emptyList();
+        this.readsByUser = new HashMap<>();
+        this.messageByReader = new HashMap<>();
+        this.readersByMessageId = new HashMap<>();
+    }
+
+    /**
+     * Sets the messages the read state is shown on and reassigns every reader
+     *
+     * @param messages the messages ordered by created_at, the list is not copied
+     */
+    public void setMessages(List<Message> messages) {
+        this.messages = messages == null ? Collections.emptyList() : messages;
+        messageByReader.clear();
+        readersByMessageId.clear();
+        for (ChannelUserRead read : readsByUser.values()) {
+            assign(read);
+        }
+    }
+
+    /**
+     * Applies the latest reads
+     *
+     * @param reads the reads by user id
+     * @return the ids of the messages whose readers changed
+     */
+    public Set<String> updateReads(Map<String, ChannelUserRead> reads) {
+        Set<String> changed = new HashSet<>();
+
+        Iterator<Map.Entry<String, ChannelUserRead>> iterator = readsByUser.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, ChannelUserRead> entry = iterator.next();
+            if (!reads.containsKey(entry.getKey())) {
+                unassign(entry.getValue(), changed);
+                iterator.remove();
+            }
+        }
+
+        for (Map.Entry<String, ChannelUserRead> entry : reads.entrySet()) {
+            ChannelUserRead read = entry.getValue();
+            ChannelUserRead previous = readsByUser.get(entry.getKey());
+            if (previous != null && sameRead(previous, read)) {
+                continue;
+            }
+            if (previous != null) {
+                unassign(previous, changed);
+            }
+            readsByUser.put(entry.getKey(), read);
+            Message message = assign(read);
+            if (message != null) {
+                changed.add(message.getId());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return the readers to show on the given message, ordered by last read date
+     */
+    public List<ChannelUserRead> getReaders(String messageId) {
+        List<ChannelUserRead> readers = readersByMessageId.get(messageId);
+        return readers == null ? Collections.emptyList() : readers;
+    }
+
+    public boolean hasReaders() {
+        return !readersByMessageId.isEmpty();
+    }
+
+    private Message assign(ChannelUserRead read) {
+        // we don't show read state for the current user
+        if (read.getUser() == null || read.getUser().getId().equals(currentUserId) || read.getLastRead() == null) {
+            return null;
+        }
+        Message message = findMessage(read);
+        if (message == null) {
+            return null;
+        }
+        messageByReader.put(read.getUser().getId(), message);
+        List<ChannelUserRead> readers = readersByMessageId.get(message.getId());
+        if (readers == null) {
+            readers = new ArrayList<>();
+            readersByMessageId.put(message.getId(), readers);
+        }
+        int position = readers.size();
+        while (position > 0 && readers.get(position - 1).getLastRead().after(read.getLastRead())) {
+            position--;
+        }
+        readers.add(position, read);
+        return message;
+    }
+
+    private void unassign(ChannelUserRead read, Set<String> changed) {
+        if (read.getUser() == null) {
+            return;
+        }
+        Message message = messageByReader.remove(read.getUser().getId());
+        if (message == null) {
+            return;
+        }
+        List<ChannelUserRead> readers = readersByMessageId.get(message.getId());
+        if (readers != null) {
+            for (int i = 0; i < readers.size(); i++) {
+                if (readers.get(i).getUser().getId().equals(read.getUser().getId())) {
+                    readers.remove(i);
+                    break;
+                }
+            }
+            if (readers.isEmpty()) {
+                readersByMessageId.remove(message.getId());
+            }
+        }
+        changed.add(message.getId());
+    }
+
+    private Message findMessage(ChannelUserRead read) {
+        long lastRead = read.getLastRead().getTime();
+        // find the last message created before the last read date
+        int low = 0;
+        int high = messages.size() - 1;
+        int index = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (messages.get(middle).getCreatedAt().getTime() < lastRead) {
+                index = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        // skip message owner as reader
+        while (index >= 0 && read.getUser().getId().equals(messages.get(index).getUser().getId())) {
+            index--;
+        }
+        return index >= 0 ? messages.get(index) : null;
+    }
+
+    private static boolean sameRead(ChannelUserRead a, ChannelUserRead b) {
+        if (a.getLastRead() == null || b.getLastRead() == null) {
+            return a.getLastRead() == b.getLastRead();
+        }
+        return a.getLastRead().getTime() == b.getLastRead().getTime();
+    }
+}
@@ -0,0 +1,141 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.getstream.sdk.chat.Chat;
+import com.getstream.sdk.chat.R;
+import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.view.MessageListViewStyle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+import io.getstream.chat.android.client.models.Attachment;
+
+/**
+ * Loads the images of attachments at the size of the bubbles of the message list.
+ * Thumbnails are decoded at that size in RGB_565 when the image has no transparency,
+ * and only the resized thumbnails are kept in the disk cache, not the originals the full screen viewer caches.
+ */
+public class ThumbnailLoader {
+
+    private static final AtomicLong decodedCount = new AtomicLong();
+    private static final AtomicLong decodedBytes = new AtomicLong();
+
+    private static final RequestListener<Drawable> DECODE_COUNTER = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target, DataSource dataSource, boolean isFirstResource) {
+            // memory cache hits reuse a bitmap that was already counted
+            if (dataSource != DataSource.MEMORY_CACHE && resource instanceof BitmapDrawable) {
+                decodedCount.incrementAndGet();
+                decodedBytes.addAndGet(((BitmapDrawable) resource).getBitmap().getAllocationByteCount());
+            }
+            return false;
+        }
+    };
+
+    private ThumbnailLoader() {
+    }
+
+    /**
+     * @return the url of the image that shows the attachment in the message list, null if it has none
+     */
+    @Nullable
+    public static String getThumbnailUrl(Attachment attachment) {
+        String type = attachment.getType();
+        String url = null;
+        if (ModelType.attach_video.equals(type) || ModelType.attach_giphy.equals(type))
+            url = attachment.getThumbUrl();
+        else if (ModelType.attach_image.equals(type))
+            url = attachment.getImageUrl();
+        if (TextUtils.isEmpty(url)) url = attachment.getImageUrl();
+        if (TextUtils.isEmpty(url)) url = attachment.getThumbUrl();
+        if (TextUtils.isEmpty(url)) url = attachment.getAssetUrl();
+        return TextUtils.isEmpty(url) ? null : url;
+    }
+
+    /**
+     * @return the width in pixels of the attachments of a message, the width of the list without the margins
+     * and avatars around the bubbles
+     */
+    public static int getThumbnailWidth(Context context, MessageListViewStyle style) {
+        int screenWidth = context.getResources().getDisplayMetrics().widthPixels;
+        int margins = Utils.dpToPx(10 + 5) + Utils.dpToPx(15 + 5) + 2 * style.getAvatarWidth();
+        return Math.max(1, screenWidth - margins);
+    }
+
+    /**
+     * @return the height in pixels of the image of a media attachment
+     */
+    public static int getThumbnailHeight(Context context) {
+        return context.getResources().getDimensionPixelSize(R.dimen.stream_attach_image_height);
+    }
+
+    /**
+     * Loads the image at the url into the thumbnail of an attachment
+     *
+     * @param placeholder shown while the image loads, 0 for none
+     */
+    public static void load(Context context,
+                            String url,
+                            ImageView imageView,
+                            MessageListViewStyle style,
+                            @DrawableRes int placeholder) {
+        request(Glide.with(context), context, url, style)
+                .placeholder(placeholder)
+                .listener(DECODE_COUNTER)
+                .into(imageView);
+    }
+
+    /**
+     * @return the request of the thumbnail at the url, a preload of it fills the caches the thumbnail is loaded from
+     */
+    public static RequestBuilder<Drawable> request(RequestManager glide,
+                                                   Context context,
+                                                   String url,
+                                                   MessageListViewStyle style) {
+        int width = getThumbnailWidth(context, style);
+        int height = getThumbnailHeight(context);
+        return glide
+                .load(Chat.getInstance().urlSigner().signThumbnailUrl(url, width, height))
+                .override(width, height)
+                // the thumbnail views crop their images, it's also what they would ask for
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE);
+    }
+
+    /**
+     * @return the number of thumbnails decoded since the start, memory cache hits aside
+     */
+    public static long getDecodedCount() {
+        return decodedCount.get();
+    }
+
+    /**
+     * @return the bytes of the bitmaps of the decoded thumbnails, divided by the decoded count and multiplied by
+     * the thumbnails a screen shows it's the memory the thumbnails of a screen take
+     */
+    public static long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+}
@@ -1,36 +1,93 @@
 package com.getstream.sdk.chat.utils;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.os.Handler;
+import android.os.Looper;
+
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.model.AttachmentMetaData;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.Nullable;
 import io.getstream.chat.android.client.errors.ChatError;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
 import io.getstream.chat.android.client.models.Attachment;
 import io.getstream.chat.android.client.models.Channel;
 import io.getstream.chat.android.client.models.ModelType;
 import io.getstream.chat.android.client.utils.ProgressCallback;
 
+/**
+ * Uploads the files of the attachments of a channel through the {@link UploadScheduler},
+ * on the main thread and a few at a time depending on the network.
+ */
 public class UploadManager {
 
+    private static final TaggedLogger logger = ChatLogger.Companion.get(UploadManager.class.getSimpleName());
+
+    public static final int MAX_CONCURRENT_UPLOADS_UNMETERED = 3;
+    public static final int MAX_CONCURRENT_UPLOADS_METERED = 1;
+
+    private static final Executor HASH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stream-upload-hash");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Channel channel;
-    private List<AttachmentMetaData> queue = new ArrayList<>();
+    private UploadScheduler scheduler;
 
     public UploadManager(Channel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * @param context used to run fewer uploads at once on metered networks, null for the unmetered limit
+     */
+    public UploadManager(Channel channel, @Nullable Context context) {
         this.channel = channel;
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        ConnectivityManager connectivityManager = context == null ? null
+                : (ConnectivityManager) context.getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.scheduler = new UploadScheduler(
+                this::sendFile,
+                UploadManager::hashFile,
+                HASH_EXECUTOR,
+                new UploadScheduler.Dispatcher() {
+                    @Override
+                    public void post(Runnable runnable) {
+                        mainHandler.post(runnable);
+                    }
+
+                    @Override
+                    public void postDelayed(Runnable runnable, long delayMillis) {
+                        mainHandler.postDelayed(runnable, delayMillis);
+                    }
+                },
+                () -> connectivityManager != null && connectivityManager.isActiveNetworkMetered()
+                        ? MAX_CONCURRENT_UPLOADS_METERED : MAX_CONCURRENT_UPLOADS_UNMETERED);
     }
 
+    /**
+     * Uploads the file of the attachment and sets the attachment once it's uploaded, call on the main thread
+     */
     public void uploadFile(AttachmentMetaData data, ProgressCallback fileListener) {
+        boolean image = ModelType.attach_image.equals(data.type)
+                || (data.mimeType != null && data.mimeType.contains("image"));
 
-        queue.add(data);
-
-        String type = channel.getType();
-        String id = channel.getId();
-
-        ProgressCallback progressCallback = new ProgressCallback() {
+        scheduler.enqueue(data, image, new ProgressCallback() {
             @Override
             public void onSuccess(@NotNull String path) {
 
@@ -51,13 +108,11 @@ public class UploadManager {
 
                 data.attachment = attachment;
 
-                queue.remove(data);
                 fileListener.onSuccess(path);
             }
 
             @Override
             public void onError(@NotNull ChatError error) {
-                queue.remove(data);
                 fileListener.onError(error);
             }
 
@@ -65,29 +120,58 @@ public class UploadManager {
             public void onProgress(long progress) {
                 fileListener.onProgress(progress);
             }
-        };
+        });
+    }
 
-        if (data.mimeType.contains("image")) {
-            Chat.getInstance().getClient().sendImage(type, id, data.file, progressCallback);
+    private void sendFile(File file, boolean image, ProgressCallback callback) {
+        String type = channel.getType();
+        String id = channel.getId();
+        if (image) {
+            Chat.getInstance().getClient().sendImage(type, id, file, callback);
         } else {
-            Chat.getInstance().getClient().sendFile(type, id, data.file, progressCallback);
+            Chat.getInstance().getClient().sendFile(type, id, file, callback);
         }
+    }
 
+    /**
+     * @return the SHA-1 of the content of the file, or its path if it can't be read
+     */
+    static String hashFile(File file) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.logE("Failed to hash " + file.getPath() + ": " + e.toString());
+            // the upload fails too, it reports the error
+            return file.getPath();
+        }
+    }
 
+    /**
+     * Shows the progress of all the uploads
+     */
+    public void setProgressListener(UploadScheduler.ProgressListener progressListener) {
+        scheduler.setProgressListener(progressListener);
     }
 
     public void removeFromQueue(AttachmentMetaData file) {
-        queue.remove(file);
+        scheduler.cancel(file);
     }
 
     public boolean isUploadingFile() {
-        return !queue.isEmpty();
+        return scheduler.isUploading();
     }
 
-    //
     public void resetQueue() {
-        this.queue.clear();
+        scheduler.cancelAll();
     }
-//
-
 }
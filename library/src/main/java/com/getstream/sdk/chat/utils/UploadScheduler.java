@@ -0,0 +1,314 @@
+package com.getstream.sdk.chat.utils;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import io.getstream.chat.android.client.errors.ChatError;
+import io.getstream.chat.android.client.utils.ProgressCallback;
+
+/**
+ * Uploads the files of attachments, a few at a time.
+ * Uploads start in the order they were queued, as many at once as the {@link ConcurrencyPolicy} allows.
+ * A failed upload is retried after a delay that doubles every time, it fails after {@link #MAX_RETRIES} retries.
+ * Files are identified by a hash of their content, a file that is queued twice or that was already uploaded
+ * is uploaded once and all its attachments get the same url.
+ * Only used on the thread of the {@link Dispatcher}, the callbacks are called there too.
+ */
+public class UploadScheduler {
+
+    public static final int MAX_RETRIES = 3;
+    public static final long RETRY_DELAY_MILLIS = 1000;
+
+    public interface Uploader {
+        /**
+         * Uploads the file, the callback can be called on any thread
+         */
+        void upload(File file, boolean image, ProgressCallback callback);
+    }
+
+    public interface Hasher {
+        /**
+         * @return a hash of the content of the file, called on the hash executor
+         */
+        String hash(File file);
+    }
+
+    public interface Dispatcher {
+        void post(Runnable runnable);
+
+        void postDelayed(Runnable runnable, long delayMillis);
+    }
+
+    public interface ConcurrencyPolicy {
+        /**
+         * @return how many uploads can run at once, asked whenever an upload could start
+         */
+        int getMaxConcurrentUploads();
+    }
+
+    public interface ProgressListener {
+        /**
+         * @param percent   the progress of all the queued uploads, weighted by the size of the files
+         * @param remaining the number of attachments that aren't uploaded yet
+         */
+        void onProgress(int percent, int remaining);
+    }
+
+    private static class Job {
+        final AttachmentMetaData data;
+        final boolean image;
+        final ProgressCallback listener;
+        Upload upload;
+        boolean cancelled;
+
+        Job(AttachmentMetaData data, boolean image, ProgressCallback listener) {
+            this.data = data;
+            this.image = image;
+            this.listener = listener;
+        }
+    }
+
+    // the upload of a file content, shared by the jobs of the same content
+    private static class Upload {
+        final String key;
+        final File file;
+        final boolean image;
+        final long size;
+        final List<Job> jobs = new ArrayList<>();
+        int retries;
+        // in percent
+        long progress;
+        boolean cancelled;
+
+        Upload(String key, File file, boolean image, long size) {
+            this.key = key;
+            this.file = file;
+            this.image = image;
+            this.size = size;
+        }
+    }
+
+    private final Uploader uploader;
+    private final Hasher hasher;
+    private final Executor hashExecutor;
+    private final Dispatcher dispatcher;
+    private final ConcurrencyPolicy concurrencyPolicy;
+    private ProgressListener progressListener;
+
+    private final Map<AttachmentMetaData, Job> jobs = new LinkedHashMap<>();
+    private final Deque<Upload> pending = new ArrayDeque<>();
+    private final List<Upload> running = new ArrayList<>();
+    // the uploads that are waiting or running by kind and hash
+    private final Map<String, Upload> uploads = new HashMap<>();
+    // the urls of the uploaded files by kind and hash
+    private final Map<String, String> uploaded = new HashMap<>();
+
+    public UploadScheduler(Uploader uploader,
+                           Hasher hasher,
+                           Executor hashExecutor,
+                           Dispatcher dispatcher,
+                           ConcurrencyPolicy concurrencyPolicy) {
+        this.uploader = uploader;
+        this.hasher = hasher;
+        this.hashExecutor = hashExecutor;
+        this.dispatcher = dispatcher;
+        this.concurrencyPolicy = concurrencyPolicy;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Queues the upload of the file of the attachment, the listener gets the url of the file
+     */
+    public void enqueue(AttachmentMetaData data, boolean image, ProgressCallback listener) {
+        if (jobs.containsKey(data)) return;
+        Job job = new Job(data, image, listener);
+        jobs.put(data, job);
+        File file = data.file;
+        hashExecutor.execute(() -> {
+            String hash = hasher.hash(file);
+            long size = file.length();
+            dispatcher.post(() -> onHashed(job, hash, size));
+        });
+        reportProgress();
+    }
+
+    /**
+     * Cancels the upload of the attachment, the upload of its file goes on if another attachment has the same file
+     */
+    public void cancel(AttachmentMetaData data) {
+        Job job = jobs.remove(data);
+        if (job == null) return;
+        job.cancelled = true;
+        Upload upload = job.upload;
+        if (upload != null) {
+            upload.jobs.remove(job);
+            if (upload.jobs.isEmpty()) {
+                upload.cancelled = true;
+                if (pending.remove(upload)) {
+                    uploads.remove(upload.key);
+                }
+                // a running request can't be stopped, it keeps its slot until it's done and is only forgotten then,
+                // the same content queued in the meantime takes it over
+            }
+        }
+        reportProgress();
+    }
+
+    public void cancelAll() {
+        for (AttachmentMetaData data : new ArrayList<>(jobs.keySet())) {
+            cancel(data);
+        }
+    }
+
+    /**
+     * @return true if an attachment isn't uploaded yet
+     */
+    public boolean isUploading() {
+        return !jobs.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    private void onHashed(Job job, String hash, long size) {
+        if (job.cancelled) return;
+        // images and files are uploaded to different places
+        String key = (job.image ? "image:" : "file:") + hash;
+        String url = uploaded.get(key);
+        if (url != null) {
+            complete(job, url);
+            reportProgress();
+            return;
+        }
+        Upload upload = uploads.get(key);
+        if (upload == null) {
+            upload = new Upload(key, job.data.file, job.image, size);
+            uploads.put(key, upload);
+            pending.add(upload);
+        }
+        upload.cancelled = false;
+        upload.jobs.add(job);
+        job.upload = upload;
+        schedule();
+    }
+
+    private void schedule() {
+        int max = Math.max(1, concurrencyPolicy.getMaxConcurrentUploads());
+        while (running.size() < max && !pending.isEmpty()) {
+            start(pending.poll());
+        }
+    }
+
+    private void start(Upload upload) {
+        running.add(upload);
+        uploader.upload(upload.file, upload.image, new ProgressCallback() {
+            @Override
+            public void onSuccess(@NotNull String url) {
+                dispatcher.post(() -> onUploaded(upload, url));
+            }
+
+            @Override
+            public void onError(@NotNull ChatError error) {
+                dispatcher.post(() -> onFailed(upload, error));
+            }
+
+            @Override
+            public void onProgress(long progress) {
+                dispatcher.post(() -> onUploadProgress(upload, progress));
+            }
+        });
+    }
+
+    private void onUploaded(Upload upload, String url) {
+        running.remove(upload);
+        uploads.remove(upload.key);
+        if (upload.cancelled) {
+            schedule();
+            return;
+        }
+        uploaded.put(upload.key, url);
+        for (Job job : new ArrayList<>(upload.jobs)) {
+            complete(job, url);
+        }
+        schedule();
+        reportProgress();
+    }
+
+    private void onFailed(Upload upload, ChatError error) {
+        running.remove(upload);
+        if (upload.cancelled) {
+            uploads.remove(upload.key);
+            schedule();
+            return;
+        }
+        if (upload.retries < MAX_RETRIES) {
+            long delay = RETRY_DELAY_MILLIS << upload.retries;
+            upload.retries++;
+            upload.progress = 0;
+            dispatcher.postDelayed(() -> {
+                if (upload.cancelled) {
+                    uploads.remove(upload.key);
+                    return;
+                }
+                // it was queued before the uploads that are waiting
+                pending.addFirst(upload);
+                schedule();
+            }, delay);
+        } else {
+            uploads.remove(upload.key);
+            for (Job job : new ArrayList<>(upload.jobs)) {
+                jobs.remove(job.data);
+                job.listener.onError(error);
+            }
+        }
+        schedule();
+        reportProgress();
+    }
+
+    private void onUploadProgress(Upload upload, long progress) {
+        if (upload.cancelled) return;
+        upload.progress = progress;
+        for (Job job : new ArrayList<>(upload.jobs)) {
+            job.data.progress = (int) progress;
+            job.listener.onProgress(progress);
+        }
+        reportProgress();
+    }
+
+    private void complete(Job job, String url) {
+        jobs.remove(job.data);
+        job.listener.onSuccess(url);
+    }
+
+    private void reportProgress() {
+        if (progressListener == null) return;
+        long total = 0;
+        long done = 0;
+        for (Job job : jobs.values()) {
+            if (job.upload == null) continue;
+            total += job.upload.size;
+            done += job.upload.size * job.upload.progress / 100;
+        }
+        int percent = total == 0 ? (jobs.isEmpty() ? 100 : 0) : (int) (done * 100 / total);
+        progressListener.onProgress(percent, jobs.size());
+    }
+}
@@ -44,6 +44,7 @@ public class Utils {
 
     public static final Locale locale = new Locale("en", "US", "POSIX");
     public static final DateFormat messageDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", locale);
+    @Deprecated
     public static List<AttachmentMetaData> attachments = new ArrayList<>();
     private static final TaggedLogger logger = ChatLogger.Companion.get(Utils.class.getSimpleName());
 
@@ -139,6 +140,10 @@ public class Utils {
         return (int) (px / Resources.getSystem().getDisplayMetrics().density);
     }
 
+    /**
+     * @deprecated walks the whole directory at once, use {@link FileIndexer} to find the files in the background
+     */
+    @Deprecated
     public static List<AttachmentMetaData> getFileAttachments(File dir) {
         String pdfPattern = ".pdf";
         String pptPattern = ".ppt";
@@ -193,6 +198,10 @@ public class Utils {
         return attachments;
     }
 
+    /**
+     * @deprecated reads the whole gallery at once, use {@link MediaGalleryLoader} to load it page by page
+     */
+    @Deprecated
     public static List<AttachmentMetaData> getMediaAttachments(Context context) {
         String[] columns = {MediaStore.Files.FileColumns._ID,
                 MediaStore.Files.FileColumns.DATA,
@@ -64,6 +64,8 @@ public class CircularImageView
     private float mShadowRadius;
     private int mLongStrokeHeight;
     private Path mPath = new Path();
+    // the rendered placeholder, shared through the PlaceholderCache, null when any of its inputs changed
+    private Bitmap mPlaceholderBitmap;
 
     // Configurations
     private int mBorderWidth;
@@ -166,6 +168,7 @@ public class CircularImageView
                                    boolean invalidate) {
         mBorderWidth = rawSize;
         mBorderColor = color;
+        mPlaceholderBitmap = null;
 
         if (null == mBorderPaint) {
             mBorderPaint = new Paint();
@@ -196,6 +199,7 @@ public class CircularImageView
                                    boolean invalidate) {
         mShadowRadius = radius;
         mShadowColor = color;
+        mPlaceholderBitmap = null;
 
         // Reset previous shadow layer
         mBorderPaint.clearShadowLayer();
@@ -243,6 +247,7 @@ public class CircularImageView
         mText = formatPlaceholderText(text);
         mTextColor = color;
         mTextSize = textSize;
+        mPlaceholderBitmap = null;
 
         if ((null == mTextPaint) &&
                 (textSize > 0) &&
@@ -283,6 +288,7 @@ public class CircularImageView
         mText = formatPlaceholderText(text);
         mTextColor = color;
         mTextSize = textSize;
+        mPlaceholderBitmap = null;
 
         if ((null == mTextPaint) &&
                 (textSize > 0) &&
@@ -311,6 +317,7 @@ public class CircularImageView
         mWidth = w;
         mHeight = h;
         mRadius = Math.min(w, h) / 2;
+        mPlaceholderBitmap = null;
 
         // Check stroke
         mLongStrokeHeight = mRadius;
@@ -353,6 +360,7 @@ public class CircularImageView
             if (null != mCheckMarkPaint) mCheckMarkPaint.setAlpha(alpha);
             if (null != mCheckedBackgroundPaint) mCheckedBackgroundPaint.setAlpha(alpha);
             if (null != mTextPaint) mTextPaint.setAlpha(alpha);
+            mPlaceholderBitmap = null;
             invalidate();
         }
     }
@@ -458,6 +466,7 @@ public class CircularImageView
         // Set the placeholder background color
         if (backgroundColor != mBackgroundColor) {
             mBackgroundColor = backgroundColor;
+            mPlaceholderBitmap = null;
             if (null != mBackgroundPaint) {
                 mBackgroundPaint.setColor(backgroundColor);
                 invalidate = true;
@@ -616,6 +625,9 @@ public class CircularImageView
             if (null != getDrawable()) {
                 // Draws the bitmap if available
                 canvas.drawCircle(x, y, mRadius - offset, mBitmapPaint);
+            } else if (null != getPlaceholderBitmap(mRadius - offset)) {
+                // Rendered placeholder
+                canvas.drawBitmap(mPlaceholderBitmap, 0, 0, null);
             } else {
                 // Placeholder background
                 canvas.drawCircle(x, y, mRadius - offset, mBackgroundPaint);
@@ -628,6 +640,23 @@ public class CircularImageView
         }
     }
 
+    /**
+     * Returns the placeholder rendered by the {@link PlaceholderCache}, looked up again after a change.
+     *
+     * @param radius
+     * @return null if there is no text to render or the placeholder is too large to be cached
+     */
+    private Bitmap getPlaceholderBitmap(int radius) {
+        if ((null == mTextPaint) || TextUtils.isEmpty(mText) || (mWidth <= 0) || (mHeight <= 0)) {
+            return null;
+        }
+        if (null == mPlaceholderBitmap) {
+            mPlaceholderBitmap = PlaceholderCache.getInstance(getContext())
+                    .get(mText, mWidth, mHeight, radius, mBackgroundPaint, mTextPaint);
+        }
+        return mPlaceholderBitmap;
+    }
+
     /**
      * Draws the checked state.
      *
@@ -0,0 +1,101 @@
+package com.getstream.sdk.chat.utils.roundedImageView;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.LruCache;
+
+/**
+ * Rendered placeholders of {@link CircularImageView}, the background circle with the initials.
+ * The placeholders are shared by all the avatars, so the initials of a user in a given style are laid out
+ * and rasterized once, no matter how many rows show them.
+ * The cache is limited to 1/32 of the app's memory class. Used on the main thread.
+ */
+public class PlaceholderCache {
+
+    private static final int MEMORY_CLASS_FRACTION = 32;
+
+    private static PlaceholderCache instance;
+
+    private final LruCache<String, Bitmap> cache;
+    private final StringBuilder keyBuilder = new StringBuilder();
+    private int hitCount;
+    private int missCount;
+
+    public static PlaceholderCache getInstance(Context context) {
+        if (instance == null) {
+            ActivityManager activityManager = (ActivityManager) context.getApplicationContext()
+                    .getSystemService(Context.ACTIVITY_SERVICE);
+            int memoryClass = activityManager == null ? 32 : activityManager.getMemoryClass();
+            instance = new PlaceholderCache(memoryClass * 1024 * 1024 / MEMORY_CLASS_FRACTION);
+        }
+        return instance;
+    }
+
+    PlaceholderCache(int maxBytes) {
+        cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * @param radius the radius of the circle, centered in the bitmap
+     * @return the placeholder of the given size, null if it is too large to be cached
+     */
+    public Bitmap get(String text, int width, int height, int radius, Paint backgroundPaint, Paint textPaint) {
+        Typeface typeface = textPaint.getTypeface();
+        keyBuilder.setLength(0);
+        keyBuilder.append(text)
+                .append('|').append(width).append('x').append(height).append('|').append(radius)
+                .append('|').append(backgroundPaint.getColor())
+                .append('|').append(textPaint.getColor())
+                .append('|').append(textPaint.getTextSize())
+                .append('|').append(typeface == null ? 0 : typeface.hashCode());
+        String key = keyBuilder.toString();
+
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null) {
+            hitCount++;
+            return bitmap;
+        }
+        missCount++;
+        // a single placeholder shouldn't take a large part of the cache
+        if ((long) width * height * 4 > cache.maxSize() / 8) {
+            return null;
+        }
+        bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        int x = width / 2;
+        int y = height / 2;
+        canvas.drawCircle(x, y, radius, backgroundPaint);
+        int ty = (int) ((height - (textPaint.ascent() + textPaint.descent())) * 0.5f);
+        canvas.drawText(text, x, ty, textPaint);
+        cache.put(key, bitmap);
+        return bitmap;
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the size of the cached placeholders in bytes
+     */
+    public int getSize() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+}
@@ -15,7 +15,10 @@ public class AttachmentListView extends RecyclerView {
     final String TAG = AttachmentListView.class.getSimpleName();
 
     private MessageViewHolderFactory viewHolderFactory;
-    private RecyclerView.LayoutManager mLayoutManager = new LinearLayoutManager(getContext(), LinearLayoutManager.VERTICAL, false);
+    // most messages have a few attachments, they are created ahead while the message list is idle
+    private static final int INITIAL_PREFETCH_ITEM_COUNT = 4;
+
+    private LinearLayoutManager mLayoutManager = new LinearLayoutManager(getContext(), LinearLayoutManager.VERTICAL, false);
     private MessageListViewStyle style;
     private Context context;
     private MessageListView.BubbleHelper bubbleHelper;
@@ -27,21 +30,28 @@ public class AttachmentListView extends RecyclerView {
 
     public AttachmentListView(Context context) {
         super(context);
-        this.context = context;
-        setHasFixedSize(true);
+        init(context);
     }
 
     public AttachmentListView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
-        this.context = context;
-        setHasFixedSize(true);
+        init(context);
     }
 
     public AttachmentListView(Context context, @Nullable AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
-        this.setLayoutManager(mLayoutManager);
+        init(context);
+    }
+
+    private void init(Context context) {
         this.context = context;
         setHasFixedSize(true);
+        // the message list animates the changes of the messages
+        setItemAnimator(null);
+        mLayoutManager.setInitialPrefetchItemCount(INITIAL_PREFETCH_ITEM_COUNT);
+        // the views of the attachments go back to the pool when the message is recycled
+        mLayoutManager.setRecycleChildrenOnDetach(true);
+        setLayoutManager(mLayoutManager);
     }
 
     public void setStyle(MessageListViewStyle style) {
@@ -49,11 +59,24 @@ public class AttachmentListView extends RecyclerView {
     }
 
     public void setViewHolderFactory(MessageViewHolderFactory viewHolderFactory) {
+        if (this.viewHolderFactory != viewHolderFactory && adapter != null) {
+            // the views of the old factory can't be reused
+            adapter = null;
+            setAdapter(null);
+            getRecycledViewPool().clear();
+        }
         this.viewHolderFactory = viewHolderFactory;
     }
 
+    /**
+     * Shows the attachments of the message, the adapter is created once and reused by the following messages
+     */
     public void setEntity(MessageListItem messageListItem) {
-        this.setLayoutManager(mLayoutManager);
+        if (adapter != null) {
+            adapter.setStyle(style);
+            adapter.setEntity(messageListItem);
+            return;
+        }
         this.adapter = new AttachmentListItemAdapter(context, messageListItem, viewHolderFactory);
         this.adapter.setStyle(style);
 
@@ -84,6 +107,9 @@ public class AttachmentListView extends RecyclerView {
 
     public void setGiphySendListener(MessageListView.GiphySendListener giphySendListener) {
         this.giphySendListener = giphySendListener;
+        if (this.adapter != null) {
+            this.adapter.setGiphySendListener(giphySendListener);
+        }
     }
 
     public void setBubbleHelper(MessageListView.BubbleHelper bubbleHelper) {
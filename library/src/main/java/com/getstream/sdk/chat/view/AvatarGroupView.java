@@ -32,6 +32,23 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
     User user;
     float factor = 1.7f;
 
+    static final int MAX_AVATARS = 3;
+    private static final int[] SLOT_RULES = {
+            RelativeLayout.ALIGN_PARENT_START,
+            RelativeLayout.ALIGN_PARENT_END,
+            RelativeLayout.ALIGN_PARENT_TOP,
+            RelativeLayout.ALIGN_PARENT_BOTTOM,
+            RelativeLayout.CENTER_HORIZONTAL
+    };
+
+    // the avatar views are created once and reused by every bind
+    private final CircularImageView[] slots = new CircularImageView[MAX_AVATARS];
+    // the image each slot shows or loads, to skip requesting it again
+    private final String[] slotImages = new String[MAX_AVATARS];
+    private int slotLayoutCount;
+    private int slotWidth;
+    private int slotHeight;
+
     public AvatarGroupView(Context context) {
         super(context);
         this.context = context;
@@ -71,14 +88,12 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
     private void configUIs() {
 
         ConstraintLayout.LayoutParams params = (ConstraintLayout.LayoutParams) this.getLayoutParams();
-        if (params != null) {
+        if (params != null && (params.width != style.getAvatarWidth() || params.height != style.getAvatarHeight())) {
             params.width = style.getAvatarWidth();
             params.height = style.getAvatarHeight();
             this.setLayoutParams(params);
         }
 
-        removeAllViews();
-
         if (user != null) {
             configSingleAvatar(user.getImage(), LlcMigrationUtils.getInitials(user));
         } else if (channel != null && !TextUtils.isEmpty(LlcMigrationUtils.getImage(channel))) {
@@ -91,51 +106,20 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
 
     private void configUserAvatars() {
 
-        if (lastActiveUsers != null && !lastActiveUsers.isEmpty()) {
-            for (int i = 0; i < Math.min(lastActiveUsers.size(), 3); i++) {
+        if (lastActiveUsers != null && lastActiveUsers.size() > 1) {
+            int count = Math.min(lastActiveUsers.size(), MAX_AVATARS);
+            layoutSlots(count);
+            for (int i = 0; i < count; i++) {
                 User user_ = lastActiveUsers.get(i);
-                if (lastActiveUsers.size() == 1) {
-                    configSingleAvatar(user_.getImage(), LlcMigrationUtils.getInitials(user_));
-                } else {
-                    CircularImageView imageView = new CircularImageView(context);
-                    configAvatarView(imageView, user_.getImage(), LlcMigrationUtils.getInitials(user_), factor);
-                    imageView.setBorderWidth(TypedValue.COMPLEX_UNIT_PX,
-                            style.getAvatarBorderWidth());
-
-                    RelativeLayout.LayoutParams params;
-                    params = new RelativeLayout.LayoutParams(
-                            (int) (style.getAvatarWidth() / factor),
-                            (int) (style.getAvatarHeight() / factor));
-
-                    if (lastActiveUsers.size() == 2) {
-                        if (i == 0) {
-                            params.addRule(RelativeLayout.ALIGN_PARENT_START);
-                            params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
-                        } else {
-                            params.addRule(RelativeLayout.ALIGN_PARENT_END);
-                            params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
-                            params.setMarginEnd(20);
-                        }
-                    } else {
-                        switch (i) {
-                            case 0:
-                                params.addRule(RelativeLayout.ALIGN_PARENT_START);
-                                params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
-                                break;
-                            case 1:
-                                params.addRule(RelativeLayout.ALIGN_PARENT_END);
-                                params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
-                                break;
-                            default:
-                                params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
-                                params.addRule(RelativeLayout.CENTER_HORIZONTAL);
-                                break;
-                        }
-                    }
-                    imageView.setLayoutParams(params);
-                    this.addView(imageView);
-                }
+                CircularImageView imageView = slots[i];
+                configAvatarView(i, user_.getImage(), LlcMigrationUtils.getInitials(user_), factor);
+                imageView.setBorderWidth(TypedValue.COMPLEX_UNIT_PX,
+                        style.getAvatarBorderWidth());
             }
+            hideSlotsFrom(count);
+        } else if (lastActiveUsers != null && lastActiveUsers.size() == 1) {
+            User user_ = lastActiveUsers.get(0);
+            configSingleAvatar(user_.getImage(), LlcMigrationUtils.getInitials(user_));
         } else {
 
             String initials = LlcMigrationUtils.getInitials(channel);
@@ -146,27 +130,101 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
     }
 
     private void configSingleAvatar(String image, String initial) {
-        CircularImageView imageView = new CircularImageView(context);
-        configAvatarView(imageView, image, initial, 1);
-        RelativeLayout.LayoutParams params;
-        params = new RelativeLayout.LayoutParams(
-                (style.getAvatarWidth()),
-                (style.getAvatarHeight()));
-        imageView.setLayoutParams(params);
-        this.addView(imageView);
+        layoutSlots(1);
+        configAvatarView(0, image, initial, 1);
+        slots[0].setBorderWidth(TypedValue.COMPLEX_UNIT_PX, 0);
+        hideSlotsFrom(1);
     }
 
-    private void configAvatarView(CircularImageView imageView, String image, String initial, float factor) {
+    /**
+     * Creates the slots the first time and positions them for the number of avatars,
+     * the layout params are only touched when the number of avatars or the size changes
+     */
+    private void layoutSlots(int count) {
+        int width = count == 1 ? style.getAvatarWidth() : (int) (style.getAvatarWidth() / factor);
+        int height = count == 1 ? style.getAvatarHeight() : (int) (style.getAvatarHeight() / factor);
+        for (int i = 0; i < count; i++) {
+            if (slots[i] == null) {
+                slots[i] = new CircularImageView(context);
+                addView(slots[i], new RelativeLayout.LayoutParams(width, height));
+            }
+            slots[i].setVisibility(VISIBLE);
+        }
+        if (count == slotLayoutCount && width == slotWidth && height == slotHeight) {
+            return;
+        }
+        slotLayoutCount = count;
+        slotWidth = width;
+        slotHeight = height;
+
+        for (int i = 0; i < count; i++) {
+            RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams) slots[i].getLayoutParams();
+            params.width = width;
+            params.height = height;
+            params.setMarginEnd(0);
+            for (int verb : SLOT_RULES) {
+                params.removeRule(verb);
+            }
+
+            if (count == 2) {
+                if (i == 0) {
+                    params.addRule(RelativeLayout.ALIGN_PARENT_START);
+                    params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
+                } else {
+                    params.addRule(RelativeLayout.ALIGN_PARENT_END);
+                    params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
+                    params.setMarginEnd(20);
+                }
+            } else if (count == 3) {
+                switch (i) {
+                    case 0:
+                        params.addRule(RelativeLayout.ALIGN_PARENT_START);
+                        params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
+                        break;
+                    case 1:
+                        params.addRule(RelativeLayout.ALIGN_PARENT_END);
+                        params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
+                        break;
+                    default:
+                        params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
+                        params.addRule(RelativeLayout.CENTER_HORIZONTAL);
+                        break;
+                }
+            }
+            slots[i].setLayoutParams(params);
+        }
+    }
+
+    private void hideSlotsFrom(int index) {
+        for (int i = index; i < MAX_AVATARS; i++) {
+            if (slots[i] == null || slots[i].getVisibility() == GONE) continue;
+            slots[i].setVisibility(GONE);
+            Glide.with(context).clear(slots[i]);
+            slotImages[i] = null;
+        }
+    }
+
+    private void configAvatarView(int slot, String image, String initial, float factor) {
+        CircularImageView imageView = slots[slot];
         imageView.setBorderColor(style.getAvatarBorderColor());
         imageView.setPlaceholder(initial,
                 style.getAvatarBackGroundColor(),
                 style.avatarInitialText.color);
 
-        if (!Utils.isSVGImage(image))
-            Glide.with(context)
-                    .load(Chat.getInstance().urlSigner().signImageUrl(image))
-                    .apply(RequestOptions.circleCropTransform())
-                    .into(imageView);
+        // the slot already shows or loads this image
+        if (!TextUtils.equals(image, slotImages[slot])) {
+            slotImages[slot] = image;
+            if (Utils.isSVGImage(image)) {
+                // drops the previous user's image, the placeholder is shown instead
+                Glide.with(context).clear(imageView);
+            } else {
+                // replaces the slot's previous request
+                Glide.with(context)
+                        .load(Chat.getInstance().urlSigner().signImageUrl(image))
+                        .apply(RequestOptions.circleCropTransform())
+                        .into(imageView);
+            }
+        }
 
         ChatFonts chatFonts = Chat.getInstance().getFonts();
         chatFonts.setFont(style.avatarInitialText, imageView, factor);
@@ -4,13 +4,22 @@ import android.content.Context;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.View;
 
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.getstream.sdk.chat.adapter.ChannelListItemAdapter;
+import com.getstream.sdk.chat.adapter.ChannelListItemState;
 import com.getstream.sdk.chat.adapter.ChannelViewHolderFactory;
+import com.getstream.sdk.chat.utils.ImagePrefetcher;
+import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.viewmodel.ChannelListViewModel;
 
+import java.util.List;
+
 import androidx.annotation.Nullable;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -32,6 +41,7 @@ public class ChannelListView extends RecyclerView {
     private ChannelViewHolderFactory viewHolderFactory;
 
     private LinearLayoutManager layoutManager;
+    private ImagePrefetcher imagePrefetcher;
 
     public ChannelListView(Context context) {
         super(context);
@@ -159,14 +169,60 @@ public class ChannelListView extends RecyclerView {
 
                 LinearLayoutManager linearLayoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
 
-                if (linearLayoutManager != null) {
+                if (linearLayoutManager != null && dy > 0) {
                     int lastVisible = linearLayoutManager.findLastVisibleItemPosition();
-                    boolean reachedTheEnd = lastVisible == adapter.getItemCount() - 1;
                     // the viewmodel ensures that we only load once..
-                    if (reachedTheEnd) viewModel.loadMore();
+                    viewModel.onChannelListScrolledDown(adapter.getItemCount() - 1 - lastVisible);
                 }
             }
         });
+
+        if (imagePrefetcher != null) imagePrefetcher.detach();
+        imagePrefetcher = new ImagePrefetcher(getContext(), (glide, position, requests) -> {
+            List<Channel> channels = adapter.getDiffDispatcher().getCurrentList();
+            if (position < channels.size())
+                collectImageRequests(adapter.getStateCache().get(channels.get(position)), glide, requests);
+        });
+        imagePrefetcher.attach(this);
+    }
+
+    // the images the avatar of the channel loads, see AvatarGroupView
+    private void collectImageRequests(ChannelListItemState state, RequestManager glide, List<RequestBuilder<?>> requests) {
+        String image = LlcMigrationUtils.getImage(state.getChannel());
+        if (!TextUtils.isEmpty(image)) {
+            addAvatarRequest(image, glide, requests);
+            return;
+        }
+        List<User> users = state.getOtherUsers();
+        if (users == null) return;
+        for (int i = 0; i < Math.min(users.size(), AvatarGroupView.MAX_AVATARS); i++) {
+            addAvatarRequest(users.get(i).getImage(), glide, requests);
+        }
+    }
+
+    private void addAvatarRequest(String image, RequestManager glide, List<RequestBuilder<?>> requests) {
+        if (!TextUtils.isEmpty(image) && !Utils.isSVGImage(image))
+            requests.add(ImagePrefetcher.avatarRequest(glide, image));
+    }
+
+    /**
+     * @return the image prefetcher of the list, to read how often it prefetched the rows that were shown
+     */
+    @Nullable
+    public ImagePrefetcher getImagePrefetcher() {
+        return imagePrefetcher;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (imagePrefetcher != null) imagePrefetcher.attach(this);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (imagePrefetcher != null) imagePrefetcher.detach();
     }
 
     public interface UserClickListener {
@@ -3,9 +3,12 @@ package com.getstream.sdk.chat.view;
 import android.app.Activity;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.View;
 
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.facebook.drawee.backends.pipeline.Fresco;
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.DefaultBubbleHelper;
@@ -13,7 +16,11 @@ import com.getstream.sdk.chat.adapter.MessageListItem;
 import com.getstream.sdk.chat.adapter.MessageListItemAdapter;
 import com.getstream.sdk.chat.adapter.MessageViewHolderFactory;
 import com.getstream.sdk.chat.enums.GiphyAction;
+import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.navigation.destinations.AttachmentDestination;
+import com.getstream.sdk.chat.utils.ImagePrefetcher;
+import com.getstream.sdk.chat.utils.MessageListItemWrapper;
+import com.getstream.sdk.chat.utils.ThumbnailLoader;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.view.Dialog.MessageMoreActionDialog;
 import com.getstream.sdk.chat.view.Dialog.ReadUsersDialog;
@@ -41,6 +48,8 @@ import io.getstream.chat.android.client.models.*;
 public class MessageListView extends RecyclerView {
     //    private int firstVisible;
     private static int fVPosition, lVPosition;
+    // enough attachment views of a type for the messages of a screen and the ones cached around it
+    private static final int MAX_RECYCLED_ATTACHMENT_VIEWS = 15;
     final String TAG = MessageListView.class.getSimpleName();
     protected MessageListViewStyle style;
     private MessageListItemAdapter adapter;
@@ -55,7 +64,11 @@ public class MessageListView extends RecyclerView {
     private UserClickListener userClickListener;
     private ReadStateClickListener readStateClickListener;
     private boolean hasScrolledUp;
+    private boolean backFromThread;
     private BubbleHelper bubbleHelper;
+    // the views of the attachments, shared by the attachment lists of all the messages
+    private final RecycledViewPool attachmentViewPool = new RecycledViewPool();
+    private ImagePrefetcher imagePrefetcher;
     /** If you are allowed to scroll up or not */
     boolean lockScrollUp = true;
     
@@ -88,6 +101,10 @@ public class MessageListView extends RecyclerView {
         setBubbleHelper(DefaultBubbleHelper.initDefaultBubbleHelper(style, context));
         setHasFixedSize(true);
         setItemViewCacheSize(20);
+        attachmentViewPool.setMaxRecycledViews(MessageViewHolderFactory.IMAGE_ATTACHMENT, MAX_RECYCLED_ATTACHMENT_VIEWS);
+        attachmentViewPool.setMaxRecycledViews(MessageViewHolderFactory.VIDEO_ATTACHMENT, MAX_RECYCLED_ATTACHMENT_VIEWS);
+        attachmentViewPool.setMaxRecycledViews(MessageViewHolderFactory.FILE_ATTACHMENT, MAX_RECYCLED_ATTACHMENT_VIEWS);
+        attachmentViewPool.setMaxRecycledViews(MessageViewHolderFactory.GENERIC_ATTACHMENT, MAX_RECYCLED_ATTACHMENT_VIEWS);
     }
     // endregion
 
@@ -110,6 +127,47 @@ public class MessageListView extends RecyclerView {
         throw new IllegalArgumentException("Use setAdapterWithStyle instead please");
     }
 
+    // the images the view of the message loads: the avatar of the user and the thumbnails of the attachments
+    private void collectImageRequests(MessageListItem item, RequestManager glide, List<RequestBuilder<?>> requests) {
+        if (item.getType() != MessageViewHolderFactory.MESSAGEITEM_MESSAGE || item.getMessage() == null) return;
+        Message message = item.getMessage();
+        User user = message.getUser();
+        if (user != null && !TextUtils.isEmpty(user.getImage()) && !Utils.isSVGImage(user.getImage()))
+            requests.add(ImagePrefetcher.avatarRequest(glide, user.getImage()));
+        for (Attachment attachment : message.getAttachments()) {
+            if (ModelType.attach_file.equals(attachment.getType())) continue;
+            String url = ThumbnailLoader.getThumbnailUrl(attachment);
+            if (url != null && style != null) requests.add(ThumbnailLoader.request(glide, getContext(), url, style));
+        }
+    }
+
+    /**
+     * @return the image prefetcher of the list, to read how often it prefetched the rows that were shown
+     */
+    @Nullable
+    public ImagePrefetcher getImagePrefetcher() {
+        return imagePrefetcher;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (imagePrefetcher != null) imagePrefetcher.attach(this);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (imagePrefetcher != null) imagePrefetcher.detach();
+    }
+
+    /**
+     * @return the pool of attachment views that the messages of this list share
+     */
+    public RecycledViewPool getAttachmentViewPool() {
+        return attachmentViewPool;
+    }
+
     public void setAdapterWithStyle(MessageListItemAdapter adapter) {
 
         adapter.setStyle(style);
@@ -133,8 +191,8 @@ public class MessageListView extends RecyclerView {
                     int currentFirstVisible = layoutManager.findFirstVisibleItemPosition();
                     int currentLastVisible = layoutManager.findLastVisibleItemPosition();
 
-                    if (currentFirstVisible < fVPosition && currentFirstVisible == 0)
-                        viewModel.loadMore();
+                    if (currentFirstVisible < fVPosition)
+                        viewModel.onMessageListScrolledUp(currentFirstVisible);
 
                     hasScrolledUp = currentLastVisible <= (adapter.getItemCount() - 3);
                     if (!hasScrolledUp) {
@@ -151,6 +209,13 @@ public class MessageListView extends RecyclerView {
             }
         });
 
+        if (imagePrefetcher != null) imagePrefetcher.detach();
+        imagePrefetcher = new ImagePrefetcher(getContext(), (glide, position, requests) -> {
+            List<MessageListItem> items = adapter.getDiffDispatcher().getCurrentList();
+            if (position < items.size()) collectImageRequests(items.get(position), glide, requests);
+        });
+        imagePrefetcher.attach(this);
+
         /*
         * Lock for 500 milliseconds setMessageListScrollUp in here.
         * Because when keyboard shows up, MessageList is scrolled up and it triggers hiding keyboard.
@@ -190,96 +255,104 @@ public class MessageListView extends RecyclerView {
             logger.logI("Observe found this many entities: " + entities.size());
 
             // Adapter initialization for channel and thread swapping
-            boolean backFromThread = false;
             if (adapter.isThread() != messageListItemWrapper.isThread()) {
                 adapter.setThread(messageListItemWrapper.isThread());
+                // kept until a list is shown, intermediate lists may be skipped by the adapter
                 backFromThread = !messageListItemWrapper.isThread();
             }
 
-            adapter.replaceEntities(entities);
+            adapter.replaceEntities(entities, () -> onEntitiesShown(messageListItemWrapper));
+        });
 
-            // Scroll to origin position on return from thread
-            if (backFromThread) {
-                layoutManager.scrollToPosition(viewModel.getThreadParentPosition());
-                viewModel.markLastMessageRead();
-                return;
-            }
+        viewModel.getThreadParentMessage().observe(lifecycleOwner, message -> {
+        });
+
+        this.setAdapterWithStyle(adapter);
+    }
+
+    /**
+     * Scroll behaviour, runs once the adapter shows the new entities
+     */
+    private void onEntitiesShown(MessageListItemWrapper messageListItemWrapper) {
+        List<MessageListItem> entities = messageListItemWrapper.getListEntities();
+
+        // Scroll to origin position on return from thread
+        if (backFromThread) {
+            backFromThread = false;
+            layoutManager.scrollToPosition(viewModel.getThreadParentPosition());
+            viewModel.markLastMessageRead();
+            return;
+        }
 
-            // Scroll to bottom position for typing indicator
-            if (messageListItemWrapper.isTyping() && scrolledBottom()) {
+        // Scroll to bottom position for typing indicator
+        if (messageListItemWrapper.isTyping() && scrolledBottom()) {
+            int newPosition = adapter.getItemCount() - 1;
+            layoutManager.scrollToPosition(newPosition);
+            return;
+        }
+        // check lastmessage update
+        if (!entities.isEmpty()) {
+            Message lastMessage = entities.get(entities.size() - 1).getMessage();
+            if (lastMessage != null
+                    && scrolledBottom()
+                    && justUpdated(lastMessage)) {
                 int newPosition = adapter.getItemCount() - 1;
-                layoutManager.scrollToPosition(newPosition);
-                return;
-            }
-            // check lastmessage update
-            if (!entities.isEmpty()) {
-                Message lastMessage = entities.get(entities.size() - 1).getMessage();
-                if (lastMessage != null
-                        && scrolledBottom()
-                        && justUpdated(lastMessage)) {
-                    int newPosition = adapter.getItemCount() - 1;
-                    logger.logI( String.format("just update last message"));
-
-                    postDelayed(() -> layoutManager.scrollToPosition(newPosition), 200);
-
-                    return;
-                }
-            }
+                logger.logI( String.format("just update last message"));
 
-            int oldSize = adapter.getItemCount();
-            int newSize = adapter.getItemCount();
-            int sizeGrewBy = newSize - oldSize;
+                postDelayed(() -> layoutManager.scrollToPosition(newPosition), 200);
 
-            if (!messageListItemWrapper.getHasNewMessages()) {
-                // we only touch scroll for new messages, we ignore
-                // read
-                // typing
-                // message updates
-                logger.logI( String.format("no Scroll no new message"));
                 return;
             }
+        }
 
-            if (oldSize == 0 && newSize != 0) {
-                int newPosition = adapter.getItemCount() - 1;
-                layoutManager.scrollToPosition(newPosition);
-                logger.logI( String.format("Scroll: First load scrolling down to bottom %d", newPosition));
-            } else if (messageListItemWrapper.getLoadingMore()) {
-                // the load more behaviour is different, scroll positions starts out at 0
-                // to stay at the relative 0 we should go to 0 + size of new messages...
-
-                int newPosition;// = oldPosition + sizeGrewBy;
-                newPosition = ((LinearLayoutManager) getLayoutManager()).findLastCompletelyVisibleItemPosition() + sizeGrewBy;
-                layoutManager.scrollToPosition(newPosition);
-            } else {
-                if (newSize == 0) return;
-                // regular new message behaviour
-                // we scroll down all the way, unless you've scrolled up
-                // if you've scrolled up we set a variable on the viewmodel that there are new messages
-                int newPosition = adapter.getItemCount() - 1;
-                int layoutSize = layoutManager.getItemCount();
-                logger.logI( String.format("Scroll: Moving down to %d, layout has %d elements", newPosition, layoutSize));
+        int oldSize = adapter.getItemCount();
+        int newSize = adapter.getItemCount();
+        int sizeGrewBy = newSize - oldSize;
+
+        if (!messageListItemWrapper.getHasNewMessages()) {
+            // we only touch scroll for new messages, we ignore
+            // read
+            // typing
+            // message updates
+            logger.logI( String.format("no Scroll no new message"));
+            return;
+        }
 
-                if (hasScrolledUp) {
-                    // always scroll to bottom when current user posts a message
-                    if (entities.size() > 1 && entities.get(entities.size() - 1).isMine()) {
-                        layoutManager.scrollToPosition(newPosition);
-                    }
-                    viewModel.setHasNewMessages(true);
-                } else {
+        if (oldSize == 0 && newSize != 0) {
+            int newPosition = adapter.getItemCount() - 1;
+            layoutManager.scrollToPosition(newPosition);
+            logger.logI( String.format("Scroll: First load scrolling down to bottom %d", newPosition));
+        } else if (messageListItemWrapper.getLoadingMore()) {
+            // the load more behaviour is different, scroll positions starts out at 0
+            // to stay at the relative 0 we should go to 0 + size of new messages...
+
+            int newPosition;// = oldPosition + sizeGrewBy;
+            newPosition = ((LinearLayoutManager) getLayoutManager()).findLastCompletelyVisibleItemPosition() + sizeGrewBy;
+            layoutManager.scrollToPosition(newPosition);
+        } else {
+            if (newSize == 0) return;
+            // regular new message behaviour
+            // we scroll down all the way, unless you've scrolled up
+            // if you've scrolled up we set a variable on the viewmodel that there are new messages
+            int newPosition = adapter.getItemCount() - 1;
+            int layoutSize = layoutManager.getItemCount();
+            logger.logI( String.format("Scroll: Moving down to %d, layout has %d elements", newPosition, layoutSize));
+
+            if (hasScrolledUp) {
+                // always scroll to bottom when current user posts a message
+                if (entities.size() > 1 && entities.get(entities.size() - 1).isMine()) {
                     layoutManager.scrollToPosition(newPosition);
-                    viewModel.setHasNewMessages(false);
                 }
-                // we want to mark read if there is a new message
-                // and this view is currently being displayed...
-                // we can't always run it since read and typing events also influence this list..
-                viewModel.markLastMessageRead();
+                viewModel.setHasNewMessages(true);
+            } else {
+                layoutManager.scrollToPosition(newPosition);
+                viewModel.setHasNewMessages(false);
             }
-        });
-
-        viewModel.getThreadParentMessage().observe(lifecycleOwner, message -> {
-        });
-
-        this.setAdapterWithStyle(adapter);
+            // we want to mark read if there is a new message
+            // and this view is currently being displayed...
+            // we can't always run it since read and typing events also influence this list..
+            viewModel.markLastMessageRead();
+        }
     }
 
     public void setViewHolderFactory(MessageViewHolderFactory factory) {
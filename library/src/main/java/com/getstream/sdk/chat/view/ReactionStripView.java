@@ -0,0 +1,141 @@
+package com.getstream.sdk.chat.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.View;
+
+import com.getstream.sdk.chat.R;
+import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+import com.getstream.sdk.chat.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.core.content.ContextCompat;
+
+/**
+ * Draws the emoji of the reactions of a message followed by the number of reactions in a single row.
+ * The text of every emoji and count is laid out once and reused by the following binds,
+ * so showing the reactions of a message inflates no views and allocates almost nothing.
+ */
+public class ReactionStripView extends View {
+
+    private final TextPaint paint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    // the laid out emoji by reaction type and counts by value, for the current text size
+    private final Map<String, StaticLayout> emojiLayouts = new HashMap<>();
+    private final SparseArray<StaticLayout> countLayouts = new SparseArray<>();
+    // what is drawn, in order
+    private final List<StaticLayout> items = new ArrayList<>();
+
+    private int emojiMargin;
+    private int verticalPadding;
+
+    public ReactionStripView(Context context) {
+        super(context);
+        init();
+    }
+
+    public ReactionStripView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    private void init() {
+        paint.setColor(ContextCompat.getColor(getContext(), R.color.stream_white));
+        verticalPadding = Utils.dpToPx(3);
+    }
+
+    /**
+     * Shows the emoji of the reaction types of the message and the total number of reactions
+     *
+     * @param reactionCounts the number of reactions by reaction type
+     */
+    public void setReactions(Map<String, Integer> reactionCounts, MessageListViewStyle style) {
+        setStyle(style.getReactionViewEmojiSize(), style.getReactionViewEmojiMargin());
+
+        Map<String, String> reactionTypes = LlcMigrationUtils.getReactionTypes();
+        int count = 0;
+        items.clear();
+        for (Map.Entry<String, Integer> reaction : reactionCounts.entrySet()) {
+            Integer reactionCount = reaction.getValue();
+            if (reactionCount != null) count += reactionCount;
+
+            String type = reaction.getKey();
+            StaticLayout layout = emojiLayouts.get(type);
+            if (layout == null) {
+                String emoji = reactionTypes.get(type);
+                // a reaction type this version doesn't know
+                if (emoji == null) continue;
+                layout = createLayout(emoji);
+                emojiLayouts.put(type, layout);
+            }
+            items.add(layout);
+        }
+
+        StaticLayout countLayout = countLayouts.get(count);
+        if (countLayout == null) {
+            countLayout = createLayout(String.valueOf(count));
+            countLayouts.put(count, countLayout);
+        }
+        items.add(countLayout);
+
+        requestLayout();
+        invalidate();
+    }
+
+    private void setStyle(int emojiSize, int emojiMargin) {
+        this.emojiMargin = emojiMargin;
+        if (paint.getTextSize() == emojiSize) return;
+        paint.setTextSize(emojiSize);
+        emojiLayouts.clear();
+        countLayouts.clear();
+    }
+
+    private StaticLayout createLayout(CharSequence text) {
+        int width = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                    .setIncludePad(false)
+                    .build();
+        }
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getPaddingLeft() + getPaddingRight();
+        int height = 0;
+        for (int i = 0; i < items.size(); i++) {
+            StaticLayout item = items.get(i);
+            width += item.getWidth() + 2 * emojiMargin;
+            height = Math.max(height, item.getHeight());
+        }
+        height += getPaddingTop() + getPaddingBottom() + 2 * (emojiMargin + verticalPadding);
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        float x = getPaddingLeft();
+        for (int i = 0; i < items.size(); i++) {
+            StaticLayout item = items.get(i);
+            x += emojiMargin;
+            float y = getPaddingTop() + (contentHeight - item.getHeight()) / 2f;
+            canvas.save();
+            canvas.translate(x, y);
+            item.draw(canvas);
+            canvas.restore();
+            x += item.getWidth() + emojiMargin;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.getstream.sdk.chat.view;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Typeface;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -27,6 +28,15 @@ public class ReadStateView<STYLE extends BaseStyle> extends RelativeLayout {
     boolean isIncoming;
     private List<ChannelUserRead> reads;
 
+    // the children are created once and reused by every bind
+    private CircularImageView imageView;
+    private TextView textView;
+    // the image the avatar shows or loads, to skip requesting it again
+    private String boundImage;
+    private STYLE boundStyle;
+    // the arrangement the layout params are set up for, -1 before the first one
+    private int boundLayout = -1;
+
     public ReadStateView(Context context) {
         super(context);
 
@@ -46,24 +56,65 @@ public class ReadStateView<STYLE extends BaseStyle> extends RelativeLayout {
 
     @SuppressLint("ResourceType")
     private void init() {
-        removeAllViews();
         if (!style.isShowReadState()
                 || reads == null
-                || reads.isEmpty()) return;
-
-        ChatFonts chatFonts = Chat.getInstance().getFonts();
+                || reads.isEmpty()) {
+            hide();
+            return;
+        }
+        createViews();
+        if (boundStyle != style) {
+            applyStyle();
+            boundStyle = style;
+        }
 
         User user = reads.get(0).getUser();
         String image = user.getImage();
         // Avatar
-        CircularImageView imageView = new CircularImageView(getContext());
-
         String initials = LlcMigrationUtils.getInitials(user);
 
         imageView.setPlaceholder(initials,
                 style.getAvatarBackGroundColor(),
                 style.readStateText.color);
 
+        if (!TextUtils.equals(image, boundImage)) {
+            boundImage = image;
+            if (!Utils.isSVGImage(image))
+                Glide.with(getContext())
+                        .load(image)
+                        //TODO: llc check glide
+                        //.load(StreamChat.getInstance().getUploadStorage().signGlideUrl(image))
+                        .into(imageView);
+            else
+                Glide.with(getContext()).clear(imageView);
+        }
+        imageView.setVisibility(VISIBLE);
+
+        // Count Text
+        boolean showCount = reads.size() >= 2;
+        if (showCount) {
+            textView.setText(String.valueOf(reads.size() - 1));
+            textView.setVisibility(VISIBLE);
+        } else {
+            textView.setVisibility(GONE);
+        }
+        layoutViews(showCount);
+    }
+
+    private void createViews() {
+        if (imageView != null) return;
+
+        imageView = new CircularImageView(getContext());
+        imageView.setId(1);
+        textView = new TextView(getContext());
+        textView.setGravity(Gravity.CENTER);
+        textView.setId(2);
+        addView(textView, new RelativeLayout.LayoutParams(LayoutParams.WRAP_CONTENT, 0));
+        addView(imageView, new RelativeLayout.LayoutParams(0, 0));
+    }
+
+    private void applyStyle() {
+        ChatFonts chatFonts = Chat.getInstance().getFonts();
         Typeface typeface = chatFonts.getFont(style.readStateText);
 
         if (typeface != null) {
@@ -74,48 +125,49 @@ public class ReadStateView<STYLE extends BaseStyle> extends RelativeLayout {
                    (style.readStateText.size),
                     style.readStateText.style);
 
-        if (!Utils.isSVGImage(image))
-            Glide.with(getContext())
-                    .load(image)
-                    //TODO: llc check glide
-                    //.load(StreamChat.getInstance().getUploadStorage().signGlideUrl(image))
-                    .into(imageView);
-
-        RelativeLayout.LayoutParams avatarParams = new RelativeLayout.LayoutParams(
-                (style.getReadStateAvatarWidth()),
-                (style.getReadStateAvatarHeight()));
-
-        RelativeLayout.LayoutParams textParams = new RelativeLayout.LayoutParams(
-                LayoutParams.WRAP_CONTENT,
-                (style.getReadStateAvatarHeight()));
-        imageView.setId(1);
-
-        if (reads.size() < 2) {
-            imageView.setLayoutParams(avatarParams);
-            addView(imageView);
-            return;
-        }
-        // Count Text
-
-        TextView textView = new TextView(getContext());
-        textView.setText(String.valueOf(reads.size() - 1));
-
         textView.setTextColor(style.readStateText.color);
         textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.readStateText.size);
         chatFonts.setFont(style.readStateText, textView);
-        textView.setGravity(Gravity.CENTER);
-        textView.setId(2);
+        // the sizes come from the style
+        boundLayout = -1;
+    }
 
-        if (isIncoming) {
+    /**
+     * Sets up the layout params, only when the arrangement changes
+     */
+    private void layoutViews(boolean showCount) {
+        int layout = !showCount ? 0 : isIncoming ? 1 : 2;
+        if (layout == boundLayout) return;
+        boundLayout = layout;
+
+        RelativeLayout.LayoutParams avatarParams = (RelativeLayout.LayoutParams) imageView.getLayoutParams();
+        avatarParams.width = style.getReadStateAvatarWidth();
+        avatarParams.height = style.getReadStateAvatarHeight();
+        avatarParams.removeRule(RelativeLayout.RIGHT_OF);
+        avatarParams.setMarginStart(0);
+
+        RelativeLayout.LayoutParams textParams = (RelativeLayout.LayoutParams) textView.getLayoutParams();
+        textParams.height = style.getReadStateAvatarHeight();
+        textParams.removeRule(RelativeLayout.RIGHT_OF);
+        textParams.setMarginStart(0);
+
+        int margin = getContext().getResources().getDimensionPixelOffset(R.dimen.stream_composer_stroke_width);
+        if (layout == 1) {
             textParams.addRule(RelativeLayout.RIGHT_OF, imageView.getId());
-            textParams.setMarginStart(getContext().getResources().getDimensionPixelOffset(R.dimen.stream_composer_stroke_width));
-        } else {
+            textParams.setMarginStart(margin);
+        } else if (layout == 2) {
             avatarParams.addRule(RelativeLayout.RIGHT_OF, textView.getId());
-            avatarParams.setMarginStart(getContext().getResources().getDimensionPixelOffset(R.dimen.stream_composer_stroke_width));
+            avatarParams.setMarginStart(margin);
         }
         imageView.setLayoutParams(avatarParams);
         textView.setLayoutParams(textParams);
-        addView(textView);
-        addView(imageView);
+    }
+
+    private void hide() {
+        if (imageView == null || imageView.getVisibility() == GONE) return;
+        imageView.setVisibility(GONE);
+        textView.setVisibility(GONE);
+        Glide.with(getContext()).clear(imageView);
+        boundImage = null;
     }
 }
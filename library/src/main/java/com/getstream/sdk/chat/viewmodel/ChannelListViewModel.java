@@ -2,16 +2,24 @@ package com.getstream.sdk.chat.viewmodel;
 
 import android.app.Application;
 import android.os.Handler;
+import android.os.SystemClock;
 
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.LifecycleHandler;
 import com.getstream.sdk.chat.StreamLifecycleObserver;
+import com.getstream.sdk.chat.storage.ChatStorage;
+import com.getstream.sdk.chat.storage.OnQueryListener;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+import com.getstream.sdk.chat.utils.PaginationController;
+import com.getstream.sdk.chat.utils.PersistentList;
 import com.getstream.sdk.chat.utils.RetryPolicy;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import androidx.annotation.NonNull;
@@ -36,13 +44,15 @@ import io.getstream.chat.android.client.utils.observable.Subscription;
 import kotlin.Unit;
 import kotlin.jvm.functions.Function1;
 
-import static com.getstream.sdk.chat.utils.Utils.removeIf;
-
 public class ChannelListViewModel extends AndroidViewModel implements LifecycleHandler {
 
     private TaggedLogger logger = ChatLogger.Companion.get("ChannelListViewModel");
+    // the most channels a query can return
+    private static final int MAX_CHANNEL_PAGE_SIZE = 30;
 
     protected final MutableLiveData<List<Channel>> channels = new ChannelsLiveData<>();
+    // the latest channels, channels.getValue() lags behind while a value is posted
+    private PersistentList<Channel> channelList = PersistentList.empty();
 
     protected MutableLiveData<Boolean> loading;
     protected MutableLiveData<Boolean> loadingMore;
@@ -56,8 +66,16 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
     protected AtomicBoolean isLoadingMore;
     protected boolean queryChannelDone;
     protected int pageSize;
+    private final ChannelPager channelPager = new ChannelPager();
+    /**
+     * Loads the next channels ahead of the scroll
+     */
+    protected PaginationController<List<Channel>> channelPagination;
     protected Handler retryLooper;
 
+    private long queryStartTime;
+    private long timeToFirstContent = -1;
+
     public RetryPolicy getRetryPolicy() {
         return retryPolicy;
     }
@@ -79,6 +97,11 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
 
         reachedEndOfPagination = false;
         pageSize = 25;
+        channelPagination = new PaginationController<>(channelPager,
+                SystemClock::uptimeMillis,
+                pageSize,
+                MAX_CHANNEL_PAGE_SIZE,
+                PaginationController.DEFAULT_PREFETCH_DISTANCE);
 
         loading = new MutableLiveData<>(true);
         loadingMore = new MutableLiveData<>(false);
@@ -118,11 +141,7 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
         // - offline loads first
         // - after that we query the API and load more channels
         // - it's possible that the offline results no longer match the query (so we should remove them)
-        List<Channel> newChannels = new ArrayList<>();
-        for (Channel chan : channels) {
-            newChannels.add(chan);
-        }
-        updateChannelsLiveData(newChannels);
+        updateChannelsLiveData(PersistentList.of(channels));
     }
 
     public LiveData<Boolean> getLoading() {
@@ -135,6 +154,14 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
 
     public void setChannelsPageSize(int pageSize) {
         this.pageSize = pageSize;
+        channelPagination.setPageSize(pageSize, MAX_CHANNEL_PAGE_SIZE);
+    }
+
+    /**
+     * @return the pagination of the channels, to set its prefetch distance or read its latencies
+     */
+    public PaginationController<List<Channel>> getChannelPagination() {
+        return channelPagination;
     }
 
     @Override
@@ -281,6 +308,7 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
                     newChannel.setLastMessageAt(message.getCreatedAt());
 
                     updateChannel(ch, newChannel, true);
+                    storeChannels(Collections.singletonList(newChannel));
                 }
 
 
@@ -298,6 +326,7 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
                     LlcMigrationUtils.updateReadState(newChannel, user, date);
 
                     updateChannel(ch, newChannel, false);
+                    storeChannels(Collections.singletonList(newChannel));
                 }
             }
 
@@ -306,16 +335,12 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
     }
 
     private Channel getChannelByCid(String cid) {
-        List<Channel> list = channels.getValue();
-        for (Channel ch : list)
-            if (cid.equals(ch.getCid()))
-                return ch;
-
-        return null;
+        int idx = lastIndexOf(cid);
+        return idx == -1 ? null : channelList.get(idx);
     }
 
     private int lastIndexOf(String cid) {
-        List<Channel> list = channels.getValue();
+        List<Channel> list = channelList;
         for (int i = 0; i < list.size(); i++)
             if (cid.equals(list.get(i).getCid()))
                 return i;
@@ -323,19 +348,17 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
         return -1;
     }
 
-    private void updateChannel(Channel oldChannel, Channel newChannel, boolean moveToTop) {
-        List<Channel> channelsValue = channels.getValue();
-
+    private synchronized void updateChannel(Channel oldChannel, Channel newChannel, boolean moveToTop) {
         int idx = lastIndexOf(oldChannel.getCid());
 
         if (idx != -1) {
             if (moveToTop) {
-                channelsValue.remove(idx);
-                channelsValue.add(0, newChannel);
+                updateChannelsLiveData(channelList.minus(idx).plus(0, newChannel));
+                // the offset of the next page moved
+                channelPagination.invalidate();
             } else {
-                channelsValue.set(idx, newChannel);
+                updateChannelsLiveData(channelList.with(idx, newChannel));
             }
-            updateChannelsLiveData(channelsValue);
         }
     }
 
@@ -358,41 +381,71 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
         return copy;
     }
 
-    protected void upsertChannel(Channel channel) {
-        List<Channel> channelCopy = channels.getValue();
-        if (channelCopy == null) {
-            channelCopy = new ArrayList<>();
-        }
-        channelCopy.add(0, channel);
-        updateChannelsLiveData(channelCopy);
+    protected synchronized void upsertChannel(Channel channel) {
+        updateChannelsLiveData(channelList.plus(0, channel));
+        channelPagination.invalidate();
     }
 
-    public boolean deleteChannel(String cid) {
-        List<Channel> channelCopy = channels.getValue();
-        if (channelCopy == null) {
-            channelCopy = new ArrayList<>();
+    public synchronized boolean deleteChannel(String cid) {
+        PersistentList<Channel> channelCopy = channelList;
+        boolean removed = false;
+        for (int i = channelCopy.size() - 1; i >= 0; i--) {
+            if (cid.equals(channelCopy.get(i).getCid())) {
+                channelCopy = channelCopy.minus(i);
+                removed = true;
+            }
         }
 
-        boolean removed = removeIf(channelCopy, value -> cid.equals(value.getCid()));
-
         updateChannelsLiveData(channelCopy);
+        if (removed) channelPagination.invalidate();
         return removed;
     }
 
-    public void addChannels(List<Channel> newChannelsState) {
-        List<Channel> channelCopy = channels.getValue();
-        if (channelCopy == null)
-            channelCopy = new ArrayList<>();
-
-        channelCopy.addAll(newChannelsState);
-        updateChannelsLiveData(channelCopy);
+    public synchronized void addChannels(List<Channel> newChannelsState) {
+        updateChannelsLiveData(channelList.plusAll(channelList.size(), newChannelsState));
     }
 
-    private void updateChannelsLiveData(List<Channel> channelCopy) {
+    /**
+     * Every change creates a new list that shares the unchanged parts with the previous one,
+     * the lists posted to the live data are never modified afterwards
+     */
+    private synchronized void updateChannelsLiveData(PersistentList<Channel> channelCopy) {
+        channelList = channelCopy;
         channels.postValue(channelCopy);
     }
 
 
+    private String getQueryId() {
+        return ChatStorage.queryId(filter, sort);
+    }
+
+    /**
+     * Writes the changed channels and the order of the channel list to the offline storage, if enabled
+     */
+    private void storeChannels(List<Channel> changedChannels) {
+        ChatStorage storage = Chat.getInstance().getStorage();
+        if (storage == null) return;
+
+        List<String> cids = new ArrayList<>(channelList.size());
+        for (Channel channel : channelList) {
+            cids.add(channel.getCid());
+        }
+        storage.storeQuery(getQueryId(), cids, changedChannels);
+    }
+
+    private void onFirstContent(String source) {
+        if (timeToFirstContent != -1) return;
+        timeToFirstContent = SystemClock.uptimeMillis() - queryStartTime;
+        logger.logI("Showing channels from the " + source + " after " + timeToFirstContent + "ms");
+    }
+
+    /**
+     * @return the time in milliseconds from querying the channels to showing the first ones, -1 until then
+     */
+    public long getTimeToFirstContent() {
+        return timeToFirstContent;
+    }
+
     protected void queryChannelsInner(int attempt) {
 
         QueryChannelsRequest request = new QueryChannelsRequest(filter, 0, pageSize, sort, 20);
@@ -447,6 +500,8 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
                 setLoadingDone();
                 List<Channel> data = result.data();
                 setChannels(data);
+                storeChannels(data);
+                onFirstContent("network");
 
                 if (data.size() < pageSize) {
                     reachedEndOfPagination = true;
@@ -467,27 +522,26 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
      */
     public void queryChannels() {
         logger.logI("queryChannels for loading the channels");
-//        if (!setLoading()) {
-//            StreamChat.getLogger().logI(this, "already loading, skip queryChannels");
-//            return;
-//        }
-//        QueryChannelsRequest request = new QueryChannelsRequest(filter, sort)
-//                .withLimit(pageSize)
-//                .withMessageLimit(20);
-//        client().getStorage().selectChannelStates(request.query().getId(), 100, new OnQueryListener<List<ChannelState>>() {
-//            @Override
-//            public void onSuccess(List<ChannelState> channelStates) {
-//                if (channels != null && channelStates != null)
-//                    addChannels(channelStates);
-//                callback.onSuccess(channelStates);
-//            }
-//
-//            @Override
-//            public void onFailure(Exception e) {
-//                StreamChat.getLogger().logW(this, String.format("Failed to read channel list from offline storage, error %s", e.toString()));
-//                callback.onFailure(e);
-//            }
-//        });
+        queryStartTime = SystemClock.uptimeMillis();
+        ChatStorage storage = Chat.getInstance().getStorage();
+        if (storage != null) {
+            storage.selectChannels(getQueryId(), pageSize, 20, new OnQueryListener<List<Channel>>() {
+                @Override
+                public void onSuccess(List<Channel> offlineChannels) {
+                    // the network was faster
+                    if (queryChannelDone || offlineChannels.isEmpty()) return;
+                    logger.logI("Read " + offlineChannels.size() + " channels from the offline storage");
+                    setChannels(offlineChannels);
+                    setLoadingDone();
+                    onFirstContent("offline storage");
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    logger.logE("Failed to read channel list from offline storage, error " + e.toString());
+                }
+            });
+        }
         queryChannelsInner(0);
     }
 
@@ -495,65 +549,101 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
      * loads more channels, use this to load a previous page
      */
     public void loadMore() {
-        if (!Chat.getInstance().getClient().isSocketConnected()) return;
+        if (!canLoadMore()) return;
+        channelPagination.requestPage();
+    }
 
-        if (isLoading.get()) {
-            return;
-        }
-        if (reachedEndOfPagination) {
-            return;
-        }
-        if (!setLoadingMore()) {
-            return;
-        }
+    /**
+     * Loads the next channels before the list is scrolled to the end
+     *
+     * @param distanceToEnd the number of channels after the last one shown
+     */
+    public void onChannelListScrolledDown(int distanceToEnd) {
+        if (!canLoadMore()) return;
+        channelPagination.onScrolled(distanceToEnd);
+    }
 
-        QueryChannelsRequest request = new QueryChannelsRequest(filter, 0, pageSize, sort, 20);
+    private boolean canLoadMore() {
+        return Chat.getInstance().getClient().isSocketConnected() && !isLoading.get();
+    }
 
-        if (channels.getValue() != null)
-            request = request.withOffset(channels.getValue().size());
+    /**
+     * Queries the channels after the ones of the list, a page is fetched once the previous one is added to the list
+     */
+    private class ChannelPager implements PaginationController.Pager<List<Channel>> {
+        private int fetchGeneration;
+        private boolean fetchedEnd;
 
-        Chat.getInstance().getClient().queryChannels(request).enqueue(new Function1<Result<List<Channel>>, Unit>() {
-            @Override
-            public Unit invoke(Result<List<Channel>> result) {
+        @Override
+        public void fetch(int limit, PaginationController.FetchCallback<List<Channel>> callback) {
+            int generation = ++fetchGeneration;
+            if (reachedEndOfPagination) {
+                fetchedEnd = true;
+                callback.onFetched(new ArrayList<>(), true);
+                return;
+            }
 
-                setLoadingMoreDone();
+            QueryChannelsRequest request = new QueryChannelsRequest(filter, 0, limit, sort, 20);
 
-                if (result.isSuccess()) {
-                    addChannels(result.data());
-                    reachedEndOfPagination = result.data().size() < pageSize;
+            request = request.withOffset(channelList.size());
+
+            Chat.getInstance().getClient().queryChannels(request).enqueue(new Function1<Result<List<Channel>>, Unit>() {
+                @Override
+                public Unit invoke(Result<List<Channel>> result) {
+                    // queried before a reset
+                    if (generation != fetchGeneration) return null;
+
+                    if (result.isSuccess()) {
+                        storeChannels(result.data());
+                        fetchedEnd = result.data().size() < limit;
+                        callback.onFetched(result.data(), fetchedEnd);
+                    } else {
+                        callback.onFailed();
+                    }
+
+                    return null;
                 }
+            });
+        }
 
-                return null;
+        @Override
+        public void show(List<Channel> page) {
+            // the page is the last one, it was fetched right before
+            if (fetchedEnd) reachedEndOfPagination = true;
+            // channels added by events while the page was fetched shifted its offset
+            Set<String> cids = new HashSet<>();
+            for (Channel channel : channelList) {
+                cids.add(channel.getCid());
             }
-        });
+            List<Channel> newChannels = new ArrayList<>(page.size());
+            for (Channel channel : page) {
+                if (cids.add(channel.getCid())) newChannels.add(channel);
+            }
+            if (!newChannels.isEmpty()) addChannels(newChannels);
+        }
 
-//        client().queryChannels(request, new QueryChannelListCallback() {
-//            @Override
-//            public void onSuccess(QueryChannelsResponse response) {
-//                StreamChat.getLogger().logI(this, "onSendMessageSuccess for loading more channels");
-//                setLoadingMoreDone();
-//                addChannels(response.getChannelStates());
-//                reachedEndOfPagination = response.getChannelStates().size() < pageSize;
-//
-//                if (reachedEndOfPagination)
-//                    StreamChat.getLogger().logI(this, "reached end of pagination");
-//                callback.onSuccess(response);
-//            }
-//
-//            @Override
-//            public void onError(String errMsg, int errCode) {
-//                StreamChat.getLogger().logE(this, "onError for loading the channels" + errMsg);
-//                setLoadingMoreDone();
-//                callback.onError(errMsg, errCode);
-//            }
-//        });
+        @Override
+        public void onWaitingChanged(boolean waiting) {
+            if (waiting) {
+                setLoadingMore();
+            } else {
+                setLoadingMoreDone();
+            }
+        }
+
+        void reset() {
+            fetchGeneration++;
+            fetchedEnd = false;
+        }
     }
 
     protected void clean() {
         retryLooper.removeCallbacksAndMessages(null);
         initialized.set(true);
-        updateChannelsLiveData(new ArrayList<>());
+        updateChannelsLiveData(PersistentList.empty());
         setLoadingDone();
+        channelPager.reset();
+        channelPagination.reset();
         setLoadingMoreDone();
         reachedEndOfPagination = false;
     }
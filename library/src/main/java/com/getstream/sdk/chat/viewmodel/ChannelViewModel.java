@@ -1,17 +1,29 @@
 package com.getstream.sdk.chat.viewmodel;
 
 import android.app.Application;
+import android.os.AsyncTask;
+import android.os.SystemClock;
 import android.text.TextUtils;
 
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.LifecycleHandler;
+import com.getstream.sdk.chat.Markdown;
+import com.getstream.sdk.chat.MarkdownImpl;
 import com.getstream.sdk.chat.StreamLifecycleObserver;
 import com.getstream.sdk.chat.enums.GiphyAction;
 import com.getstream.sdk.chat.enums.InputType;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.storage.ChatStorage;
+import com.getstream.sdk.chat.storage.MessagePage;
+import com.getstream.sdk.chat.storage.OnQueryListener;
+import com.getstream.sdk.chat.utils.AutocompleteIndex;
+import com.getstream.sdk.chat.utils.ChatEventBatcher;
 import com.getstream.sdk.chat.utils.Constant;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+import com.getstream.sdk.chat.utils.MessageListDelta;
 import com.getstream.sdk.chat.utils.MessageListItemLiveData;
+import com.getstream.sdk.chat.utils.MessageStore;
+import com.getstream.sdk.chat.utils.PaginationController;
 import com.getstream.sdk.chat.utils.ResultCallback;
 
 import org.jetbrains.annotations.NotNull;
@@ -85,6 +97,16 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
     protected AtomicBoolean isLoadingMore = new AtomicBoolean(false);
     protected boolean reachedEndOfPagination;
     protected boolean reachedEndOfPaginationThread;
+    /**
+     * Loads the older messages of the channel ahead of the scroll, threads are paged by loadMore
+     */
+    private final MessagePager messagePager = new MessagePager();
+    protected PaginationController<List<Message>> messagePagination = new PaginationController<>(
+            messagePager,
+            SystemClock::uptimeMillis,
+            Constant.DEFAULT_LIMIT,
+            MAX_MESSAGE_PAGE_SIZE,
+            PaginationController.DEFAULT_PREFETCH_DISTANCE);
     protected Date lastMarkRead;
     protected MutableLiveData<Number> currentUserUnreadMessageCount = new MutableLiveData<>();
     protected Integer lastCurrentUserUnreadMessageCount = 0;
@@ -104,11 +126,52 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
     protected MutableLiveData<Map<String, ChannelUserRead>> reads = new MutableLiveData<>();
     protected MutableLiveData<InputType> inputType = new MutableLiveData<>(InputType.DEFAULT);
     protected MessageListItemLiveData entities;
+    /**
+     * The messages of the channel and of the open thread, posted to messages and threadMessages on every change
+     */
+    protected MessageStore messageStore = new MessageStore();
+    protected MessageStore threadMessageStore = new MessageStore();
+    protected ChatEventBatcher eventBatcher = new ChatEventBatcher(this::onEventBatch);
     protected boolean enableMarkRead; // Used to prevent automatic mark reading messages.
 
+    private boolean channelLoaded;
+    private long loadStartTime;
+    private long timeToFirstContent = -1;
+
     private List<Subscription> subscriptions = new ArrayList<>();
     private TaggedLogger logger = ChatLogger.Companion.get("ChannelViewModel");
 
+    // the most older messages a page has when the list is scrolled fast
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+
+    private static final AutocompleteIndex.Naming<User> USER_NAMING = new AutocompleteIndex.Naming<User>() {
+        @Override
+        public String getKey(User user) {
+            return user.getId();
+        }
+
+        @Override
+        public String getName(User user) {
+            return user.getName();
+        }
+    };
+
+    private static final AutocompleteIndex.Naming<Command> COMMAND_NAMING = new AutocompleteIndex.Naming<Command>() {
+        @Override
+        public String getKey(Command command) {
+            return command.getName();
+        }
+
+        @Override
+        public String getName(Command command) {
+            return command.getName();
+        }
+    };
+
+    // the suggestions of the message input, built when the channel loads and kept up to date by the member events
+    protected AutocompleteIndex<User> mentionIndex = new AutocompleteIndex<>(USER_NAMING);
+    protected AutocompleteIndex<Command> commandIndex = new AutocompleteIndex<>(COMMAND_NAMING);
+
 
     public ChannelViewModel(Application application, String channelType, String channelId) {
         super(application);
@@ -124,6 +187,8 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         User currentUser = Chat.getInstance().getClient().getCurrentUser();
 
         entities = new MessageListItemLiveData(currentUser, messages, threadMessages, typingUsers, reads);
+        messageStore.setOnChangeListener(this::updateMessageLiveData);
+        threadMessageStore.setOnChangeListener(this::updateThreadMessageLiveData);
 
         typingState = new HashMap<>();
         editMessage = new MutableLiveData<>();
@@ -171,6 +236,20 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         return channelState.getValue();
     }
 
+    /**
+     * @return the members of the channel by name, for the mention suggestions
+     */
+    public AutocompleteIndex<User> getMentionIndex() {
+        return mentionIndex;
+    }
+
+    /**
+     * @return the commands of the channel by name, for the command suggestions
+     */
+    public AutocompleteIndex<Command> getCommandIndex() {
+        return commandIndex;
+    }
+
     public LiveData<Channel> getInitialized() {
         return initialized;
     }
@@ -270,11 +349,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
         if (message.getReplyCount() == 0) {
             reachedEndOfPaginationThread = true;
-            threadMessages.postValue(new ArrayList<Message>() {
-                {
-                    add(message);
-                }
-            });
+            threadMessageStore.setMessages(Collections.singletonList(message));
         } else {
 
             Chat.getInstance().getClient().getReplies(message.getId(), 30).enqueue(new Function1<Result<List<Message>>, Unit>() {
@@ -285,7 +360,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
                         List<Message> newMessages = new ArrayList<>(result.data());
                         newMessages.add(0, message);
                         reachedEndOfPaginationThread = newMessages.size() < 30 + 1;
-                        threadMessages.postValue(newMessages);
+                        threadMessageStore.setMessages(newMessages);
                     }
 
                     return null;
@@ -296,9 +371,10 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
     public void initThread() {
         threadParentMessage.postValue(null);
+        threadMessageStore.clear();
         threadMessages.postValue(null);
-        Channel channel = channelState.getValue();
-        updateMessageLiveData(new ArrayList<>(channel.getMessages()));
+        // the channel messages are kept up to date while the thread is open, along with the loaded pages
+        messageStore.republish();
         reachedEndOfPaginationThread = false;
     }
     // endregion
@@ -306,9 +382,9 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
     // endregion
 
     protected String getThreadOldestMessageId() {
-        List<Message> messages = threadMessages.getValue();
-        if (messages != null && messages.size() > 1)
-            return threadMessages.getValue().get(1).getId();
+        Message oldestMessage = threadMessageStore.getAt(1);
+        if (oldestMessage != null)
+            return oldestMessage.getId();
         return "";
     }
 
@@ -389,106 +465,181 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         subscriptions.add(Chat.getInstance().getClient().events().subscribe(new Function1<ChatEvent, Unit>() {
             @Override
             public Unit invoke(ChatEvent event) {
+                eventBatcher.add(event);
+                return null;
+            }
+        }));
 
-                Channel channel = event.getChannel();
-
-                if (event instanceof NewMessageEvent) {
-                    upsertMessage(event.getMessage());
-                } else if (event instanceof UserStartWatchingEvent) {
-
-                } else if (event instanceof UserStopWatchingEvent) {
-
-                } else if (event instanceof ChannelUpdatedEvent) {
-
-                } else if (event instanceof MessageUpdatedEvent) {
-                    updateMessage(event.message);
-                } else if (event instanceof MessageDeletedEvent) {
-                    deleteMessage(event.message);
-                } else if (event instanceof MessageReadEvent) {
-
-
-                    if (channel != null) {
-                        reads.postValue(LlcMigrationUtils.getReadsByUser(channel));
+    }
 
-                        User currentUser = Chat.getInstance().getClient().getCurrentUser();
-                        String currentUserId = currentUser.getId();
+    /**
+     * Applies a batch of events and posts the channel state, reads, typing users and unread count once
+     *
+     * @param events the events, without the ones made redundant by a later event of the batch
+     */
+    protected void onEventBatch(List<ChatEvent> events) {
+        Channel lastChannel = null;
+        boolean readsChanged = false;
+        boolean typingChanged = false;
+
+        String cid = getCid();
+        for (ChatEvent event : events) {
+            // the events of the client are the events of all the channels
+            if (!cid.equals(event.getCid())) continue;
+
+            Channel channel = event.getChannel();
+            if (channel != null) {
+                lastChannel = channel;
+            }
 
-                        int unreadMessageCount = LlcMigrationUtils.getUnreadMessageCount(currentUserId, channel);
+            if (event instanceof NewMessageEvent) {
+                upsertMessage(event.getMessage());
+            } else if (event instanceof UserStartWatchingEvent) {
+
+            } else if (event instanceof UserStopWatchingEvent) {
+
+            } else if (event instanceof ChannelUpdatedEvent) {
+
+            } else if (event instanceof MessageUpdatedEvent) {
+                updateMessage(event.message);
+            } else if (event instanceof MessageDeletedEvent) {
+                deleteMessage(event.message);
+            } else if (event instanceof MessageReadEvent) {
+                readsChanged |= channel != null;
+            } else if (event instanceof ReactionNewEvent) {
+                updateMessage(event.message);
+            } else if (event instanceof ReactionDeletedEvent) {
+                updateMessage(event.message);
+            } else if (event instanceof TypingStartEvent) {
+                if (!LlcMigrationUtils.isFromCurrentUser(event)) {
+                    User user = event.getUser();
+                    typingState.put(user.getId(), event);
+                    typingChanged = true;
+                }
+            } else if (event instanceof TypingStopEvent) {
+                if (!LlcMigrationUtils.isFromCurrentUser(event)) {
+                    User user = event.getUser();
+                    typingState.remove(user.getId());
+                    typingChanged = true;
+                }
+            } else if (event instanceof MemberAddedEvent || event instanceof MemberUpdatedEvent) {
+                // the user of a member event is the member
+                User user = event.getUser();
+                if (user != null) updateSuggestions(() -> mentionIndex.put(user));
+            } else if (event instanceof MemberRemovedEvent) {
+                User user = event.getUser();
+                if (user != null) updateSuggestions(() -> mentionIndex.remove(user.getId()));
+            }
+        }
 
-                        if (unreadMessageCount != lastCurrentUserUnreadMessageCount) {
-                            lastCurrentUserUnreadMessageCount = unreadMessageCount;
-                            currentUserUnreadMessageCount.postValue(lastCurrentUserUnreadMessageCount);
-                        }
-                    }
+        storeMessages(events);
 
+        if (typingChanged) {
+            typingUsers.postValue(getCleanedTypingUsers());
+        }
 
-                } else if (event instanceof ReactionNewEvent) {
-                    updateMessage(event.message);
-                } else if (event instanceof ReactionDeletedEvent) {
-                    updateMessage(event.message);
-                } else if (event instanceof TypingStartEvent) {
-                    if (!LlcMigrationUtils.isFromCurrentUser(event)) {
-                        User user = event.getUser();
-                        typingState.put(user.getId(), event);
-                        typingUsers.postValue(getCleanedTypingUsers());
-                    }
-                } else if (event instanceof TypingStopEvent) {
-                    if (!LlcMigrationUtils.isFromCurrentUser(event)) {
-                        User user = event.getUser();
-                        typingState.remove(user.getId());
-                        typingUsers.postValue(getCleanedTypingUsers());
-                    }
-                } else if (event instanceof MemberAddedEvent) {
+        if (lastChannel != null) {
+            if (readsChanged) {
+                reads.postValue(LlcMigrationUtils.getReadsByUser(lastChannel));
+            }
+            channelState.postValue(lastChannel);
 
-                } else if (event instanceof MemberRemovedEvent) {
+            User currentUser = Chat.getInstance().getClient().getCurrentUser();
+            int unreadMessageCount = LlcMigrationUtils.getUnreadMessageCount(currentUser.getId(), lastChannel);
 
-                } else if (event instanceof MemberUpdatedEvent) {
+            if (unreadMessageCount != lastCurrentUserUnreadMessageCount) {
+                lastCurrentUserUnreadMessageCount = unreadMessageCount;
+                currentUserUnreadMessageCount.postValue(lastCurrentUserUnreadMessageCount);
+            }
+        }
+    }
 
+    /**
+     * Writes the messages of a batch of events to the offline storage, the storage writes them in one transaction
+     */
+    private void storeMessages(List<ChatEvent> events) {
+        ChatStorage storage = Chat.getInstance().getStorage();
+        if (storage == null) return;
+
+        String cid = getCid();
+        for (ChatEvent event : events) {
+            Message message = event.getMessage();
+            if (message == null || !cid.equals(event.getCid())) continue;
+
+            if (event instanceof ReactionNewEvent || event instanceof ReactionDeletedEvent) {
+                storage.storeReactions(cid, message);
+            } else if (event instanceof NewMessageEvent
+                    || event instanceof MessageUpdatedEvent
+                    || event instanceof MessageDeletedEvent) {
+                storage.storeMessage(cid, message, getPreviousId(message.getId()));
+            }
+            if (event instanceof NewMessageEvent && TextUtils.isEmpty(message.getParentId())) {
+                // a message that arrived late goes between two stored ones
+                int index = messageStore.indexOf(message.getId());
+                Message next = index == -1 ? null : messageStore.getAt(index + 1);
+                if (next != null && TextUtils.isEmpty(next.getParentId())) {
+                    storage.updatePreviousId(next.getId(), message.getId());
                 }
+            }
+        }
+    }
 
-                User currentUser = Chat.getInstance().getClient().getCurrentUser();
-                String currentUserId = currentUser.getId();
-
-                if (channel != null) {
-                    channelState.postValue(channel);
+    /**
+     * The message list of the channel has no gaps, so the message before a message in the list is the one
+     * right before it in the channel
+     *
+     * @return the id of the channel message before the given one, empty if it is the first message of the channel
+     * and null if unknown
+     */
+    @Nullable
+    private String getPreviousId(String messageId) {
+        int index = messageStore.indexOf(messageId);
+        if (index == -1) return null;
+        for (int i = index - 1; i >= 0; i--) {
+            Message previous = messageStore.getAt(i);
+            if (TextUtils.isEmpty(previous.getParentId())) {
+                return previous.getId();
+            }
+        }
+        return reachedEndOfPagination ? "" : null;
+    }
 
-                    int unreadMessageCount = LlcMigrationUtils.getUnreadMessageCount(currentUserId, channel);
+    /**
+     * Stores a page of older messages linked to the message list, so the next time they are paged from disk
+     *
+     * @param page   the page, oldest first
+     * @param before the oldest message of the list when the page was requested
+     */
+    private void storeOlderMessages(List<Message> page, Message before, int limit) {
+        ChatStorage storage = Chat.getInstance().getStorage();
+        if (storage == null) return;
 
-                    if (unreadMessageCount != lastCurrentUserUnreadMessageCount) {
-                        lastCurrentUserUnreadMessageCount = unreadMessageCount;
-                        currentUserUnreadMessageCount.postValue(lastCurrentUserUnreadMessageCount);
-                    }
-                }
+        String cid = getCid();
+        String firstPreviousId = page.size() < limit ? "" : null;
+        storage.storeMessages(cid, page, firstPreviousId);
 
-                return null;
-            }
-        }));
+        String lastId = firstPreviousId;
+        for (Message message : page) {
+            if (TextUtils.isEmpty(message.getParentId())) lastId = message.getId();
+        }
+        if (lastId != null) {
+            storage.updatePreviousId(before.getId(), lastId);
+        }
+    }
 
+    /**
+     * @return the batcher the socket events go through, to configure the batch window and read its metrics
+     */
+    public ChatEventBatcher getEventBatcher() {
+        return eventBatcher;
     }
 
     protected void replaceMessage(Message oldMessage, Message newMessage) {
-        List<Message> messagesCopy = getMessages().getValue();
-        String oldMessageId = oldMessage.getId();
-        for (int i = messagesCopy.size() - 1; i >= 0; i--) {
-            String messageId = messagesCopy.get(i).getId();
-            if (oldMessageId.equals(messageId)) {
-                //TODO: llc test offline case
-//                if (oldMessage.getSyncStatus() == Sync.LOCAL_FAILED) {
-//                    messagesCopy.remove(oldMessage);
-//                } else {
-//                    messagesCopy.set(i, newMessage);
-//                }
-
-                messagesCopy.set(i, newMessage);
-
-                if (isThread())
-                    threadMessages.postValue(messagesCopy);
-                else
-                    updateMessageLiveData(messagesCopy);
-
-                break;
-            }
-        }
+        //TODO: llc test offline case
+//        if (oldMessage.getSyncStatus() == Sync.LOCAL_FAILED) {
+//            messagesCopy.remove(oldMessage);
+//        }
+        getMessageStore().replace(oldMessage.getId(), newMessage);
     }
 
     protected void upsertMessage(Message message) {
@@ -500,72 +651,55 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
                     || !message.getParentId().equals(threadParentMessage.getValue().getId()))
                 return;
 
-            List<Message> messagesCopy = threadMessages.getValue();
-            for (int i = 0; i < threadMessages.getValue().size(); i++) {
-                if (message.getId().equals(threadMessages.getValue().get(i).getId())) {
-                    messagesCopy.set(i, message);
-                    threadMessages.postValue(messagesCopy);
-                    return;
-                }
-            }
-
-            messagesCopy.add(message);
-            threadMessages.postValue(messagesCopy);
+            threadMessageStore.upsert(message);
         } else {
-            List<Message> messagesCopy = messages.getValue();
-            boolean updated = false;
-            for (int i = 0; i < messagesCopy.size(); i++) {
-                Message m = messagesCopy.get(i);
-                if (m.getId().equals(message.getId())) {
-                    updated = true;
-                    messagesCopy.set(i, message);
-                    break;
-                }
-            }
-
-            if (!updated) {
-                messagesCopy.add(message);
-            }
-
-            updateMessageLiveData(messagesCopy);
+            messageStore.upsert(message);
             markLastMessageRead();
         }
     }
 
-    private void updateMessageLiveData(List<Message> messagesCopy) {
-        messages.postValue(messagesCopy);
+    private void updateMessageLiveData(MessageListDelta delta, List<Message> snapshot) {
+        prerenderMarkdown(delta);
+        entities.addDelta(delta, false);
+        messages.postValue(snapshot);
+    }
+
+    private void updateThreadMessageLiveData(MessageListDelta delta, List<Message> snapshot) {
+        prerenderMarkdown(delta);
+        entities.addDelta(delta, true);
+        threadMessages.postValue(snapshot);
+    }
+
+    /**
+     * Renders the texts of new and changed messages in the background before their rows are bound
+     */
+    private void prerenderMarkdown(MessageListDelta delta) {
+        if (delta.getMessages().isEmpty() || MarkdownImpl.getMarkdownListener() != null) return;
+        Markdown.getInstance(getApplication()).prerender(delta.getMessages());
+    }
+
+    /**
+     * @return the store of the list that is currently shown, the thread or the channel
+     */
+    protected MessageStore getMessageStore() {
+        return isThread() ? threadMessageStore : messageStore;
     }
 
     protected boolean updateMessage(Message message) {
         // doesn't touch the message order, since message.created_at can't change
-        List<Message> messagesCopy = getMessages().getValue();
-        boolean updated = false;
+        boolean updated;
         if (message.getType().equals(ModelType.message_reply)
                 || !TextUtils.isEmpty(message.getParentId())) {
             if (!isThread()
                     || !message.getParentId().equals(threadParentMessage.getValue().getId()))
-                return updated;
+                return false;
 
-            for (int i = 0; i < threadMessages.getValue().size(); i++) {
-                if (message.getId().equals(threadMessages.getValue().get(i).getId())) {
-                    messagesCopy.set(i, message);
-                    threadMessages.postValue(messagesCopy);
-                    updated = true;
-                    break;
-                }
-            }
+            updated = threadMessageStore.update(message);
         } else {
-            int index = LlcMigrationUtils.indexOf(messagesCopy, message);
-            updated = index != -1;
-            if (updated) {
-                messagesCopy.set(index, message);
-                updateMessageLiveData(messagesCopy);
-            }
+            updated = messageStore.update(message);
             // Check if message is Thread Parent Message
             if (isThread() && threadParentMessage.getValue().getId().equals(message.getId())) {
-                List<Message> messagesCopy_ = threadMessages.getValue();
-                messagesCopy_.set(0, message);
-                threadMessages.postValue(messagesCopy_);
+                threadMessageStore.update(message);
                 updated = true;
             }
             logger.logI("updateMessage:" + updated);
@@ -575,135 +709,60 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
     protected void updateFailedMessage(Message message) {
         // doesn't touch the message order, since message.created_at can't change
-        List<Message> messagesCopy = messages.getValue();
-        int index = LlcMigrationUtils.indexOf(messagesCopy, message);
-        boolean updated = index != -1;
-        if (updated) {
-            User currentUser = Chat.getInstance().getClient().getCurrentUser();
-            String clientSideID = currentUser.getUserId() + "-" + randomUUID().toString();
-            message.setId(clientSideID);
-            messagesCopy.set(index, message);
-            updateMessageLiveData(messagesCopy);
-        }
+        String oldId = message.getId();
+        if (!messageStore.contains(oldId)) return;
+
+        User currentUser = Chat.getInstance().getClient().getCurrentUser();
+        String clientSideID = currentUser.getUserId() + "-" + randomUUID().toString();
+        message.setId(clientSideID);
+        messageStore.replace(oldId, message);
     }
 
     protected void shuffleGiphy(Message oldMessage, Message message) {
-        List<Message> messagesCopy = getMessages().getValue();
-        int index = LlcMigrationUtils.indexOf(messagesCopy, oldMessage);
-        if (index != -1) {
-            messagesCopy.set(index, message);
-            if (isThread())
-                threadMessages.postValue(messagesCopy);
-            else
-                updateMessageLiveData(messagesCopy);
-        }
+        getMessageStore().replace(oldMessage.getId(), message);
     }
 
 
     protected boolean deleteMessage(Message message) {
-        List<Message> messagesCopy = getMessages().getValue();
-        for (int i = 0; i < messagesCopy.size(); i++) {
-            if (message.getId().equals(messagesCopy.get(i).getId())) {
-                messagesCopy.set(i, message);
-                if (isThread()) {
-                    if (i == 0)
-                        initThread();
-                    else
-                        threadMessages.postValue(messagesCopy);
-                } else
-                    updateMessageLiveData(messagesCopy);
-
-                return true;
-            }
-        }
-        return false;
+        MessageStore store = getMessageStore();
+        int index = store.indexOf(message.getId());
+        if (index == -1) return false;
+
+        if (isThread() && index == 0)
+            initThread();
+        else
+            store.update(message);
+        return true;
     }
 
     protected void checkErrorOrPendingMessage() {
-        boolean hasErrorOrPendingMessage = false;
-        List<Message> messagesCopy = getMessages().getValue();
-        for (int i = 0; i < messagesCopy.size(); i++) {
-            Message message = getMessages().getValue().get(i);
-            if (message.getType().equals(ModelType.message_error)) {
-                messagesCopy.remove(i);
-                hasErrorOrPendingMessage = true;
-            }
-        }
-        if (!hasErrorOrPendingMessage) return;
-
-        if (isThread()) {
-            threadMessages.postValue(messagesCopy);
-        } else
-            updateMessageLiveData(messagesCopy);
+        getMessageStore().removeType(ModelType.message_error);
     }
 
     protected void checkFailedMessage(Message message) {
-
-        List<Message> messagesCopy = getMessages().getValue();
-        for (int i = 0; i < messagesCopy.size(); i++) {
-            if (message.getId().equals(messagesCopy.get(i).getId())) {
-                messagesCopy.remove(message);
-                if (isThread())
-                    threadMessages.postValue(messagesCopy);
-                else
-                    updateMessageLiveData(messagesCopy);
-                break;
-            }
-        }
+        getMessageStore().remove(message.getId());
     }
 
     protected void addMessage(Message message) {
-        List<Message> messagesCopy = getMessages().getValue();
-        messagesCopy.add(message);
-        if (isThread())
-            threadMessages.postValue(messagesCopy);
-        else
-            updateMessageLiveData(messagesCopy);
-
+        getMessageStore().upsert(message);
     }
 
 
     protected void addMessages(List<Message> newMessages) {
-        List<Message> messagesCopy = messages.getValue();
-        if (messagesCopy == null) {
-            messagesCopy = new ArrayList<>();
-        }
-
-        // iterate in reverse-order since newMessages is assumed to be ordered by created_at DESC
-        for (int i = newMessages.size() - 1; i >= 0; i--) {
-            Message message = newMessages.get(i);
-
-            int index = LlcMigrationUtils.indexOf(messagesCopy, message);
-
-            if (index == -1) {
-                messagesCopy.add(0, message);
-            } else {
-                messagesCopy.set(index, message);
-            }
-        }
-        updateMessageLiveData(messagesCopy);
+        // a single merge pass, newMessages is usually a page of older messages
+        messageStore.merge(newMessages);
     }
 
     protected void onChannelLoaded(Channel channel) {
 
         reachedEndOfPagination = channel.getMessages().size() < 10;
 
-        //Log.d(TAG, "Setting channel. Client:" + client() + ", storage:" + client().getStorage());
-        // fetch offline messages
-//        client().getStorage().selectChannelState(channel.getCid(), new OnQueryListener<ChannelState>() {
-//            @Override
-//            public void onSuccess(ChannelState channelState) {
-//                StreamChat.getLogger().logI("Read messages from local cache...");
-//                if (channelState != null) {
-//                    messages.setValue(channelState.getMessages());
-//                }
-//            }
-//
-//            @Override
-//            public void onFailure(Exception e) {
-//                StreamChat.getLogger().logW(this, String.format("Failed to read channel state from offline storage, error %s", e.toString()));
-//            }
-//        });
+        channelLoaded = true;
+        onFirstContent("network");
+        ChatStorage storage = Chat.getInstance().getStorage();
+        if (storage != null) {
+            storage.storeChannel(channel, reachedEndOfPagination);
+        }
 
         User currentUser = Chat.getInstance().getClient().getCurrentUser();
 
@@ -715,7 +774,9 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
         channelState.postValue(channel);
         reads.setValue(getReadsByUser(channel));
-        messages.setValue(channel.getMessages());
+        messageStore.setMessages(channel.getMessages());
+        resetMessagePagination();
+        indexSuggestions(channel);
         initEventHandlers();
         setLoadingDone();
         initialized.postValue(channel);
@@ -764,6 +825,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
         for (Subscription sub : subscriptions) sub.unsubscribe();
         subscriptions.clear();
+        eventBatcher.cancel();
 
 
         if (looper != null) {
@@ -801,6 +863,76 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         }));
     }
 
+    /**
+     * Shows the channel and its latest messages from the offline storage until the network responds
+     */
+    private void readOfflineChannel(int messageLimit) {
+        ChatStorage storage = Chat.getInstance().getStorage();
+        if (storage == null) return;
+
+        storage.selectChannel(getCid(), messageLimit, new OnQueryListener<Channel>() {
+            @Override
+            public void onSuccess(Channel channel) {
+                // the network was faster
+                if (channel == null || channelLoaded) return;
+                logger.logI("Read " + channel.getMessages().size() + " messages from the offline storage");
+                channelState.setValue(channel);
+                reads.setValue(getReadsByUser(channel));
+                messageStore.setMessages(channel.getMessages());
+                resetMessagePagination();
+                indexSuggestions(channel);
+                onFirstContent("offline storage");
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                logger.logE("Failed to read channel state from offline storage, error " + e.toString());
+            }
+        });
+    }
+
+    /**
+     * Indexes the members and commands of the channel in the background
+     */
+    private void indexSuggestions(Channel channel) {
+        List<User> users = new ArrayList<>(channel.getMembers().size());
+        for (Member member : channel.getMembers()) {
+            users.add(member.getUser());
+        }
+        List<Command> commands = channel.getConfig() == null || channel.getConfig().getCommands() == null
+                ? new ArrayList<>() : new ArrayList<>(channel.getConfig().getCommands());
+        updateSuggestions(() -> {
+            mentionIndex.setAll(users);
+            commandIndex.setAll(commands);
+        });
+    }
+
+    /**
+     * Runs a change of the suggestion indexes after the ones before it, so that a member event isn't
+     * overwritten by the members of a channel state that was indexed before it
+     */
+    private void updateSuggestions(Runnable change) {
+        // AsyncTask.execute runs one task at a time, in order
+        AsyncTask.execute(change);
+    }
+
+    private void onFirstContent(String source) {
+        if (timeToFirstContent != -1) return;
+        timeToFirstContent = SystemClock.uptimeMillis() - loadStartTime;
+        logger.logI("Showing messages from the " + source + " after " + timeToFirstContent + "ms");
+    }
+
+    /**
+     * @return the time in milliseconds from watching the channel to showing the first messages, -1 until then
+     */
+    public long getTimeToFirstContent() {
+        return timeToFirstContent;
+    }
+
+    private String getCid() {
+        return channelType + ":" + channelId;
+    }
+
     /**
      * watches channel
      */
@@ -808,6 +940,9 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         int limit = 10; // Constant.DEFAULT_LIMIT
         if (!setLoading()) return;
 
+        loadStartTime = SystemClock.uptimeMillis();
+        readOfflineChannel(limit);
+
         ChannelWatchRequest request = new ChannelWatchRequest().withMessages(limit);
 
         Chat.getInstance().getClient().queryChannel(channelType, channelId, request).enqueue(new Function1<Result<Channel>, Unit>() {
@@ -832,13 +967,10 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
      * loads more messages, use this to load a previous page
      */
     public void loadMore() {
-        if (!Chat.getInstance().getClient().isSocketConnected()) {
-            logger.logI("connection failed.");
-            return;
-        }
+        if (!canLoadMore()) return;
 
-        if (isLoading.get()) {
-            logger.logI("already loading, skip loading more");
+        if (!isThread()) {
+            messagePagination.requestPage();
             return;
         }
 
@@ -847,68 +979,210 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
             return;
         }
 
+        if (reachedEndOfPaginationThread) {
+            setLoadingMoreDone();
+            logger.logI("already reached end of pagination, skip loading more");
+            return;
+        }
+
+        if (threadParentMessage.getValue() == null) {
+            setLoadingMoreDone();
+            logger.logI("Can't find thread parent message.");
+            return;
+        }
+
+        String id = threadParentMessage.getValue().getId();
+        String oldestMessageId = getThreadOldestMessageId();
+
+        if (oldestMessageId.isEmpty()) {
+            Chat.getInstance().getClient().getReplies(id, Constant.DEFAULT_LIMIT).enqueue(result -> {
+                onReactionsLoaded(result);
+                return null;
+            });
+        } else {
+            Chat.getInstance().getClient().getRepliesMore(id, oldestMessageId, Constant.DEFAULT_LIMIT).enqueue(result -> {
+                onReactionsLoaded(result);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Loads older messages before the list is scrolled to the top
+     *
+     * @param firstVisiblePosition the position of the first message shown, the list is scrolling up
+     */
+    public void onMessageListScrolledUp(int firstVisiblePosition) {
         if (isThread()) {
-            if (reachedEndOfPaginationThread) {
-                setLoadingMoreDone();
-                logger.logI("already reached end of pagination, skip loading more");
+            if (firstVisiblePosition == 0) loadMore();
+            return;
+        }
+        if (!canLoadMore()) return;
+        messagePagination.onScrolled(firstVisiblePosition);
+    }
+
+    /**
+     * @return the pagination of the messages of the channel, to set its prefetch distance or read its latencies
+     */
+    public PaginationController<List<Message>> getMessagePagination() {
+        return messagePagination;
+    }
+
+    private boolean canLoadMore() {
+        // stored messages can be paged without a connection
+        if (!Chat.getInstance().getClient().isSocketConnected()
+                && (isThread() || Chat.getInstance().getStorage() == null)) {
+            logger.logI("connection failed.");
+            return false;
+        }
+
+        if (isLoading.get()) {
+            logger.logI("already loading, skip loading more");
+            return false;
+        }
+        return true;
+    }
+
+    protected void resetMessagePagination() {
+        messagePager.reset();
+        messagePagination.reset();
+    }
+
+    /**
+     * Fetches the pages of older messages from the offline storage and fills its gaps from the network.
+     * The pages follow each other, a page is fetched before the previous one is added to the list
+     */
+    private class MessagePager implements PaginationController.Pager<List<Message>> {
+        // the oldest message fetched since the last reset, null for the oldest message of the list
+        private Message oldestFetched;
+        private int fetchGeneration;
+        private boolean fetchedEnd;
+
+        @Override
+        public void fetch(int limit, PaginationController.FetchCallback<List<Message>> callback) {
+            int generation = ++fetchGeneration;
+            Message oldest = oldestFetched != null ? oldestFetched : messageStore.getAt(0);
+            if (reachedEndOfPagination || oldest == null) {
+                deliver(generation, new ArrayList<>(), true, callback);
                 return;
             }
 
-            if (threadParentMessage.getValue() == null) {
-                setLoadingMoreDone();
-                logger.logI("Can't find thread parent message.");
+            ChatStorage storage = Chat.getInstance().getStorage();
+            if (storage == null) {
+                fetchFromNetwork(generation, oldest, limit, new ArrayList<>(), callback);
                 return;
             }
+            storage.selectMessagesBefore(getCid(), oldest.getId(), limit, new OnQueryListener<MessagePage>() {
+                @Override
+                public void onSuccess(MessagePage page) {
+                    logger.logI("Read " + page.messages.size() + " older messages from the offline storage");
+                    List<Message> messages = new ArrayList<>(page.messages);
+                    if (page.startOfChannel) {
+                        deliver(generation, messages, true, callback);
+                        return;
+                    }
+                    int missing = limit - messages.size();
+                    if (missing <= 0) {
+                        deliver(generation, messages, false, callback);
+                        return;
+                    }
+                    // the storage ends or has a gap here, the network fills it
+                    fetchFromNetwork(generation, getOldest(messages, oldest), missing, messages, callback);
+                }
 
-            String id = threadParentMessage.getValue().getId();
-            String oldestMessageId = getThreadOldestMessageId();
-
-            if (oldestMessageId.isEmpty()) {
-                Chat.getInstance().getClient().getReplies(id, Constant.DEFAULT_LIMIT).enqueue(result -> {
-                    onReactionsLoaded(result);
-                    return null;
-                });
-            } else {
-                Chat.getInstance().getClient().getRepliesMore(id, oldestMessageId, Constant.DEFAULT_LIMIT).enqueue(result -> {
-                    onReactionsLoaded(result);
-                    return null;
-                });
-            }
-        } else {
+                @Override
+                public void onFailure(Exception e) {
+                    logger.logE("Failed to read older messages from offline storage, error " + e.toString());
+                    fetchFromNetwork(generation, oldest, limit, new ArrayList<>(), callback);
+                }
+            });
+        }
 
-            if (reachedEndOfPagination) {
-                setLoadingMoreDone();
-                logger.logI("already reached end of pagination, skip loading more");
+        private void fetchFromNetwork(int generation,
+                                      Message oldestMessage,
+                                      int limit,
+                                      List<Message> messages,
+                                      PaginationController.FetchCallback<List<Message>> callback) {
+            if (!Chat.getInstance().getClient().isSocketConnected()) {
+                logger.logI("connection failed.");
+                failOrDeliver(generation, messages, callback);
                 return;
             }
 
-            Message oldestMessage = messages.getValue().get(0);
-            String oldestMessageId = oldestMessage.getId();
-
             ChannelQueryRequest request = new ChannelQueryRequest().
                     withMessages(Pagination.LESS_THAN,
-                            oldestMessageId,
-                            Constant.DEFAULT_LIMIT);
+                            oldestMessage.getId(),
+                            limit);
 
             Chat.getInstance().getClient().queryChannel(channelType, channelId, request).enqueue(result -> {
-
                 if (result.isSuccess()) {
-
-                    Channel channel = result.data();
-
-                    reachedEndOfPagination = channel.getMessages().isEmpty();
-                    List<Message> newMessages = new ArrayList<>(channel.getMessages());
-                    // used to modify the scroll behaviour...
-                    entities.setIsLoadingMore(true);
-                    addMessages(newMessages);
-                    setLoadingMoreDone();
+                    List<Message> newMessages = new ArrayList<>(result.data().getMessages());
+                    storeOlderMessages(newMessages, oldestMessage, limit);
+                    messages.addAll(newMessages);
+                    deliver(generation, messages, newMessages.isEmpty(), callback);
                 } else {
-                    setLoadingMoreDone();
+                    failOrDeliver(generation, messages, callback);
                 }
-
                 return null;
             });
         }
+
+        private void failOrDeliver(int generation,
+                                   List<Message> messages,
+                                   PaginationController.FetchCallback<List<Message>> callback) {
+            if (messages.isEmpty()) {
+                if (generation == fetchGeneration) callback.onFailed();
+            } else {
+                deliver(generation, messages, false, callback);
+            }
+        }
+
+        private void deliver(int generation,
+                             List<Message> messages,
+                             boolean end,
+                             PaginationController.FetchCallback<List<Message>> callback) {
+            // fetched before a reset
+            if (generation != fetchGeneration) return;
+            oldestFetched = getOldest(messages, oldestFetched);
+            fetchedEnd = end;
+            callback.onFetched(messages, end);
+        }
+
+        private Message getOldest(List<Message> messages, Message oldest) {
+            for (Message message : messages) {
+                if (oldest == null
+                        || (message.getCreatedAt() != null && oldest.getCreatedAt() != null
+                        && message.getCreatedAt().before(oldest.getCreatedAt()))) {
+                    oldest = message;
+                }
+            }
+            return oldest;
+        }
+
+        @Override
+        public void show(List<Message> page) {
+            // the page is the last one, it was fetched right before
+            if (fetchedEnd) reachedEndOfPagination = true;
+            if (page.isEmpty()) return;
+            // used to modify the scroll behaviour...
+            entities.setIsLoadingMore(true);
+            addMessages(page);
+        }
+
+        @Override
+        public void onWaitingChanged(boolean waiting) {
+            if (waiting) {
+                setLoadingMore();
+            } else {
+                setLoadingMoreDone();
+            }
+        }
+
+        void reset() {
+            fetchGeneration++;
+            oldestFetched = null;
+            fetchedEnd = false;
+        }
     }
 
     private void onReactionsLoaded(Result<List<Message>> result) {
@@ -918,11 +1192,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
             entities.setIsLoadingMore(true);
             List<Message> newMessages = new ArrayList<>(messages);
-            List<Message> messagesCopy = threadMessages.getValue();
-            for (int i = newMessages.size() - 1; i > -1; i--)
-                messagesCopy.add(1, newMessages.get(i));
-
-            threadMessages.postValue(messagesCopy);
+            threadMessageStore.merge(newMessages);
             reachedEndOfPaginationThread = newMessages.size() < Constant.DEFAULT_LIMIT;
             setLoadingMoreDone();
         } else {
@@ -1017,15 +1287,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
                 map.put("image_action", ModelType.action_shuffle);
                 break;
             case CANCEL:
-                List<Message> messagesCopy = getMessages().getValue();
-                int index = LlcMigrationUtils.indexOf(messagesCopy, message);
-                if (index != -1) {
-                    messagesCopy.remove(message);
-                    if (isThread())
-                        threadMessages.postValue(messagesCopy);
-                    else
-                        updateMessageLiveData(messagesCopy);
-                }
+                getMessageStore().remove(message.getId());
                 return;
         }
 
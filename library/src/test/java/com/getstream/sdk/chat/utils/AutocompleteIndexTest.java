@@ -0,0 +1,85 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AutocompleteIndexTest {
+
+    private static final AutocompleteIndex.Naming<String[]> NAMING = new AutocompleteIndex.Naming<String[]>() {
+        @Override
+        public String getKey(String[] item) {
+            return item[0];
+        }
+
+        @Override
+        public String getName(String[] item) {
+            return item[1];
+        }
+    };
+
+    private AutocompleteIndex<String[]> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AutocompleteIndex<>(NAMING);
+        index.putAll(Arrays.asList(
+                user("1", "Mary Jones"),
+                user("2", "John Smith"),
+                user("3", "José Álvarez"),
+                user("4", "Jonas")
+        ));
+    }
+
+    @Test
+    void findsNamesByPrefixFirstThenByWord() {
+        assertEquals(Arrays.asList("2", "4", "3", "1"), keys(index.search("Jo", 10)));
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        assertEquals(Collections.singletonList("3"), keys(index.search("jose", 10)));
+        assertEquals(Collections.singletonList("3"), keys(index.search("ALV", 10)));
+    }
+
+    @Test
+    void limitsTheResults() {
+        assertEquals(2, index.search("", 2).size());
+        assertEquals(4, index.search("", 10).size());
+    }
+
+    @Test
+    void aSpaceEndsTheName() {
+        assertEquals(Collections.singletonList("4"), keys(index.search("jonas", 10)));
+        assertTrue(index.search("jonas ", 10).isEmpty());
+        assertEquals(Collections.singletonList("2"), keys(index.search("john s", 10)));
+    }
+
+    @Test
+    void updatesIncrementally() {
+        index.put(user("5", "Johanna"));
+        index.remove("2");
+        index.put(user("4", "Bob"));
+        assertEquals(Arrays.asList("5", "3", "1"), keys(index.search("jo", 10)));
+        assertEquals(Collections.singletonList("4"), keys(index.search("b", 10)));
+        assertEquals(4, index.size());
+    }
+
+    private static String[] user(String id, String name) {
+        return new String[]{id, name};
+    }
+
+    private static List<String> keys(List<String[]> items) {
+        String[] keys = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            keys[i] = items.get(i)[0];
+        }
+        return Arrays.asList(keys);
+    }
+}
@@ -0,0 +1,93 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.getstream.chat.android.client.events.ChatEvent;
+import io.getstream.chat.android.client.events.MessageDeletedEvent;
+import io.getstream.chat.android.client.events.MessageReadEvent;
+import io.getstream.chat.android.client.events.MessageUpdatedEvent;
+import io.getstream.chat.android.client.events.NewMessageEvent;
+import io.getstream.chat.android.client.events.ReactionDeletedEvent;
+import io.getstream.chat.android.client.events.ReactionNewEvent;
+import io.getstream.chat.android.client.events.TypingStartEvent;
+import io.getstream.chat.android.client.events.TypingStopEvent;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ChatEventBatcherTest {
+
+    @Test
+    void keepsABatchWithoutRedundantEvents() {
+        List<ChatEvent> events = Arrays.asList(
+                withMessage(new NewMessageEvent(), "1"),
+                withMessage(new MessageUpdatedEvent(), "2"),
+                withUser(new TypingStartEvent(), "a"),
+                new MessageReadEvent());
+
+        assertSame(events, ChatEventBatcher.coalesce(events));
+    }
+
+    @Test
+    void keepsTheLastUpdateOfAMessage() {
+        ChatEvent lastUpdate = withMessage(new MessageUpdatedEvent(), "1");
+        ChatEvent otherMessage = withMessage(new MessageUpdatedEvent(), "2");
+        List<ChatEvent> events = Arrays.asList(
+                withMessage(new MessageUpdatedEvent(), "1"),
+                withMessage(new ReactionNewEvent(), "1"),
+                otherMessage,
+                withMessage(new ReactionDeletedEvent(), "1"),
+                lastUpdate);
+
+        assertEquals(Arrays.asList(otherMessage, lastUpdate), ChatEventBatcher.coalesce(events));
+    }
+
+    @Test
+    void keepsTheUpdatesAroundANewOrDeletedMessage() {
+        ChatEvent before = withMessage(new ReactionNewEvent(), "1");
+        ChatEvent deleted = withMessage(new MessageDeletedEvent(), "1");
+        ChatEvent created = withMessage(new NewMessageEvent(), "1");
+        ChatEvent after = withMessage(new MessageUpdatedEvent(), "1");
+        List<ChatEvent> events = Arrays.asList(before, deleted, created, after);
+
+        assertEquals(events, ChatEventBatcher.coalesce(events));
+    }
+
+    @Test
+    void keepsTheLastTypingEventOfAUser() {
+        ChatEvent otherUser = withUser(new TypingStartEvent(), "b");
+        ChatEvent stop = withUser(new TypingStopEvent(), "a");
+        List<ChatEvent> events = Arrays.asList(
+                withUser(new TypingStartEvent(), "a"),
+                otherUser,
+                stop);
+
+        assertEquals(Arrays.asList(otherUser, stop), ChatEventBatcher.coalesce(events));
+    }
+
+    @Test
+    void keepsTheLastReadEvent() {
+        ChatEvent message = withMessage(new NewMessageEvent(), "1");
+        ChatEvent lastRead = new MessageReadEvent();
+        List<ChatEvent> events = Arrays.asList(new MessageReadEvent(), message, new MessageReadEvent(), lastRead);
+
+        assertEquals(Arrays.asList(message, lastRead), ChatEventBatcher.coalesce(events));
+    }
+
+    private static ChatEvent withMessage(ChatEvent event, String messageId) {
+        Message message = new Message();
+        message.setId(messageId);
+        event.setMessage(message);
+        return event;
+    }
+
+    private static ChatEvent withUser(ChatEvent event, String userId) {
+        event.setUser(new User(userId));
+        return event;
+    }
+}
@@ -0,0 +1,51 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmojiClassifierTest {
+
+    private static final String GRINNING = "😀";
+    private static final String THUMBS_UP_MEDIUM = "👍🏽";
+    private static final String FAMILY = "👨‍👩‍👧‍👦";
+    private static final String FLAG_NL = "🇳🇱";
+    private static final String KEYCAP_ONE = "1️⃣";
+    private static final String RED_HEART = "❤️";
+
+    @Test
+    void countsSingleEmoji() {
+        assertEquals(1, EmojiClassifier.countEmoji(GRINNING, Integer.MAX_VALUE));
+        assertEquals(1, EmojiClassifier.countEmoji(RED_HEART, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void countsSequencesAsOneEmoji() {
+        assertEquals(1, EmojiClassifier.countEmoji(THUMBS_UP_MEDIUM, Integer.MAX_VALUE));
+        assertEquals(1, EmojiClassifier.countEmoji(FAMILY, Integer.MAX_VALUE));
+        assertEquals(1, EmojiClassifier.countEmoji(FLAG_NL, Integer.MAX_VALUE));
+        assertEquals(1, EmojiClassifier.countEmoji(KEYCAP_ONE, Integer.MAX_VALUE));
+        assertEquals(3, EmojiClassifier.countEmoji(FAMILY + FLAG_NL + RED_HEART, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsOtherText() {
+        assertEquals(-1, EmojiClassifier.countEmoji("hi " + GRINNING, Integer.MAX_VALUE));
+        assertEquals(-1, EmojiClassifier.countEmoji(GRINNING + " " + GRINNING, Integer.MAX_VALUE));
+        assertEquals(-1, EmojiClassifier.countEmoji("1", Integer.MAX_VALUE));
+        assertEquals(-1, EmojiClassifier.countEmoji(GRINNING + "‍", Integer.MAX_VALUE));
+        assertEquals(0, EmojiClassifier.countEmoji("", Integer.MAX_VALUE));
+        assertFalse(EmojiClassifier.isEmojiOnly(null));
+        assertFalse(EmojiClassifier.isEmojiOnly(""));
+    }
+
+    @Test
+    void detectsJumboEmoji() {
+        assertTrue(EmojiClassifier.isJumboEmoji(GRINNING));
+        assertTrue(EmojiClassifier.isJumboEmoji(GRINNING + GRINNING + GRINNING));
+        assertFalse(EmojiClassifier.isJumboEmoji(GRINNING + GRINNING + GRINNING + GRINNING));
+        assertTrue(EmojiClassifier.isEmojiOnly(GRINNING + GRINNING + GRINNING + GRINNING));
+    }
+}
@@ -0,0 +1,118 @@
+package com.getstream.sdk.chat.utils;
+
+import com.getstream.sdk.chat.adapter.MessageListItem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MessageListItemBuilderTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private User me;
+    private User other;
+    private List<Message> messages;
+    private MessageListItemBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        me = new User("me");
+        other = new User("other");
+        messages = new ArrayList<>();
+        long start = 1_500_000_000_000L;
+        messages.add(message("1", other, start));
+        messages.add(message("2", other, start + 1000));
+        messages.add(message("3", me, start + 2000));
+        messages.add(message("4", me, start + DAY));
+        messages.add(message("5", other, start + DAY + 1000));
+        builder = new MessageListItemBuilder(me);
+        builder.rebuild(messages, false);
+    }
+
+    @Test
+    void appendRebuildsOnlyTheLastMessages() {
+        Message message = message("6", other, 1_500_000_000_000L + DAY + 2000);
+        messages.add(message);
+
+        assertTrue(builder.apply(MessageListDelta.append(messages.size() - 1, message)));
+
+        assertEquals(2, builder.getItemsRebuiltLastEvent());
+        assertSameItems(messages, false);
+    }
+
+    @Test
+    void prependRebuildsThePageAndTheOldFirstMessage() {
+        long start = 1_500_000_000_000L - 2 * DAY;
+        List<Message> page = Arrays.asList(message("a", me, start), message("b", other, start + 1000));
+        messages.addAll(0, page);
+
+        assertTrue(builder.apply(MessageListDelta.prepend(0, page)));
+
+        assertSameItems(messages, false);
+    }
+
+    @Test
+    void updateAndDelete() {
+        Message updated = message("3", other, messages.get(2).getCreatedAt().getTime());
+        messages.set(2, updated);
+        assertTrue(builder.apply(MessageListDelta.update(2, updated)));
+        assertSameItems(messages, false);
+
+        messages.remove(3);
+        assertTrue(builder.apply(MessageListDelta.delete(3)));
+        assertSameItems(messages, false);
+    }
+
+    @Test
+    void threadKeepsTheParentSeparated() {
+        builder.rebuild(messages, true);
+        Message reply = message("r", other, 1_500_000_000_000L + DAY + 5000);
+        messages.add(reply);
+
+        assertTrue(builder.apply(MessageListDelta.append(messages.size() - 1, reply)));
+
+        assertSameItems(messages, true);
+    }
+
+    @Test
+    void deltaOutOfRangeIsRejected() {
+        assertFalse(builder.apply(MessageListDelta.delete(messages.size())));
+        assertFalse(builder.apply(MessageListDelta.append(messages.size() + 1, message("x", me, 0))));
+    }
+
+    private void assertSameItems(List<Message> messages, boolean thread) {
+        MessageListItemBuilder expected = new MessageListItemBuilder(me);
+        expected.rebuild(messages, thread);
+        List<MessageListItem> expectedItems = expected.getItems();
+        List<MessageListItem> actualItems = builder.getItems();
+
+        assertEquals(expectedItems.size(), actualItems.size());
+        for (int i = 0; i < expectedItems.size(); i++) {
+            assertEquals(expectedItems.get(i).getType(), actualItems.get(i).getType());
+            if (expectedItems.get(i).getMessage() != null) {
+                assertEquals(expectedItems.get(i).getMessage(), actualItems.get(i).getMessage());
+                assertEquals(expectedItems.get(i).getPositions(), actualItems.get(i).getPositions());
+            }
+        }
+    }
+
+    private static Message message(String id, User user, long createdAt) {
+        Message message = new Message();
+        message.setId(id);
+        message.setUser(user);
+        message.setCreatedAt(new Date(createdAt));
+        return message;
+    }
+}
@@ -0,0 +1,109 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import io.getstream.chat.android.client.models.Message;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MessageStoreTest {
+
+    private MessageStore store;
+    private List<MessageListDelta> deltas;
+    private List<Message> lastSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        store = new MessageStore();
+        deltas = new ArrayList<>();
+        store.setOnChangeListener((delta, snapshot) -> {
+            deltas.add(delta);
+            lastSnapshot = snapshot;
+        });
+        store.setMessages(Arrays.asList(message("2", 2000), message("1", 1000), message("4", 4000)));
+        deltas.clear();
+    }
+
+    @Test
+    void messagesAreOrderedByCreatedAt() {
+        assertEquals(Arrays.asList("1", "2", "4"), ids(lastSnapshot));
+        assertEquals(2, store.indexOf("4"));
+    }
+
+    @Test
+    void upsertInsertsInOrder() {
+        store.upsert(message("3", 3000));
+        store.upsert(message("5", 5000));
+
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5"), ids(lastSnapshot));
+        assertEquals(MessageListDelta.Type.INSERT, deltas.get(0).getType());
+        assertEquals(2, deltas.get(0).getIndex());
+        assertEquals(MessageListDelta.Type.APPEND, deltas.get(1).getType());
+        assertEquals(4, deltas.get(1).getIndex());
+    }
+
+    @Test
+    void replaceChangesId() {
+        assertTrue(store.replace("2", message("server-2", 2000)));
+
+        assertEquals(Arrays.asList("1", "server-2", "4"), ids(lastSnapshot));
+        assertFalse(store.contains("2"));
+        assertEquals(MessageListDelta.Type.UPDATE, deltas.get(0).getType());
+    }
+
+    @Test
+    void mergePrependsOlderPage() {
+        store.merge(Arrays.asList(message("0", 500), message("-1", 100), message("1", 1000)));
+
+        assertEquals(Arrays.asList("-1", "0", "1", "2", "4"), ids(lastSnapshot));
+        // "1" was already known and got updated
+        assertEquals(MessageListDelta.Type.RESET, deltas.get(0).getType());
+
+        deltas.clear();
+        store.merge(Arrays.asList(message("-2", 50)));
+        assertEquals(MessageListDelta.Type.PREPEND, deltas.get(0).getType());
+        assertEquals(0, deltas.get(0).getIndex());
+    }
+
+    @Test
+    void republishResetsToTheCurrentMessages() {
+        store.upsert(message("3", 3000));
+        deltas.clear();
+        store.republish();
+
+        assertEquals(MessageListDelta.Type.RESET, deltas.get(0).getType());
+        assertEquals(Arrays.asList("1", "2", "3", "4"), ids(lastSnapshot));
+    }
+
+    @Test
+    void removeReportsIndex() {
+        assertTrue(store.remove("2"));
+        assertFalse(store.remove("2"));
+
+        assertEquals(1, deltas.size());
+        assertEquals(MessageListDelta.Type.DELETE, deltas.get(0).getType());
+        assertEquals(1, deltas.get(0).getIndex());
+        assertEquals(Arrays.asList("1", "4"), ids(lastSnapshot));
+    }
+
+    private static List<String> ids(List<Message> messages) {
+        List<String> ids = new ArrayList<>();
+        for (Message message : messages) ids.add(message.getId());
+        return ids;
+    }
+
+    private static Message message(String id, long createdAt) {
+        Message message = new Message();
+        message.setId(id);
+        message.setCreatedAt(new Date(createdAt));
+        return message;
+    }
+}
@@ -0,0 +1,144 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PaginationControllerTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 40;
+    private static final int PREFETCH_DISTANCE = 5;
+
+    private long now;
+    private List<PaginationController.FetchCallback<String>> fetches;
+    private List<Integer> limits;
+    private List<String> shown;
+    private List<Boolean> waiting;
+    private PaginationController<String> controller;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        fetches = new ArrayList<>();
+        limits = new ArrayList<>();
+        shown = new ArrayList<>();
+        waiting = new ArrayList<>();
+        controller = new PaginationController<>(new PaginationController.Pager<String>() {
+            @Override
+            public void fetch(int limit, PaginationController.FetchCallback<String> callback) {
+                limits.add(limit);
+                fetches.add(callback);
+            }
+
+            @Override
+            public void show(String page) {
+                shown.add(page);
+            }
+
+            @Override
+            public void onWaitingChanged(boolean isWaiting) {
+                waiting.add(isWaiting);
+            }
+        }, () -> now, PAGE_SIZE, MAX_PAGE_SIZE, PREFETCH_DISTANCE);
+    }
+
+    @Test
+    void requestsAPageWithinThePrefetchDistance() {
+        controller.onScrolled(PREFETCH_DISTANCE + 1);
+        assertTrue(fetches.isEmpty());
+        controller.onScrolled(PREFETCH_DISTANCE);
+        assertEquals(1, fetches.size());
+        assertEquals(PAGE_SIZE, (int) limits.get(0));
+        assertEquals(true, waiting.get(0));
+    }
+
+    @Test
+    void fetchesOnePageAtATime() {
+        controller.onScrolled(0);
+        controller.onScrolled(0);
+        controller.requestPage();
+        assertEquals(1, fetches.size());
+    }
+
+    @Test
+    void buffersTheNextPage() {
+        controller.onScrolled(0);
+        now += 300;
+        fetches.get(0).onFetched("1", false);
+        assertEquals(1, shown.size());
+        assertEquals(300, controller.getLastLatency());
+        assertFalse(waiting.get(waiting.size() - 1));
+
+        // the next page is fetched right away and kept
+        assertEquals(2, fetches.size());
+        fetches.get(1).onFetched("2", false);
+        assertEquals(1, shown.size());
+
+        controller.onScrolled(0);
+        assertEquals("2", shown.get(1));
+        assertEquals(0, controller.getLastLatency());
+        assertEquals(1, controller.getBufferHitCount());
+        assertEquals(1, controller.getBufferMissCount());
+        assertEquals(3, fetches.size());
+    }
+
+    @Test
+    void stopsAtTheEnd() {
+        controller.onScrolled(0);
+        fetches.get(0).onFetched("1", true);
+        controller.onScrolled(0);
+        assertEquals(1, fetches.size());
+        assertTrue(controller.isEndReached());
+    }
+
+    @Test
+    void ignoresTheFetchesBeforeAReset() {
+        controller.onScrolled(0);
+        controller.reset();
+        assertFalse(waiting.get(waiting.size() - 1));
+        fetches.get(0).onFetched("old", false);
+        assertTrue(shown.isEmpty());
+
+        controller.onScrolled(0);
+        assertEquals(2, fetches.size());
+    }
+
+    @Test
+    void refetchesAfterAnInvalidate() {
+        controller.onScrolled(0);
+        fetches.get(0).onFetched("1", false);
+        fetches.get(1).onFetched("stale", true);
+        controller.invalidate();
+        assertFalse(controller.isEndReached());
+
+        controller.onScrolled(0);
+        assertEquals(1, shown.size());
+        assertEquals(3, fetches.size());
+        fetches.get(2).onFetched("2", false);
+        assertEquals("2", shown.get(1));
+    }
+
+    @Test
+    void growsThePagesWithTheScrollSpeed() {
+        assertEquals(PAGE_SIZE, controller.getPageSize());
+        // 5 items per second
+        for (int distance = 100; distance > 90; distance--) {
+            controller.onScrolled(distance);
+            now += 200;
+        }
+        assertEquals(PAGE_SIZE, controller.getPageSize());
+        // 100 items per second, for the two fetches of 500 milliseconds
+        for (int distance = 90; distance > 10; distance -= 10) {
+            controller.onScrolled(distance);
+            now += 100;
+        }
+        assertEquals(MAX_PAGE_SIZE, controller.getPageSize());
+    }
+}
@@ -0,0 +1,83 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentListTest {
+
+    @Test
+    void behavesLikeArrayList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int step = 0; step < 2000; step++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, step);
+                list = list.plus(index, step);
+            } else if (operation == 1) {
+                int index = random.nextInt(expected.size());
+                expected.set(index, -step);
+                list = list.with(index, -step);
+            } else if (operation == 2) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                list = list.minus(index);
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                List<Integer> page = Collections.nCopies(random.nextInt(40), step);
+                expected.addAll(index, page);
+                list = list.plusAll(index, page);
+            }
+            assertEquals(expected, list);
+        }
+    }
+
+    @Test
+    void changesDontAffectPreviousVersions() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) elements.add(i);
+        PersistentList<Integer> first = PersistentList.of(elements);
+
+        PersistentList<Integer> second = first.with(50, -1).minus(0).plus(0, -2);
+
+        assertEquals(elements, first);
+        assertEquals(-1, (int) second.get(50));
+        assertEquals(-2, (int) second.get(0));
+        assertSame(first, PersistentList.of(first));
+    }
+
+    @Test
+    void appendsSplitFullChunks() {
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int i = 0; i < PersistentList.MAX_CHUNK_SIZE + 1; i++) list = list.plus(i);
+
+        assertEquals(2, list.chunkCount());
+        assertEquals(PersistentList.MAX_CHUNK_SIZE, (int) list.get(PersistentList.MAX_CHUNK_SIZE));
+    }
+
+    @Test
+    void mergesSmallChunks() {
+        Random random = new Random(7);
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) elements.add(i);
+        PersistentList<Integer> list = PersistentList.of(elements);
+        for (int step = 0; step < 1000; step++) {
+            list = list.minus(random.nextInt(list.size()));
+            if (step % 10 == 0) {
+                list = list.plusAll(random.nextInt(list.size() + 1), Collections.nCopies(3, -step));
+            }
+            // all the chunks but one have at least half of the max size
+            assertTrue(list.chunkCount() <= list.size() / (PersistentList.MAX_CHUNK_SIZE / 2) + 1);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.getstream.chat.android.client.models.ChannelUserRead;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadStateIndexTest {
+
+    private User me;
+    private User alice;
+    private User bob;
+    private ReadStateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        me = new User("me");
+        alice = new User("alice");
+        bob = new User("bob");
+        List<Message> messages = new ArrayList<>();
+        messages.add(message("1", me, 1000));
+        messages.add(message("2", alice, 2000));
+        messages.add(message("3", me, 3000));
+        messages.add(message("4", bob, 4000));
+        index = new ReadStateIndex(me.getId());
+        index.setMessages(messages);
+    }
+
+    @Test
+    void readerIsShownOnLastMessageBeforeLastRead() {
+        Map<String, ChannelUserRead> reads = new HashMap<>();
+        reads.put(bob.getId(), read(bob, 3500));
+
+        assertEquals(set("3"), index.updateReads(reads));
+        assertEquals(1, index.getReaders("3").size());
+    }
+
+    @Test
+    void ownMessagesAndCurrentUserAreSkipped() {
+        Map<String, ChannelUserRead> reads = new HashMap<>();
+        reads.put(alice.getId(), read(alice, 2500));
+        reads.put(me.getId(), read(me, 5000));
+
+        assertEquals(set("1"), index.updateReads(reads));
+        assertTrue(index.getReaders("2").isEmpty());
+        assertTrue(index.getReaders("4").isEmpty());
+    }
+
+    @Test
+    void changedReadOnlyTouchesTwoMessages() {
+        Map<String, ChannelUserRead> reads = new HashMap<>();
+        reads.put(alice.getId(), read(alice, 3500));
+        reads.put(bob.getId(), read(bob, 3500));
+        index.updateReads(reads);
+
+        reads.put(alice.getId(), read(alice, 5000));
+
+        assertEquals(set("3", "4"), index.updateReads(reads));
+        assertEquals(1, index.getReaders("3").size());
+        assertEquals(1, index.getReaders("4").size());
+        assertTrue(index.updateReads(reads).isEmpty());
+    }
+
+    private static Set<String> set(String... ids) {
+        Set<String> result = new HashSet<>();
+        for (String id : ids) result.add(id);
+        return result;
+    }
+
+    private static ChannelUserRead read(User user, long lastRead) {
+        ChannelUserRead read = new ChannelUserRead();
+        read.setUser(user);
+        read.setLastRead(new Date(lastRead));
+        return read;
+    }
+
+    private static Message message(String id, User user, long createdAt) {
+        Message message = new Message();
+        message.setId(id);
+        message.setUser(user);
+        message.setCreatedAt(new Date(createdAt));
+        return message;
+    }
+}
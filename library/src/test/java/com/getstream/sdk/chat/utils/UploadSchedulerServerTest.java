@@ -0,0 +1,247 @@
+package com.getstream.sdk.chat.utils;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.getstream.chat.android.client.errors.ChatError;
+import io.getstream.chat.android.client.utils.ProgressCallback;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link UploadScheduler} against a server, with the uploads running on the threads of OkHttp
+ */
+public class UploadSchedulerServerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    // long enough for an upload that shouldn't start to reach the server
+    private static final long SETTLE_MILLIS = 300;
+
+    @TempDir
+    File directory;
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private ScheduledExecutorService dispatcherThread;
+    private CountDownLatch release;
+    private AtomicInteger inFlight;
+    private AtomicInteger maxInFlight;
+    private AtomicInteger failuresLeft;
+    private List<Long> delays;
+    private int maxConcurrentUploads;
+    private UploadScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        release = new CountDownLatch(1);
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        failuresLeft = new AtomicInteger();
+        delays = new CopyOnWriteArrayList<>();
+        maxConcurrentUploads = 2;
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    if (failuresLeft.getAndDecrement() > 0) {
+                        return new MockResponse().setResponseCode(500);
+                    }
+                    return new MockResponse().setBody("https://cdn" + request.getPath() + "/" + request.getBodySize());
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+        client = new OkHttpClient();
+        dispatcherThread = Executors.newSingleThreadScheduledExecutor();
+
+        scheduler = new UploadScheduler(
+                this::upload,
+                UploadManager::hashFile,
+                Runnable::run,
+                new UploadScheduler.Dispatcher() {
+                    @Override
+                    public void post(Runnable runnable) {
+                        dispatcherThread.execute(runnable);
+                    }
+
+                    @Override
+                    public void postDelayed(Runnable runnable, long delayMillis) {
+                        // the backoff is checked, not waited for
+                        delays.add(delayMillis);
+                        dispatcherThread.execute(runnable);
+                    }
+                },
+                () -> maxConcurrentUploads);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        release.countDown();
+        dispatcherThread.shutdownNow();
+        client.dispatcher().executorService().shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    void runsAtMostTheMaxConcurrentUploads() throws Exception {
+        Listener[] listeners = new Listener[4];
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i] = enqueue(new AttachmentMetaData(file("file-" + i, i + 1)));
+        }
+        Thread.sleep(SETTLE_MILLIS);
+        assertEquals(2, server.getRequestCount());
+
+        release.countDown();
+        for (Listener listener : listeners) {
+            assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(listener.url.startsWith("https://cdn/upload"));
+        }
+        assertEquals(4, server.getRequestCount());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void cancelledUploadKeepsItsSlotUntilItsRequestIsDone() throws Exception {
+        maxConcurrentUploads = 1;
+        AttachmentMetaData first = new AttachmentMetaData(file("first", 1));
+        Listener cancelled = enqueue(first);
+        Listener next = enqueue(new AttachmentMetaData(file("next", 2)));
+        Thread.sleep(SETTLE_MILLIS);
+        assertEquals(1, server.getRequestCount());
+
+        onDispatcher(() -> scheduler.cancel(first));
+        Thread.sleep(SETTLE_MILLIS);
+        // the cancelled request is still running
+        assertEquals(1, server.getRequestCount());
+
+        release.countDown();
+        assertTrue(next.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, maxInFlight.get());
+        assertNull(cancelled.url);
+    }
+
+    @Test
+    void retriesFailedUploads() throws Exception {
+        failuresLeft.set(2);
+        release.countDown();
+        Listener listener = enqueue(new AttachmentMetaData(file("file", 3)));
+
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("https://cdn/upload/3", listener.url);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(UploadScheduler.RETRY_DELAY_MILLIS, (long) delays.get(0));
+        assertEquals(UploadScheduler.RETRY_DELAY_MILLIS * 2, (long) delays.get(1));
+    }
+
+    @Test
+    void failsAfterTheLastRetry() throws Exception {
+        failuresLeft.set(UploadScheduler.MAX_RETRIES + 1);
+        release.countDown();
+        Listener listener = enqueue(new AttachmentMetaData(file("file", 3)));
+
+        assertTrue(listener.done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(listener.failed);
+        assertEquals(UploadScheduler.MAX_RETRIES + 1, server.getRequestCount());
+    }
+
+    private void upload(File file, boolean image, ProgressCallback callback) {
+        Request request = new Request.Builder()
+                .url(server.url("/upload"))
+                .post(RequestBody.create(file, MediaType.get("application/octet-stream")))
+                .build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+                if (response.isSuccessful()) {
+                    callback.onSuccess(response.body().string());
+                } else {
+                    callback.onError(new ChatError("HTTP " + response.code(), null));
+                }
+                response.close();
+            }
+
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                callback.onError(new ChatError(e.getMessage(), e));
+            }
+        });
+    }
+
+    private Listener enqueue(AttachmentMetaData data) throws Exception {
+        Listener listener = new Listener();
+        onDispatcher(() -> scheduler.enqueue(data, false, listener));
+        return listener;
+    }
+
+    private void onDispatcher(Runnable runnable) throws Exception {
+        dispatcherThread.submit(runnable).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // files of different sizes have different content
+    private File file(String name, int size) throws IOException {
+        File file = new File(directory, name);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[size]);
+        }
+        return file;
+    }
+
+    private static class Listener implements ProgressCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile String url;
+        volatile boolean failed;
+
+        @Override
+        public void onSuccess(@NotNull String url) {
+            this.url = url;
+            done.countDown();
+        }
+
+        @Override
+        public void onError(@NotNull ChatError error) {
+            failed = true;
+            done.countDown();
+        }
+
+        @Override
+        public void onProgress(long progress) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.getstream.sdk.chat.utils;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.getstream.chat.android.client.errors.ChatError;
+import io.getstream.chat.android.client.utils.ProgressCallback;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UploadSchedulerTest {
+
+    private List<ProgressCallback> requests;
+    private List<File> requestedFiles;
+    private List<Runnable> delayed;
+    private List<Long> delays;
+    private UploadScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        requests = new ArrayList<>();
+        requestedFiles = new ArrayList<>();
+        delayed = new ArrayList<>();
+        delays = new ArrayList<>();
+        scheduler = new UploadScheduler(
+                (file, image, callback) -> {
+                    requestedFiles.add(file);
+                    requests.add(callback);
+                },
+                // files with the same name have the same content
+                File::getName,
+                Runnable::run,
+                new UploadScheduler.Dispatcher() {
+                    @Override
+                    public void post(Runnable runnable) {
+                        runnable.run();
+                    }
+
+                    @Override
+                    public void postDelayed(Runnable runnable, long delayMillis) {
+                        delays.add(delayMillis);
+                        delayed.add(runnable);
+                    }
+                },
+                () -> 2);
+    }
+
+    @Test
+    void limitsTheConcurrentUploads() {
+        Listener first = enqueue("a/1");
+        enqueue("a/2");
+        enqueue("a/3");
+        assertEquals(2, scheduler.getRunningCount());
+        assertEquals(1, scheduler.getPendingCount());
+
+        requests.get(0).onSuccess("url-1");
+        assertEquals("url-1", first.url);
+        assertEquals(2, scheduler.getRunningCount());
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals("3", requestedFiles.get(2).getName());
+    }
+
+    @Test
+    void cancelsWaitingUploads() {
+        enqueue("a/1");
+        enqueue("a/2");
+        AttachmentMetaData third = new AttachmentMetaData(new File("a/3"));
+        scheduler.enqueue(third, false, new Listener());
+        scheduler.cancel(third);
+        requests.get(0).onSuccess("url-1");
+        requests.get(1).onSuccess("url-2");
+        assertEquals(2, requests.size());
+        assertFalse(scheduler.isUploading());
+    }
+
+    @Test
+    void reusesACancelledRunningUpload() {
+        AttachmentMetaData first = new AttachmentMetaData(new File("a/1"));
+        scheduler.enqueue(first, false, new Listener());
+        scheduler.cancel(first);
+        assertEquals(1, scheduler.getRunningCount());
+
+        Listener again = enqueue("b/1");
+        assertEquals(1, requests.size());
+        requests.get(0).onSuccess("url-1");
+        assertEquals("url-1", again.url);
+    }
+
+    @Test
+    void forgetsTheResultOfACancelledUpload() {
+        AttachmentMetaData first = new AttachmentMetaData(new File("a/1"));
+        scheduler.enqueue(first, false, new Listener());
+        scheduler.cancel(first);
+        requests.get(0).onSuccess("url-1");
+        assertEquals(0, scheduler.getRunningCount());
+
+        enqueue("b/1");
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void uploadsTheSameContentOnce() {
+        Listener first = enqueue("a/1");
+        Listener copy = enqueue("b/1");
+        assertEquals(1, requests.size());
+        requests.get(0).onSuccess("url-1");
+        assertEquals("url-1", first.url);
+        assertEquals("url-1", copy.url);
+
+        Listener later = enqueue("c/1");
+        assertEquals(1, requests.size());
+        assertEquals("url-1", later.url);
+    }
+
+    @Test
+    void retriesWithBackoff() {
+        Listener listener = enqueue("a/1");
+        for (int i = 0; i < UploadScheduler.MAX_RETRIES; i++) {
+            requests.get(i).onError(null);
+            assertEquals(UploadScheduler.RETRY_DELAY_MILLIS << i, (long) delays.get(i));
+            delayed.get(i).run();
+        }
+        assertEquals(UploadScheduler.MAX_RETRIES + 1, requests.size());
+        assertTrue(scheduler.isUploading());
+
+        requests.get(UploadScheduler.MAX_RETRIES).onError(null);
+        assertTrue(listener.failed);
+        assertFalse(scheduler.isUploading());
+    }
+
+    @Test
+    void reportsTheProgressOfAllUploads() {
+        int[] reported = new int[2];
+        scheduler.setProgressListener((percent, remaining) -> {
+            reported[0] = percent;
+            reported[1] = remaining;
+        });
+        enqueue("a/1");
+        enqueue("a/2");
+        requests.get(0).onProgress(100);
+        assertEquals(2, reported[1]);
+        requests.get(0).onSuccess("url-1");
+        requests.get(1).onProgress(50);
+        assertEquals(1, reported[1]);
+        requests.get(1).onSuccess("url-2");
+        assertEquals(100, reported[0]);
+        assertEquals(0, reported[1]);
+    }
+
+    private Listener enqueue(String path) {
+        Listener listener = new Listener();
+        scheduler.enqueue(new AttachmentMetaData(new File(path)), false, listener);
+        return listener;
+    }
+
+    private static class Listener implements ProgressCallback {
+        String url;
+        boolean failed;
+
+        @Override
+        public void onSuccess(@NotNull String url) {
+            this.url = url;
+        }
+
+        @Override
+        public void onError(@NotNull ChatError error) {
+            failed = true;
+        }
+
+        @Override
+        public void onProgress(long progress) {
+        }
+    }
+}